@@ -8,15 +8,26 @@ import com.simpletown.command.TownCommand;
 import com.simpletown.command.WarCommand;
 import com.simpletown.data.TownManager;
 import com.simpletown.jobs.JobRewardService;
+import com.simpletown.jobs.JobRewardTable;
+import com.simpletown.jobs.JobStats;
 import com.simpletown.jobs.JobsListener;
 import com.simpletown.jobs.JobsManager;
 import com.simpletown.jobs.JobsMenuManager;
 import com.simpletown.jobs.JobsService;
+import com.simpletown.jobs.PlacedBlockTracker;
+import com.simpletown.map.BlueMapMapRenderer;
+import com.simpletown.map.CompositeMapRenderer;
 import com.simpletown.map.DynmapMapRenderer;
+import com.simpletown.map.GeoJsonMapRenderer;
+import com.simpletown.map.MapRenderer;
 import com.simpletown.listener.ChunkEnterListener;
+import com.simpletown.movement.ChunkOccupancyIndex;
+import com.simpletown.movement.PlayerTerritoryTracker;
+import com.simpletown.schedule.DeadlineScheduler;
 import com.simpletown.service.ConfirmationManager;
 import com.simpletown.service.MessageService;
 import com.simpletown.service.*;
+import com.simpletown.war.BattleLog;
 import com.simpletown.war.WarInfoMenuManager;
 import com.simpletown.war.WarFlagRegistry;
 import com.simpletown.war.WarListener;
@@ -26,8 +37,11 @@ import net.milkbowl.vault.economy.Economy;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
-import com.simpletown.listener.TownProtectionListener;
+import com.simpletown.listener.ProtectionListener;
+import com.simpletown.protection.ProtectionService;
 
+import java.util.ArrayList;
+import java.util.List;
 
 public class SimpleTownPlugin extends JavaPlugin {
     private TownManager townManager;
@@ -42,11 +56,15 @@ public class SimpleTownPlugin extends JavaPlugin {
     private ResourceMenuManager resourceMenuManager;
     private InfoMenuManager infoMenuManager;
     private MapService mapService;
+    private GeoJsonMapRenderer geoJsonMapRenderer;
     private PoliticalScoreService politicalScoreService;
     private JobsManager jobsManager;
     private JobsService jobsService;
     private JobsMenuManager jobsMenuManager;
     private JobRewardService jobRewardService;
+    private JobRewardTable jobRewardTable;
+    private PlacedBlockTracker placedBlockTracker;
+    private JobStats jobStats;
     private Economy economy;
     private SimpleTownAPI api;
     private PlotSettingsMenuManager plotSettingsMenuManager;
@@ -55,18 +73,26 @@ public class SimpleTownPlugin extends JavaPlugin {
     private WarMenuManager warMenuManager;
     private WarFlagRegistry warFlagRegistry;
     private WarInfoMenuManager warInfoMenuManager;
+    private PlayerTerritoryTracker territoryTracker;
+    private DeadlineScheduler deadlineScheduler;
+    private BattleLog battleLog;
 
     @Override
     public void onEnable() {
         saveDefaultConfig();
         messages = new MessageService(this);
-        confirmationManager = new ConfirmationManager(messages);
+        deadlineScheduler = new DeadlineScheduler(this);
+        confirmationManager = new ConfirmationManager(messages, deadlineScheduler);
         townManager = new TownManager(this);
         api = new SimpleTownAPI(townManager);
         jobsManager = new JobsManager(this);
         jobsService = new JobsService(this, jobsManager, messages, townManager);
-        jobsMenuManager = new JobsMenuManager(jobsService, jobsManager, messages);
-        jobRewardService = new JobRewardService(this, messages);
+        jobStats = new JobStats(this);
+        jobsMenuManager = new JobsMenuManager(jobsService, jobsManager, messages, jobStats);
+        jobRewardService = new JobRewardService(this, messages,
+                Math.max(1, getConfig().getInt("jobs.payout-interval-seconds", 10)));
+        jobRewardTable = new JobRewardTable(this);
+        placedBlockTracker = new PlacedBlockTracker(this, jobRewardTable);
         politicalScoreService = new PoliticalScoreService(this);
         settingsMenuManager = new SettingsMenuManager(townManager, messages);
         progressionService = new ProgressionService(this);
@@ -75,16 +101,42 @@ public class SimpleTownPlugin extends JavaPlugin {
         craftRestrictionService = new CraftRestrictionService(this, townManager, messages);
         richChunkService = new RichChunkService(this);
         resourceMenuManager = new ResourceMenuManager(richChunkService, messages, townManager);
-        warManager = new WarManager(this, messages, townManager);
+        warManager = new WarManager(this, messages, townManager, deadlineScheduler);
+        battleLog = new BattleLog(this);
+        warManager.setBattleLog(battleLog);
         infoMenuManager = new InfoMenuManager(messages, warManager);
         plotSettingsMenuManager = new PlotSettingsMenuManager(townManager, messages);
         plotInfoMenuManager = new PlotInfoMenuManager(messages);
         DynmapMapRenderer dynmapMapRenderer = new DynmapMapRenderer(this);
-        mapService = new MapService(townManager, warManager, dynmapMapRenderer);
+        List<MapRenderer> mapRenderers = new ArrayList<>(List.of(dynmapMapRenderer));
+        BlueMapMapRenderer blueMapRenderer = getServer().getPluginManager().getPlugin("BlueMap") != null
+                ? new BlueMapMapRenderer(this) : null;
+        if (blueMapRenderer != null) {
+            mapRenderers.add(blueMapRenderer);
+        }
+        if (getConfig().getBoolean("map.geojson.enabled", false)) {
+            geoJsonMapRenderer = new GeoJsonMapRenderer(this, Math.max(1, getConfig().getInt("map.geojson.flush-interval-seconds", 5)));
+            mapRenderers.add(geoJsonMapRenderer);
+        }
+        MapRenderer mapRenderer = mapRenderers.size() == 1 ? dynmapMapRenderer
+                : new CompositeMapRenderer(getLogger(), mapRenderers);
+        mapService = new MapService(this, townManager, warManager, mapRenderer,
+                Math.max(1, getConfig().getInt("map.refresh-interval-ticks", 20)),
+                Math.max(1, getConfig().getInt("map.worker-threads", 2)),
+                getConfig().getInt("map.operations-per-tick", 20));
         warManager.setMapService(mapService);
+        territoryTracker = new PlayerTerritoryTracker(this, townManager, warManager);
+        ChunkOccupancyIndex occupancyIndex = new ChunkOccupancyIndex(townManager);
+        townManager.addMembershipListener(occupancyIndex);
+        territoryTracker.addListener(occupancyIndex);
+        territoryTracker.addListener(new ChunkEnterListener(messages));
+        warManager.setOccupancyIndex(occupancyIndex);
         dynmapMapRenderer.setOnReady(() -> mapService.refreshAll());
+        if (blueMapRenderer != null) {
+            blueMapRenderer.setOnReady(() -> mapService.refreshAll());
+        }
         warMenuManager = new WarMenuManager(this, townManager, messages, politicalScoreService, warManager);
-        warInfoMenuManager = new WarInfoMenuManager(messages);
+        warInfoMenuManager = new WarInfoMenuManager(messages, battleLog);
         warFlagRegistry = new WarFlagRegistry(this);
         hookEconomy();
         registerPlaceholder();
@@ -96,7 +148,8 @@ public class SimpleTownPlugin extends JavaPlugin {
         getCommand("town").setExecutor(townCommand);
         getCommand("town").setTabCompleter(townCommand);
 
-        TownAdminCommand adminCommand = new TownAdminCommand(this, townManager, messages, settingsMenuManager, richChunkService, mapService, politicalScoreService, warManager);
+        ProtectionService protectionService = new ProtectionService(townManager, warManager, getLogger());
+        TownAdminCommand adminCommand = new TownAdminCommand(this, townManager, messages, settingsMenuManager, richChunkService, mapService, politicalScoreService, warManager, protectionService, territoryTracker, jobRewardTable, placedBlockTracker);
         getCommand("townadmin").setExecutor(adminCommand);
         getCommand("townadmin").setTabCompleter(adminCommand);
 
@@ -111,7 +164,10 @@ public class SimpleTownPlugin extends JavaPlugin {
         getCommand("war").setExecutor(warCommand);
         getCommand("war").setTabCompleter(warCommand);
 
-        getServer().getPluginManager().registerEvents(new ChunkEnterListener(townManager, messages, warManager), this);
+        getServer().getPluginManager().registerEvents(territoryTracker, this);
+        territoryTracker.start();
+        territoryTracker.trackOnlinePlayers();
+        deadlineScheduler.start();
         getServer().getPluginManager().registerEvents(settingsMenuManager, this);
         getServer().getPluginManager().registerEvents(progressionMenuManager, this);
         getServer().getPluginManager().registerEvents(inventoryService, this);
@@ -124,8 +180,11 @@ public class SimpleTownPlugin extends JavaPlugin {
         getServer().getPluginManager().registerEvents(warMenuManager, this);
         getServer().getPluginManager().registerEvents(warInfoMenuManager, this);
         getServer().getPluginManager().registerEvents(new WarListener(warManager, messages), this);
-        getServer().getPluginManager().registerEvents(new JobsListener(jobsService, jobsManager, jobRewardService), this);
-        getServer().getPluginManager().registerEvents(new TownProtectionListener(townManager, messages), this);
+        getServer().getPluginManager().registerEvents(warManager.getHologramService(), this);
+        getServer().getPluginManager().registerEvents(new JobsListener(jobsService, jobsManager, jobRewardService, jobRewardTable, placedBlockTracker, jobStats), this);
+        getServer().getPluginManager().registerEvents(placedBlockTracker, this);
+        placedBlockTracker.start();
+        getServer().getPluginManager().registerEvents(new ProtectionListener(protectionService, townManager, messages), this);
 
         getServer().getScheduler().runTaskTimer(this, () -> {
             for (org.bukkit.entity.Player player : getServer().getOnlinePlayers()) {
@@ -137,20 +196,47 @@ public class SimpleTownPlugin extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (deadlineScheduler != null) {
+            deadlineScheduler.stop();
+        }
+        if (territoryTracker != null) {
+            territoryTracker.stop();
+        }
         townManager.save();
         richChunkService.save();
         politicalScoreService.save();
         if (warManager != null) {
             warManager.save();
+            warManager.getHologramService().clearAll();
+        }
+        if (battleLog != null) {
+            battleLog.shutdown();
+        }
+        if (jobRewardService != null) {
+            jobRewardService.shutdown();
+        }
+        if (placedBlockTracker != null) {
+            placedBlockTracker.stop();
+        }
+        if (jobStats != null) {
+            jobStats.shutdown();
         }
         if (jobsManager != null) {
             jobsManager.save();
         }
         if (mapService != null) {
+            mapService.shutdown();
+            if (geoJsonMapRenderer != null) {
+                geoJsonMapRenderer.shutdown();
+            }
             mapService.clearAll();
         }
     }
 
+    public DeadlineScheduler getDeadlineScheduler() {
+        return deadlineScheduler;
+    }
+
     public Economy getEconomy() {
         return economy;
     }
@@ -185,7 +271,7 @@ public class SimpleTownPlugin extends JavaPlugin {
 
     private void registerPlaceholder() {
         if (getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
-            new TownPlaceholder(townManager, jobsManager, messages).register();
+            new TownPlaceholder(townManager, jobsManager, messages, jobStats).register();
             new PoliticalScorePlaceholder(politicalScoreService).register();
         }
     }
@@ -0,0 +1,40 @@
+package com.simpletown.api.event;
+
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.data.Town;
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Fired when a player enters a chunk occupied during a war, or moves between zones held by
+ * different controllers.
+ */
+public class OccupiedZoneEnterEvent extends TerritoryEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final Town owner;
+    private final String controller;
+
+    public OccupiedZoneEnterEvent(Player player, Town owner, String controller, ChunkPosition from, ChunkPosition to, TerritoryChangeCause cause) {
+        super(player, from, to, cause);
+        this.owner = owner;
+        this.controller = controller;
+    }
+
+    public Town getOwner() {
+        return owner;
+    }
+
+    public String getController() {
+        return controller;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
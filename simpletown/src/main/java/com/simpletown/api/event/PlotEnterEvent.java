@@ -0,0 +1,40 @@
+package com.simpletown.api.event;
+
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.data.PlotData;
+import com.simpletown.data.Town;
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Fired when a player steps onto a plot chunk different from the one they were on.
+ */
+public class PlotEnterEvent extends TerritoryEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final Town town;
+    private final PlotData plot;
+
+    public PlotEnterEvent(Player player, Town town, PlotData plot, ChunkPosition from, ChunkPosition to, TerritoryChangeCause cause) {
+        super(player, from, to, cause);
+        this.town = town;
+        this.plot = plot;
+    }
+
+    public Town getTown() {
+        return town;
+    }
+
+    public PlotData getPlot() {
+        return plot;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,10 @@
+package com.simpletown.api.event;
+
+public enum TerritoryChangeCause {
+    JOIN,
+    MOVE,
+    TELEPORT,
+    VEHICLE,
+    RESPAWN,
+    QUIT
+}
@@ -0,0 +1,34 @@
+package com.simpletown.api.event;
+
+import com.simpletown.data.ChunkPosition;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerEvent;
+
+/**
+ * Base for territory transition events. Fired once per chunk crossing after the movement has
+ * happened, so they are informational and cannot be cancelled.
+ */
+public abstract class TerritoryEvent extends PlayerEvent {
+    private final ChunkPosition from;
+    private final ChunkPosition to;
+    private final TerritoryChangeCause cause;
+
+    protected TerritoryEvent(Player player, ChunkPosition from, ChunkPosition to, TerritoryChangeCause cause) {
+        super(player);
+        this.from = from;
+        this.to = to;
+        this.cause = cause;
+    }
+
+    public ChunkPosition getFrom() {
+        return from;
+    }
+
+    public ChunkPosition getTo() {
+        return to;
+    }
+
+    public TerritoryChangeCause getCause() {
+        return cause;
+    }
+}
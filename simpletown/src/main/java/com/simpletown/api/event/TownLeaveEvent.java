@@ -0,0 +1,33 @@
+package com.simpletown.api.event;
+
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.data.Town;
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Fired when a player leaves the town they were in, either into the wilderness or another town.
+ */
+public class TownLeaveEvent extends TerritoryEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final Town town;
+
+    public TownLeaveEvent(Player player, Town town, ChunkPosition from, ChunkPosition to, TerritoryChangeCause cause) {
+        super(player, from, to, cause);
+        this.town = town;
+    }
+
+    public Town getTown() {
+        return town;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
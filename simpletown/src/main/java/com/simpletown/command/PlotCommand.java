@@ -88,7 +88,7 @@ public class PlotCommand implements CommandExecutor, TabCompleter {
             return;
         }
         plot.setSalePrice(price);
-        townManager.save();
+        townManager.save(town, plot);
         messages.send(player, "plot.sell-success", Map.of("price", formatPrice(price)));
     }
 
@@ -145,7 +145,7 @@ public class PlotCommand implements CommandExecutor, TabCompleter {
         plot.setOwner(player.getName());
         plot.clearSale();
         plot.clearResidents();
-        townManager.save();
+        townManager.save(town, plot);
         messages.send(player, "plot.buy-success", Map.of("price", formatPrice(price)));
     }
 
@@ -171,7 +171,7 @@ public class PlotCommand implements CommandExecutor, TabCompleter {
         plot.setOwner(null);
         plot.clearResidents();
         plot.clearSale();
-        townManager.save();
+        townManager.save(town, plot);
         messages.send(player, "plot.reclaim-success");
     }
 
@@ -190,7 +190,7 @@ public class PlotCommand implements CommandExecutor, TabCompleter {
             messages.sendError(player, "plot.not-in-town");
             return;
         }
-        plotSettingsMenuManager.open(player, plot);
+        plotSettingsMenuManager.open(player, town, plot);
     }
 
     private void handleInvite(Player player, String[] args) {
@@ -218,7 +218,7 @@ public class PlotCommand implements CommandExecutor, TabCompleter {
             return;
         }
         if (plot.addResident(targetName)) {
-            townManager.save();
+            townManager.save(town, plot);
             messages.send(player, "plot.invite-success", Map.of("player", targetName));
             Player targetOnline = Bukkit.getPlayerExact(targetName);
             if (targetOnline != null) {
@@ -249,7 +249,7 @@ public class PlotCommand implements CommandExecutor, TabCompleter {
             messages.sendError(player, "plot.kick-missing");
             return;
         }
-        townManager.save();
+        townManager.save(town, plot);
         messages.send(player, "plot.kick-success", Map.of("player", targetName));
     }
 
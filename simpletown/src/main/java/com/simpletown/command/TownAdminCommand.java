@@ -3,9 +3,19 @@ package com.simpletown.command;
 import com.simpletown.data.AgeTier;
 import com.simpletown.data.BuildingType;
 import com.simpletown.data.Town;
+import com.simpletown.data.TownFlag;
 import com.simpletown.data.TownManager;
+import com.simpletown.jobs.JobRewardTable;
+import com.simpletown.jobs.PlacedBlockTracker;
+import com.simpletown.map.OutlineBenchmark;
+import com.simpletown.movement.MovementMetrics;
+import com.simpletown.movement.PlayerTerritoryTracker;
+import com.simpletown.protection.ProtectionMetrics;
+import com.simpletown.protection.ProtectionService;
+import com.simpletown.protection.ProtectionTracer;
 import com.simpletown.service.MessageService;
 import com.simpletown.service.SettingsMenuManager;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -33,6 +43,11 @@ public class TownAdminCommand implements CommandExecutor, TabCompleter {
     private final Plugin plugin;
     private final PoliticalScoreService politicalScoreService;
     private final WarManager warManager;
+    private final ProtectionService protectionService;
+    private final PlayerTerritoryTracker territoryTracker;
+    private final JobRewardTable jobRewardTable;
+    private final PlacedBlockTracker placedBlockTracker;
+    private boolean outlineBenchmarkRunning;
 
     private static final Map<String, BuildingType> BUILDING_ALIASES = Map.ofEntries(
             Map.entry("sklad", BuildingType.WAREHOUSE),
@@ -59,7 +74,7 @@ public class TownAdminCommand implements CommandExecutor, TabCompleter {
     private record BuildingSelection(BuildingType type, int level) {
     }
 
-    public TownAdminCommand(Plugin plugin, TownManager townManager, MessageService messages, SettingsMenuManager settingsMenuManager, RichChunkService richChunkService, MapService mapService, PoliticalScoreService politicalScoreService, WarManager warManager) {
+    public TownAdminCommand(Plugin plugin, TownManager townManager, MessageService messages, SettingsMenuManager settingsMenuManager, RichChunkService richChunkService, MapService mapService, PoliticalScoreService politicalScoreService, WarManager warManager, ProtectionService protectionService, PlayerTerritoryTracker territoryTracker, JobRewardTable jobRewardTable, PlacedBlockTracker placedBlockTracker) {
         this.plugin = plugin;
         this.townManager = townManager;
         this.messages = messages;
@@ -68,6 +83,10 @@ public class TownAdminCommand implements CommandExecutor, TabCompleter {
         this.mapService = mapService;
         this.politicalScoreService = politicalScoreService;
         this.warManager = warManager;
+        this.protectionService = protectionService;
+        this.territoryTracker = territoryTracker;
+        this.jobRewardTable = jobRewardTable;
+        this.placedBlockTracker = placedBlockTracker;
     }
 
     @Override
@@ -90,6 +109,8 @@ public class TownAdminCommand implements CommandExecutor, TabCompleter {
             if (warManager != null) {
                 warManager.reload();
             }
+            territoryTracker.reload();
+            jobRewardTable.reload();
             mapService.refreshAll();
             messages.send(sender, "admin.reload-success");
             return true;
@@ -125,6 +146,11 @@ public class TownAdminCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        if (args[0].equalsIgnoreCase("perf")) {
+            handlePerf(sender, args);
+            return true;
+        }
+
         if (args.length < 3 || !args[1].equalsIgnoreCase("set")) {
             messages.sendError(sender, "admin.set-usage");
             return true;
@@ -152,6 +178,7 @@ public class TownAdminCommand implements CommandExecutor, TabCompleter {
             List<String> suggestions = new ArrayList<>();
             suggestions.add("reload");
             suggestions.add("settings");
+            suggestions.add("perf");
             suggestions.addAll(townManager.getAllTownNames());
             return suggestions.stream()
                     .filter(it -> it.toLowerCase(Locale.ROOT).startsWith(args[0].toLowerCase(Locale.ROOT)))
@@ -165,6 +192,10 @@ public class TownAdminCommand implements CommandExecutor, TabCompleter {
                     .collect(Collectors.toList());
         }
 
+        if (args.length >= 2 && args[0].equalsIgnoreCase("perf")) {
+            return perfSuggestions(args);
+        }
+
         if (args.length == 2) {
             return Collections.singletonList("set").stream()
                     .filter(it -> it.startsWith(args[1].toLowerCase(Locale.ROOT)))
@@ -249,6 +280,194 @@ public class TownAdminCommand implements CommandExecutor, TabCompleter {
         }
     }
 
+    private void handlePerf(CommandSender sender, String[] args) {
+        String mode = args.length < 2 ? "" : args[1].toLowerCase(Locale.ROOT);
+        switch (mode) {
+            case "protection" -> showProtectionMetrics(sender);
+            case "movement" -> showMovementMetrics(sender);
+            case "placed" -> showPlacedBlocks(sender);
+            case "reset" -> {
+                protectionService.getMetrics().reset();
+                territoryTracker.getMetrics().reset();
+                messages.send(sender, "admin.perf.reset");
+            }
+            case "trace" -> handleTrace(sender, args);
+            case "outline" -> handleOutlineBenchmark(sender, args);
+            default -> messages.sendError(sender, "admin.perf.usage");
+        }
+    }
+
+    private void showProtectionMetrics(CommandSender sender) {
+        ProtectionMetrics metrics = protectionService.getMetrics();
+        long seconds = (System.currentTimeMillis() - metrics.getStartedAt()) / 1000L;
+        messages.send(sender, "admin.perf.protection.header", Map.of("seconds", String.valueOf(seconds)));
+        for (TownFlag action : List.of(TownFlag.BREAK, TownFlag.PLACE, TownFlag.INTERACT, TownFlag.PVP)) {
+            ProtectionMetrics.Counters counters = metrics.get(action);
+            messages.send(sender, "admin.perf.protection.line", Map.of(
+                    "type", action.getDisplayName(),
+                    "evaluated", String.valueOf(counters.getEvaluated()),
+                    "allowed", String.valueOf(counters.getAllowed()),
+                    "denied", String.valueOf(counters.getDenied()),
+                    "rejected", String.valueOf(counters.getFastPathRejected()),
+                    "p50", String.valueOf(counters.percentileMicros(0.5)),
+                    "p99", String.valueOf(counters.percentileMicros(0.99)),
+                    "max", String.valueOf(counters.getMaxMicros())
+            ));
+        }
+        long lookups = metrics.getCacheHits() + metrics.getCacheMisses();
+        messages.send(sender, "admin.perf.protection.cache", Map.of(
+                "hits", String.valueOf(metrics.getCacheHits()),
+                "total", String.valueOf(lookups),
+                "ratio", String.format(Locale.ROOT, "%.1f", metrics.getCacheHitRatio() * 100.0)
+        ));
+        ProtectionTracer tracer = protectionService.getTracer();
+        if (tracer.isActive()) {
+            messages.send(sender, "admin.perf.trace.active", Map.of(
+                    "player", tracer.getTargetName(),
+                    "rate", String.valueOf(tracer.getSampleRate())
+            ));
+        }
+    }
+
+    private void showMovementMetrics(CommandSender sender) {
+        MovementMetrics metrics = territoryTracker.getMetrics();
+        messages.send(sender, "admin.perf.movement.header", Map.of(
+                "mode", territoryTracker.getMode().name().toLowerCase(Locale.ROOT),
+                "interval", String.valueOf(territoryTracker.getSampleInterval()),
+                "seconds", String.valueOf(metrics.getElapsedSeconds())
+        ));
+        messages.send(sender, "admin.perf.movement.line", Map.of(
+                "checks", String.valueOf(metrics.getChecks()),
+                "crossings", String.valueOf(metrics.getCrossings()),
+                "per-check", String.format(Locale.ROOT, "%.2f", metrics.getMicrosPerCheck()),
+                "per-second", String.format(Locale.ROOT, "%.1f", metrics.getMicrosPerSecond()),
+                "total", String.valueOf(metrics.getTotalMicros())
+        ));
+    }
+
+    private void showPlacedBlocks(CommandSender sender) {
+        PlacedBlockTracker.Stats stats = placedBlockTracker.getStats();
+        messages.send(sender, "admin.perf.placed", Map.of(
+                "chunks", String.valueOf(stats.chunks()),
+                "loaded", String.valueOf(stats.loadedChunks()),
+                "sections", String.valueOf(stats.sections()),
+                "kb", String.format(Locale.ROOT, "%.1f", stats.bytes() / 1024.0),
+                "per-chunk", String.format(Locale.ROOT, "%.1f", stats.loadedChunks() == 0 ? 0.0 : (double) stats.bytes() / stats.loadedChunks())
+        ));
+    }
+
+    private void handleTrace(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            messages.sendError(sender, "admin.perf.usage");
+            return;
+        }
+        ProtectionTracer tracer = protectionService.getTracer();
+        if (args[2].equalsIgnoreCase("off")) {
+            tracer.stop();
+            messages.send(sender, "admin.perf.trace.off");
+            return;
+        }
+        Player target = Bukkit.getPlayerExact(args[2]);
+        if (target == null) {
+            messages.sendError(sender, "admin.perf.trace.not-found", Map.of("player", args[2]));
+            return;
+        }
+        double rate = 1.0;
+        if (args.length >= 4) {
+            try {
+                rate = Double.parseDouble(args[3]);
+            } catch (NumberFormatException ex) {
+                rate = -1;
+            }
+            if (rate <= 0 || rate > 1) {
+                messages.sendError(sender, "admin.perf.trace.invalid-rate");
+                return;
+            }
+        }
+        tracer.start(target, rate);
+        messages.send(sender, "admin.perf.trace.on", Map.of(
+                "player", target.getName(),
+                "rate", String.valueOf(rate)
+        ));
+    }
+
+    private void handleOutlineBenchmark(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            messages.sendError(sender, "admin.perf.outline.usage");
+            return;
+        }
+        int chunks;
+        int toggles;
+        try {
+            chunks = Integer.parseInt(args[2]);
+            toggles = args.length >= 4 ? Integer.parseInt(args[3]) : 500;
+        } catch (NumberFormatException ex) {
+            messages.sendError(sender, "admin.perf.outline.usage");
+            return;
+        }
+        if (chunks < 1 || chunks > 50000 || toggles < 1 || toggles > 10000) {
+            messages.sendError(sender, "admin.perf.outline.invalid");
+            return;
+        }
+        if (outlineBenchmarkRunning) {
+            messages.sendError(sender, "admin.perf.outline.running");
+            return;
+        }
+        outlineBenchmarkRunning = true;
+        messages.send(sender, "admin.perf.outline.started", Map.of("chunks", String.valueOf(chunks), "toggles", String.valueOf(toggles)));
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            OutlineBenchmark.Result result = null;
+            try {
+                result = OutlineBenchmark.run(chunks, toggles, 42L);
+            } finally {
+                OutlineBenchmark.Result finished = result;
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    outlineBenchmarkRunning = false;
+                    if (finished == null) {
+                        messages.sendError(sender, "admin.perf.outline.failed");
+                        return;
+                    }
+                    messages.send(sender, "admin.perf.outline.result", Map.ofEntries(
+                            Map.entry("chunks", String.valueOf(finished.chunks())),
+                            Map.entry("toggles", String.valueOf(finished.toggles())),
+                            Map.entry("loops", String.valueOf(finished.loops())),
+                            Map.entry("raw-vertices", String.valueOf(finished.rawVertices())),
+                            Map.entry("vertices", String.valueOf(finished.vertices())),
+                            Map.entry("mismatches", String.valueOf(finished.mismatches())),
+                            Map.entry("initial-rebuild", String.valueOf(finished.initialRebuildMicros())),
+                            Map.entry("initial-incremental", String.valueOf(finished.initialIncrementalMicros())),
+                            Map.entry("rebuild-p50", String.valueOf(finished.rebuildP50())),
+                            Map.entry("rebuild-p99", String.valueOf(finished.rebuildP99())),
+                            Map.entry("incremental-p50", String.valueOf(finished.incrementalP50())),
+                            Map.entry("incremental-p99", String.valueOf(finished.incrementalP99()))
+                    ));
+                });
+            }
+        });
+    }
+
+    private List<String> perfSuggestions(String[] args) {
+        if (args.length == 2) {
+            return Arrays.asList("protection", "movement", "placed", "reset", "trace", "outline").stream()
+                    .filter(it -> it.startsWith(args[1].toLowerCase(Locale.ROOT)))
+                    .collect(Collectors.toList());
+        }
+        if (args.length == 3 && args[1].equalsIgnoreCase("trace")) {
+            List<String> suggestions = new ArrayList<>();
+            suggestions.add("off");
+            Bukkit.getOnlinePlayers().forEach(player -> suggestions.add(player.getName()));
+            return suggestions.stream()
+                    .filter(it -> it.toLowerCase(Locale.ROOT).startsWith(args[2].toLowerCase(Locale.ROOT)))
+                    .collect(Collectors.toList());
+        }
+        if (args.length == 4 && args[1].equalsIgnoreCase("trace")) {
+            return Arrays.asList("1", "0.5", "0.1").stream()
+                    .filter(it -> it.startsWith(args[3]))
+                    .collect(Collectors.toList());
+        }
+        return Collections.emptyList();
+    }
+
     private BuildingSelection parseBuilding(String token) {
         if (token == null || token.isEmpty()) {
             return null;
@@ -363,7 +363,7 @@ public class TownCommand implements CommandExecutor, TabCompleter {
         }
         townManager.deleteTown(town);
         messages.send(player, "town.deleted", Map.of("name", town.getName()));
-        mapService.refreshAll();
+        mapService.removeTown(town);
     }
 
     private void handleConfirm(CommandSender sender, String[] args) {
@@ -756,7 +756,9 @@ public class TownCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        townSpawnCooldowns.put(player.getUniqueId(), now + TOWN_SPAWN_COOLDOWN_MS);
+        UUID playerId = player.getUniqueId();
+        townSpawnCooldowns.put(playerId, now + TOWN_SPAWN_COOLDOWN_MS);
+        plugin.getDeadlineScheduler().schedule("town-spawn:" + playerId, now + TOWN_SPAWN_COOLDOWN_MS, () -> townSpawnCooldowns.remove(playerId));
         player.teleport(spawn);
         messages.send(player, "town.spawn.success");
     }
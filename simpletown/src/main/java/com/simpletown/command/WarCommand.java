@@ -106,7 +106,7 @@ public class WarCommand implements CommandExecutor, TabCompleter {
         }
         WarConflict conflict = warManager.getConflictForTown(town.getName()).orElse(null);
         if (conflict == null || conflict.getStatus() == null || conflict.getStatus() == WarStatus.ENDED) {
-            messages.sendError(player, "war.no-war");
+            warInfoMenuManager.openLatest(player, town);
             return;
         }
         Town attacker = townManager.getTownByName(conflict.getAttacker());
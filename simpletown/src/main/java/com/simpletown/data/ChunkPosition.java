@@ -1,7 +1,9 @@
 package com.simpletown.data;
 
 import org.bukkit.Chunk;
+import org.bukkit.Location;
 import org.bukkit.World;
+import org.bukkit.block.Block;
 
 import java.util.Objects;
 
@@ -20,6 +22,14 @@ public class ChunkPosition {
         return new ChunkPosition(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
     }
 
+    public static ChunkPosition fromBlock(Block block) {
+        return new ChunkPosition(block.getWorld().getName(), block.getX() >> 4, block.getZ() >> 4);
+    }
+
+    public static ChunkPosition fromLocation(Location location) {
+        return new ChunkPosition(location.getWorld().getName(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
     public String getWorld() {
         return world;
     }
@@ -1,12 +1,16 @@
 package com.simpletown.data;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class PlotData {
+    private static final AtomicLong REVISIONS = new AtomicLong();
+
     private String owner;
     private final Set<String> residents;
     private double salePrice;
     private final TownFlags flags;
+    private volatile long revision = REVISIONS.incrementAndGet();
 
     public PlotData(String owner, Collection<String> residents, double salePrice, TownFlags flags) {
         this.owner = normalize(owner);
@@ -27,6 +31,18 @@ public class PlotData {
         return new PlotData(null, Collections.emptySet(), 0, defaults);
     }
 
+    /**
+     * Changes with every {@link TownManager#save(Town, PlotData)} of this plot; the owning town's
+     * revision moves along with it.
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    public void markChanged() {
+        revision = REVISIONS.incrementAndGet();
+    }
+
     public boolean isMunicipal() {
         return owner == null || owner.isEmpty();
     }
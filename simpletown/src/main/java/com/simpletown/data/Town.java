@@ -2,8 +2,11 @@ package com.simpletown.data;
 
 import org.bukkit.Location;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Town {
+    private static final AtomicLong REVISIONS = new AtomicLong();
+
     private String name;
     private String mayor;
     private final Set<String> citizens;
@@ -21,6 +24,7 @@ public class Town {
     private final Map<ChunkPosition, PlotData> plots;
     private Location spawn;
     private final long createdAt;
+    private volatile long revision = REVISIONS.incrementAndGet();
 
     public Town(String name, String mayor, Set<String> citizens, Set<ChunkPosition> chunks, ChunkPosition capital, boolean open, TownFlags citizenFlags, TownFlags outsiderFlags, String mapColor) {
         this(name, mayor, citizens, chunks, capital, 0.0, open, citizenFlags, outsiderFlags, mapColor, AgeTier.AGE1.getLevel(), new HashMap<>(), new ArrayList<>(), "", new HashMap<>(), null, System.currentTimeMillis());
@@ -70,6 +74,19 @@ public class Town {
         return name;
     }
 
+    /**
+     * Changes with every {@link TownManager} mutation of this town or one of its plots. Values are
+     * drawn from one counter for all towns, so a reloaded or recreated town never repeats the
+     * revision of the one it replaced.
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    public void markChanged() {
+        revision = REVISIONS.incrementAndGet();
+    }
+
     public void setName(String name) {
         if (name != null && !name.trim().isEmpty()) {
             this.name = name.trim();
@@ -98,6 +115,10 @@ public class Town {
         return capital;
     }
 
+    public boolean isCapitalChunk(String world, int x, int z) {
+        return capital != null && capital.getX() == x && capital.getZ() == z && capital.getWorld().equals(world);
+    }
+
     public void setCapital(ChunkPosition capital) {
         if (capital != null) {
             this.capital = capital;
@@ -0,0 +1,43 @@
+package com.simpletown.data;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Value derived from a town, kept until the town's revision changes. Values that also depend on
+ * something outside the town pass that source's revision as the context, for example
+ * {@code WarManager#getRevision()}. Safe to share with worker threads; a value computed twice in
+ * a race is simply stored twice.
+ */
+public class TownCache<V> {
+    private record Entry<V>(long revision, long context, V value) {
+    }
+
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    public V get(Town town, long context, Function<Town, V> loader) {
+        return get(town.getName(), town.getRevision(), context, () -> loader.apply(town));
+    }
+
+    public V get(String townName, long revision, long context, Supplier<V> loader) {
+        String key = townName.toLowerCase(Locale.ROOT);
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.revision() == revision && entry.context() == context) {
+            return entry.value();
+        }
+        V value = loader.get();
+        entries.put(key, new Entry<>(revision, context, value));
+        return value;
+    }
+
+    public void remove(String townName) {
+        entries.remove(townName.toLowerCase(Locale.ROOT));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+}
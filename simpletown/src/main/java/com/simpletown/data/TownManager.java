@@ -18,6 +18,8 @@ public class TownManager {
     private final Map<String, Town> townsByMayor = new HashMap<>();
     private final Map<String, Town> townsByMember = new HashMap<>();
     private final Map<ChunkPosition, Town> claimedChunks = new HashMap<>();
+    private final List<TownMembershipListener> membershipListeners = new ArrayList<>();
+    private long revision;
 
     public TownManager(org.bukkit.plugin.Plugin plugin) {
         this.plugin = plugin;
@@ -37,12 +39,50 @@ public class TownManager {
         for (Town town : storage.loadTowns()) {
             registerTown(town);
         }
+        revision++;
+        membershipListeners.forEach(TownMembershipListener::onTownsReloaded);
+    }
+
+    public void addMembershipListener(TownMembershipListener listener) {
+        membershipListeners.add(listener);
+    }
+
+    private void fireMembershipChanged(String playerName) {
+        for (TownMembershipListener listener : membershipListeners) {
+            listener.onMembershipChanged(playerName);
+        }
     }
 
     public void save() {
+        revision++;
         storage.saveTowns(new ArrayList<>(townsByName.values()));
     }
 
+    /**
+     * Saves after a change made directly on the town, such as a flag toggled in a settings menu,
+     * so that its revision moves on. The mutators below do the same for their own changes.
+     */
+    public void save(Town town) {
+        town.markChanged();
+        save();
+    }
+
+    /**
+     * Same as {@link #save(Town)} for a change on one of the town's plots.
+     */
+    public void save(Town town, PlotData plot) {
+        plot.markChanged();
+        save(town);
+    }
+
+    /**
+     * Incremented on every save and reload. All structural changes (claims, plots, membership)
+     * are followed by {@link #save()}, so callers can use it to invalidate derived lookups.
+     */
+    public long getRevision() {
+        return revision;
+    }
+
     public boolean isChunkClaimed(Chunk chunk) {
         return claimedChunks.containsKey(ChunkPosition.fromChunk(chunk));
     }
@@ -105,7 +145,8 @@ public class TownManager {
 
     public void addTown(Town town) {
         registerTown(town);
-        save();
+        save(town);
+        fireMembershipChanged(town.getMayor());
     }
 
     public void deleteTown(Town town) {
@@ -118,7 +159,9 @@ public class TownManager {
         for (String citizen : town.getCitizens()) {
             townsByMember.remove(citizen);
         }
-        save();
+        save(town);
+        fireMembershipChanged(town.getMayor());
+        town.getCitizens().forEach(this::fireMembershipChanged);
     }
 
     private void registerTown(Town town) {
@@ -150,7 +193,7 @@ public class TownManager {
             town.setPlot(position, PlotData.createMunicipal(town.getCitizenFlags()));
         }
         claimedChunks.put(position, town);
-        save();
+        save(town);
         return true;
     }
 
@@ -164,7 +207,7 @@ public class TownManager {
         }
         town.removePlot(position);
         claimedChunks.remove(position);
-        save();
+        save(town);
         return true;
     }
 
@@ -176,7 +219,8 @@ public class TownManager {
             return false;
         }
         townsByMember.put(playerName.toLowerCase(Locale.ROOT), town);
-        save();
+        save(town);
+        fireMembershipChanged(playerName);
         return true;
     }
 
@@ -185,20 +229,21 @@ public class TownManager {
             return false;
         }
         townsByMember.remove(playerName.toLowerCase(Locale.ROOT));
-        save();
+        save(town);
+        fireMembershipChanged(playerName);
         return true;
     }
 
     public void deposit(Town town, double amount) {
         town.deposit(amount);
-        save();
+        save(town);
     }
 
     public boolean withdraw(Town town, double amount) {
         if (!town.withdraw(amount)) {
             return false;
         }
-        save();
+        save(town);
         return true;
     }
 
@@ -221,28 +266,28 @@ public class TownManager {
         townsByMayor.put(normalized, town);
         townsByMember.put(normalized, town);
         townsByMember.put(oldMayor, town);
-        save();
+        save(town);
         return true;
     }
 
     public void setBank(Town town, double amount) {
         town.setBank(amount);
-        save();
+        save(town);
     }
 
     public void setAge(Town town, int level) {
         town.setAgeLevel(level);
-        save();
+        save(town);
     }
 
     public void setBuildingLevel(Town town, BuildingType type, int level) {
         town.setBuildingLevel(type, level);
-        save();
+        save(town);
     }
 
     public void setInventory(Town town, java.util.List<org.bukkit.inventory.ItemStack> contents) {
         town.setInventoryContents(contents);
-        save();
+        save(town);
     }
 
     public boolean addToInventory(Town town, ItemStack item) {
@@ -291,7 +336,7 @@ public class TownManager {
         }
 
         town.setInventoryContents(contents);
-        save();
+        save(town);
         return true;
     }
 
@@ -300,7 +345,7 @@ public class TownManager {
             return false;
         }
         town.setCapital(newCapital);
-        save();
+        save(town);
         return true;
     }
 
@@ -313,7 +358,7 @@ public class TownManager {
             return false;
         }
         town.setSpawn(spawn);
-        save();
+        save(town);
         return true;
     }
 
@@ -322,7 +367,7 @@ public class TownManager {
             return;
         }
         town.setMapColor(color);
-        save();
+        save(town);
     }
 
     public void setBoard(Town town, String boardMessage) {
@@ -330,7 +375,7 @@ public class TownManager {
             return;
         }
         town.setBoardMessage(boardMessage);
-        save();
+        save(town);
     }
 
     public Collection<Town> getTowns() {
@@ -361,7 +406,7 @@ public class TownManager {
         townsByName.remove(town.getName().toLowerCase(Locale.ROOT));
         town.setName(trimmed);
         townsByName.put(trimmed.toLowerCase(Locale.ROOT), town);
-        save();
+        save(town);
         return true;
     }
 
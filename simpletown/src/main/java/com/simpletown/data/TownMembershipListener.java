@@ -0,0 +1,13 @@
+package com.simpletown.data;
+
+public interface TownMembershipListener {
+    /**
+     * The player joined, left or lost their town. Look the new town up through {@link TownManager}.
+     */
+    void onMembershipChanged(String playerName);
+
+    /**
+     * All towns were reloaded from disk; previously held {@link Town} references are stale.
+     */
+    void onTownsReloaded();
+}
@@ -5,46 +5,157 @@ import com.simpletown.service.MessageService;
 import net.md_5.bungee.api.ChatMessageType;
 import net.md_5.bungee.api.chat.TextComponent;
 import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+/**
+ * Pays job rewards through Vault. Rewards are added to a per-player pending balance, recorded in
+ * a {@link PayoutJournal}, and deposited as one transaction per player every payout interval,
+ * when the player quits and on shutdown.
+ * <p>
+ * A rejected deposit keeps the balance and is retried with exponential backoff starting at one
+ * payout interval. After {@link #PARK_AFTER_FAILURES} failures in a row the balance is parked
+ * until the next restart, with one warning when the first deposit fails and one when it is parked.
+ */
 public class JobRewardService {
     private static final DecimalFormat FORMAT = new DecimalFormat("#0.##");
     private static final long COMBO_WINDOW_MS = 1500L;
-    private static final long COMBO_WINDOW_TICKS = COMBO_WINDOW_MS / 50L;
+    private static final long SWEEP_INTERVAL_TICKS = 5L;
+    private static final int PARK_AFTER_FAILURES = 8;
+    private static final long MAX_RETRY_DELAY_MS = 60 * 60 * 1000L;
+
+    private record FailedPayout(int attempts, long retryAt) {
+    }
 
     private final SimpleTownPlugin plugin;
     private final MessageService messages;
-    private final Map<UUID, RewardAccumulator> accumulators = new HashMap<>();
+    private final ComboTable combos = new ComboTable();
+    private final PayoutJournal journal;
+    private final Map<UUID, Double> pending;
+    private final Map<UUID, FailedPayout> failures = new HashMap<>();
+    private final long payoutIntervalMs;
+    private boolean syncScheduled;
 
-    public JobRewardService(SimpleTownPlugin plugin, MessageService messages) {
+    public JobRewardService(SimpleTownPlugin plugin, MessageService messages, int payoutIntervalSeconds) {
         this.plugin = plugin;
         this.messages = messages;
+        this.payoutIntervalMs = payoutIntervalSeconds * 1000L;
+        this.journal = new PayoutJournal(plugin);
+        this.pending = journal.load();
+        long period = 20L * payoutIntervalSeconds;
+        Bukkit.getScheduler().runTaskTimer(plugin, this::flushAll, period, period);
+        Bukkit.getScheduler().runTaskTimer(plugin, this::sweepCombos, SWEEP_INTERVAL_TICKS, SWEEP_INTERVAL_TICKS);
     }
 
-    public void reward(Player player, double amount) {
+    /**
+     * Credits the reward to the player's pending balance; {@code false} when nothing was credited.
+     */
+    public boolean reward(Player player, double amount) {
         if (amount <= 0) {
-            return;
+            return false;
         }
         if (!plugin.ensureEconomy()) {
+            return false;
+        }
+        UUID uuid = player.getUniqueId();
+        double total = pending.merge(uuid, amount, Double::sum);
+        journal.earned(uuid, amount);
+        if (!syncScheduled) {
+            syncScheduled = true;
+            Bukkit.getScheduler().runTask(plugin, this::syncJournal);
+        }
+        int slot = combos.add(uuid, amount, System.currentTimeMillis());
+        sendActionBar(player, combos.getLastAmount(slot), combos.getCount(slot), total);
+        return true;
+    }
+
+    public void flush(UUID uuid) {
+        Double amount = pending.get(uuid);
+        if (amount == null || !canAttempt(uuid, System.currentTimeMillis()) || !plugin.ensureEconomy()) {
+            return;
+        }
+        pay(plugin.getEconomy(), uuid, amount);
+    }
+
+    public void flushAll() {
+        if (pending.isEmpty() || !plugin.ensureEconomy()) {
             return;
         }
         Economy economy = plugin.getEconomy();
-        economy.depositPlayer(player, amount);
-        RewardAccumulator accumulator = accumulators.computeIfAbsent(player.getUniqueId(), key -> new RewardAccumulator());
         long now = System.currentTimeMillis();
-        accumulator.add(amount, now);
-        sendActionBar(player, accumulator.getLastAmount(), accumulator.getCount());
-        scheduleComboClear(player, accumulator);
+        for (UUID uuid : new ArrayList<>(pending.keySet())) {
+            if (canAttempt(uuid, now)) {
+                pay(economy, uuid, pending.get(uuid));
+            }
+        }
+        if (journal.needsCompaction()) {
+            journal.compact(pending);
+        }
+    }
+
+    public void shutdown() {
+        flushAll();
+        journal.compact(pending);
+        journal.close();
+    }
+
+    /**
+     * The payout is journaled before the deposit and its outcome after it, so a crash in between
+     * can never pay twice. A payout that cannot be journaled is not attempted.
+     */
+    private void pay(Economy economy, UUID uuid, double amount) {
+        long payout = journal.paying(uuid, amount);
+        if (payout < 0) {
+            return;
+        }
+        pending.remove(uuid);
+        EconomyResponse response = economy.depositPlayer(Bukkit.getOfflinePlayer(uuid), amount);
+        if (response != null && response.transactionSuccess()) {
+            journal.paid(payout, uuid, amount);
+            failures.remove(uuid);
+            return;
+        }
+        journal.refused(payout, uuid, amount);
+        pending.merge(uuid, amount, Double::sum);
+        recordFailure(uuid, amount, response == null ? null : response.errorMessage);
     }
 
-    private void sendActionBar(Player player, double amount, int count) {
+    private boolean canAttempt(UUID uuid, long now) {
+        FailedPayout failure = failures.get(uuid);
+        return failure == null || (failure.attempts() < PARK_AFTER_FAILURES && now >= failure.retryAt());
+    }
+
+    private void recordFailure(UUID uuid, double amount, String error) {
+        FailedPayout previous = failures.get(uuid);
+        int attempts = previous == null ? 1 : previous.attempts() + 1;
+        long delay = Math.min(MAX_RETRY_DELAY_MS, payoutIntervalMs << Math.min(attempts - 1, 20));
+        failures.put(uuid, new FailedPayout(attempts, System.currentTimeMillis() + delay));
+        String reason = error == null ? "" : ": " + error;
+        if (attempts == 1) {
+            plugin.getLogger().warning("Не удалось выплатить " + FORMAT.format(amount) + " игроку " + uuid + reason
+                    + "; повторные попытки с нарастающей паузой");
+        } else if (attempts == PARK_AFTER_FAILURES) {
+            plugin.getLogger().warning("Выплата " + FORMAT.format(amount) + " игроку " + uuid + " отложена до перезапуска после "
+                    + attempts + " неудачных попыток" + reason);
+        }
+    }
+
+    private void syncJournal() {
+        syncScheduled = false;
+        journal.sync();
+    }
+
+    private void sendActionBar(Player player, double amount, int count, double total) {
         if (!player.isOnline()) {
             return;
         }
@@ -52,63 +163,93 @@ public class JobRewardService {
         Map<String, String> placeholders = new HashMap<>();
         placeholders.put("amount", formatted);
         placeholders.put("count", String.valueOf(count));
+        placeholders.put("pending", FORMAT.format(total));
         String message = messages.format("jobs.reward", placeholders);
         player.spigot().sendMessage(ChatMessageType.ACTION_BAR, new TextComponent(message));
     }
 
-    private void scheduleComboClear(Player player, RewardAccumulator accumulator) {
-        long scheduledAt = accumulator.getLastRewardAt();
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            RewardAccumulator current = accumulators.get(player.getUniqueId());
-            if (current == null) {
-                return;
-            }
-            long now = System.currentTimeMillis();
-            if (current.getLastRewardAt() != scheduledAt) {
-                return;
-            }
-            if (now - current.getLastRewardAt() >= COMBO_WINDOW_MS) {
-                clearActionBar(player);
-                accumulators.remove(player.getUniqueId());
-            }
-        }, Math.max(1L, COMBO_WINDOW_TICKS));
+    private void sweepCombos() {
+        combos.sweep(System.currentTimeMillis(), this::clearActionBar);
     }
 
-    private void clearActionBar(Player player) {
-        if (!player.isOnline()) {
+    private void clearActionBar(UUID uuid) {
+        Player player = Bukkit.getPlayer(uuid);
+        if (player == null || !player.isOnline()) {
             return;
         }
         player.spigot().sendMessage(ChatMessageType.ACTION_BAR, new TextComponent(""));
     }
 
-    private static class RewardAccumulator {
-        private double lastAmount;
-        private int count;
-        private long lastRewardAt;
-
-        void add(double amount, long now) {
-            if (now - lastRewardAt > COMBO_WINDOW_MS) {
-                lastAmount = amount;
-                count = 1;
-            } else if (Double.compare(lastAmount, amount) == 0) {
-                count++;
+    /**
+     * Combo state of recently rewarded players in parallel arrays indexed by a per-player slot, so
+     * a reward only touches primitives once the player has a slot. Slots are recycled by the sweep.
+     */
+    private static final class ComboTable {
+        private final Map<UUID, Integer> slots = new HashMap<>();
+        private double[] lastAmounts = new double[16];
+        private int[] counts = new int[16];
+        private long[] lastRewardAt = new long[16];
+        private int[] freeSlots = new int[16];
+        private int freeCount;
+        private int size;
+
+        int add(UUID uuid, double amount, long now) {
+            Integer existing = slots.get(uuid);
+            int slot;
+            if (existing == null) {
+                slot = allocate();
+                slots.put(uuid, slot);
+                lastAmounts[slot] = amount;
+                counts[slot] = 1;
             } else {
-                lastAmount = amount;
-                count = 1;
+                slot = existing;
+                if (now - lastRewardAt[slot] <= COMBO_WINDOW_MS && Double.compare(lastAmounts[slot], amount) == 0) {
+                    counts[slot]++;
+                } else {
+                    lastAmounts[slot] = amount;
+                    counts[slot] = 1;
+                }
             }
-            lastRewardAt = now;
+            lastRewardAt[slot] = now;
+            return slot;
+        }
+
+        double getLastAmount(int slot) {
+            return lastAmounts[slot];
         }
 
-        double getLastAmount() {
-            return lastAmount;
+        int getCount(int slot) {
+            return counts[slot];
         }
 
-        int getCount() {
-            return count;
+        void sweep(long now, Consumer<UUID> expired) {
+            if (slots.isEmpty()) {
+                return;
+            }
+            Iterator<Map.Entry<UUID, Integer>> iterator = slots.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<UUID, Integer> entry = iterator.next();
+                int slot = entry.getValue();
+                if (now - lastRewardAt[slot] >= COMBO_WINDOW_MS) {
+                    iterator.remove();
+                    freeSlots[freeCount++] = slot;
+                    expired.accept(entry.getKey());
+                }
+            }
         }
 
-        long getLastRewardAt() {
-            return lastRewardAt;
+        private int allocate() {
+            if (freeCount > 0) {
+                return freeSlots[--freeCount];
+            }
+            if (size == counts.length) {
+                int capacity = size * 2;
+                lastAmounts = Arrays.copyOf(lastAmounts, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                lastRewardAt = Arrays.copyOf(lastRewardAt, capacity);
+                freeSlots = Arrays.copyOf(freeSlots, capacity);
+            }
+            return size++;
         }
     }
 }
@@ -0,0 +1,198 @@
+package com.simpletown.jobs;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Animals;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Monster;
+import org.bukkit.plugin.Plugin;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Job payouts from the {@code jobs.rewards} section of config.yml, one subsection per
+ * {@link JobType} with {@code blocks}, {@code entities} and {@code crafts} tables. Block keys may
+ * name a block tag ({@code "#logs"}) and entity keys a group ({@code "#animals"},
+ * {@code "#monsters"}); exact names override groups. Tables are compiled into arrays indexed by
+ * {@link Material#ordinal()} and {@link EntityType#ordinal()}, where zero means no reward, and
+ * swapped in whole on {@link #reload()}.
+ */
+public class JobRewardTable {
+    private static final Material[] MATERIALS = Material.values();
+    private static final EntityType[] ENTITY_TYPES = EntityType.values();
+
+    private record JobRewards(double[] blocks, double[] entities, double[] crafts,
+                              boolean dropItems, boolean silkTouch, boolean matureOnly) {
+    }
+
+    private final Plugin plugin;
+    private volatile Map<JobType, JobRewards> rewards = new EnumMap<>(JobType.class);
+    private volatile boolean[] rewardedBlocks = new boolean[MATERIALS.length];
+
+    public JobRewardTable(Plugin plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    public void reload() {
+        Map<JobType, JobRewards> compiled = new EnumMap<>(JobType.class);
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("jobs.rewards");
+        if (section != null) {
+            for (JobType type : JobType.values()) {
+                ConfigurationSection jobSection = section.getConfigurationSection(type.name().toLowerCase(Locale.ROOT));
+                if (jobSection != null) {
+                    compiled.put(type, compile(type, jobSection));
+                }
+            }
+        }
+        boolean[] rewarded = new boolean[MATERIALS.length];
+        for (JobRewards table : compiled.values()) {
+            for (int i = 0; i < rewarded.length; i++) {
+                rewarded[i] |= table.blocks()[i] > 0;
+            }
+        }
+        rewards = compiled;
+        rewardedBlocks = rewarded;
+    }
+
+    public double getBlockReward(JobType job, Material material) {
+        JobRewards table = rewards.get(job);
+        return table == null ? 0.0 : table.blocks()[material.ordinal()];
+    }
+
+    /**
+     * Whether any job is paid for breaking this block.
+     */
+    public boolean hasBlockReward(Material material) {
+        return rewardedBlocks[material.ordinal()];
+    }
+
+    public double getEntityReward(JobType job, EntityType type) {
+        JobRewards table = rewards.get(job);
+        return table == null ? 0.0 : table.entities()[type.ordinal()];
+    }
+
+    public double getCraftReward(JobType job, Material material) {
+        JobRewards table = rewards.get(job);
+        return table == null ? 0.0 : table.crafts()[material.ordinal()];
+    }
+
+    /**
+     * Whether blocks this job is paid for still drop items.
+     */
+    public boolean dropsItems(JobType job) {
+        JobRewards table = rewards.get(job);
+        return table == null || table.dropItems();
+    }
+
+    /**
+     * Whether blocks broken with Silk Touch are paid.
+     */
+    public boolean paysSilkTouch(JobType job) {
+        JobRewards table = rewards.get(job);
+        return table == null || table.silkTouch();
+    }
+
+    /**
+     * Whether ageable blocks are paid only at their maximum age.
+     */
+    public boolean paysMatureOnly(JobType job) {
+        JobRewards table = rewards.get(job);
+        return table != null && table.matureOnly();
+    }
+
+    private JobRewards compile(JobType type, ConfigurationSection section) {
+        String path = "jobs.rewards." + type.name().toLowerCase(Locale.ROOT);
+        return new JobRewards(
+                compileMaterials(path + ".blocks", section.getConfigurationSection("blocks")),
+                compileEntities(path + ".entities", section.getConfigurationSection("entities")),
+                compileMaterials(path + ".crafts", section.getConfigurationSection("crafts")),
+                section.getBoolean("drop-items", true),
+                section.getBoolean("silk-touch", true),
+                section.getBoolean("mature-only", false));
+    }
+
+    private double[] compileMaterials(String path, ConfigurationSection section) {
+        double[] table = new double[MATERIALS.length];
+        if (section == null) {
+            return table;
+        }
+        for (String key : section.getKeys(false)) {
+            if (!key.startsWith("#")) {
+                continue;
+            }
+            Tag<Material> tag = Bukkit.getTag(Tag.REGISTRY_BLOCKS, NamespacedKey.minecraft(key.substring(1).toLowerCase(Locale.ROOT)), Material.class);
+            if (tag == null) {
+                tag = Bukkit.getTag(Tag.REGISTRY_ITEMS, NamespacedKey.minecraft(key.substring(1).toLowerCase(Locale.ROOT)), Material.class);
+            }
+            if (tag == null) {
+                warnUnknown(path, key);
+                continue;
+            }
+            double reward = section.getDouble(key);
+            for (Material material : tag.getValues()) {
+                table[material.ordinal()] = reward;
+            }
+        }
+        for (String key : section.getKeys(false)) {
+            if (key.startsWith("#")) {
+                continue;
+            }
+            Material material = Material.matchMaterial(key.toUpperCase(Locale.ROOT));
+            if (material == null) {
+                warnUnknown(path, key);
+                continue;
+            }
+            table[material.ordinal()] = section.getDouble(key);
+        }
+        return table;
+    }
+
+    private double[] compileEntities(String path, ConfigurationSection section) {
+        double[] table = new double[ENTITY_TYPES.length];
+        if (section == null) {
+            return table;
+        }
+        for (String key : section.getKeys(false)) {
+            if (!key.startsWith("#")) {
+                continue;
+            }
+            Class<?> group = switch (key.substring(1).toLowerCase(Locale.ROOT)) {
+                case "animals" -> Animals.class;
+                case "monsters" -> Monster.class;
+                default -> null;
+            };
+            if (group == null) {
+                warnUnknown(path, key);
+                continue;
+            }
+            double reward = section.getDouble(key);
+            for (EntityType entityType : ENTITY_TYPES) {
+                Class<?> entityClass = entityType.getEntityClass();
+                if (entityClass != null && group.isAssignableFrom(entityClass)) {
+                    table[entityType.ordinal()] = reward;
+                }
+            }
+        }
+        for (String key : section.getKeys(false)) {
+            if (key.startsWith("#")) {
+                continue;
+            }
+            try {
+                table[EntityType.valueOf(key.toUpperCase(Locale.ROOT)).ordinal()] = section.getDouble(key);
+            } catch (IllegalArgumentException e) {
+                warnUnknown(path, key);
+            }
+        }
+        return table;
+    }
+
+    private void warnUnknown(String path, String key) {
+        plugin.getLogger().warning("Неизвестный ключ награды " + path + "." + key);
+    }
+}
@@ -0,0 +1,317 @@
+package com.simpletown.jobs;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-player, per-job counters of rewarded blocks, kills and money earned, plus a top list by
+ * earnings for every job.
+ * <p>
+ * Counters sit in flat arrays indexed by {@code slot * JOBS + job}, so recording a reward for a
+ * player who already has a slot only writes primitives. Each top list is a min-heap of at most
+ * {@link #TOP_SIZE} slots: earnings only grow, so an update either sifts an entry that is already
+ * listed or replaces the current minimum. Changed counters are written to {@code jobstats.yml}
+ * once a minute off the main thread, and synchronously on shutdown. Every change bumps a version
+ * and only a write that succeeded marks its version as saved, so a failed write is retried on the
+ * next interval and on shutdown.
+ */
+public class JobStats {
+    public static final int TOP_SIZE = 10;
+    private static final int JOBS = JobType.values().length;
+    private static final int INITIAL_PLAYERS = 64;
+    private static final long SAVE_INTERVAL_TICKS = 20L * 60L;
+
+    public record Entry(String name, long blocks, long kills, double earned) {
+    }
+
+    private final Plugin plugin;
+    private final File file;
+    private final Object fileLock = new Object();
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private UUID[] players = new UUID[INITIAL_PLAYERS];
+    private String[] names = new String[INITIAL_PLAYERS];
+    private long[] blocks = new long[INITIAL_PLAYERS * JOBS];
+    private long[] kills = new long[INITIAL_PLAYERS * JOBS];
+    private double[] earned = new double[INITIAL_PLAYERS * JOBS];
+    private int[] heapPositions = new int[INITIAL_PLAYERS * JOBS];
+    private final int[][] heaps = new int[JOBS][TOP_SIZE];
+    private final int[] heapSizes = new int[JOBS];
+    private final List<List<Entry>> topCache = new ArrayList<>(Collections.nCopies(JOBS, null));
+    private int size;
+    private long version;
+    private volatile long savedVersion;
+
+    public JobStats(Plugin plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "jobstats.yml");
+        Arrays.fill(heapPositions, -1);
+        load();
+        Bukkit.getScheduler().runTaskTimer(plugin, this::saveAsync, SAVE_INTERVAL_TICKS, SAVE_INTERVAL_TICKS);
+    }
+
+    public void recordBlock(Player player, JobType job, double amount) {
+        int index = index(player, job);
+        blocks[index]++;
+        addEarnings(index, job, amount);
+    }
+
+    public void recordKill(Player player, JobType job, double amount) {
+        int index = index(player, job);
+        kills[index]++;
+        addEarnings(index, job, amount);
+    }
+
+    public void recordEarnings(Player player, JobType job, double amount) {
+        addEarnings(index(player, job), job, amount);
+    }
+
+    /**
+     * Counters of one player for one job, or {@code null} when the player never earned anything.
+     */
+    public Entry getEntry(UUID uuid, JobType job) {
+        Integer slot = slots.get(uuid);
+        return slot == null ? null : entry(slot, job.ordinal());
+    }
+
+    /**
+     * Players with the highest earnings for the job, best first.
+     */
+    public List<Entry> getTop(JobType job) {
+        int ordinal = job.ordinal();
+        List<Entry> cached = topCache.get(ordinal);
+        if (cached != null) {
+            return cached;
+        }
+        Integer[] listed = new Integer[heapSizes[ordinal]];
+        for (int i = 0; i < listed.length; i++) {
+            listed[i] = heaps[ordinal][i];
+        }
+        Arrays.sort(listed, Comparator.comparingDouble((Integer slot) -> earned[slot * JOBS + ordinal]).reversed());
+        List<Entry> top = new ArrayList<>(listed.length);
+        for (Integer slot : listed) {
+            top.add(entry(slot, ordinal));
+        }
+        cached = Collections.unmodifiableList(top);
+        topCache.set(ordinal, cached);
+        return cached;
+    }
+
+    public void shutdown() {
+        if (version != savedVersion) {
+            write(snapshot(), version);
+        }
+    }
+
+    private int index(Player player, JobType job) {
+        Integer slot = slots.get(player.getUniqueId());
+        int resolved = slot == null ? allocate(player.getUniqueId()) : slot;
+        names[resolved] = player.getName();
+        version++;
+        return resolved * JOBS + job.ordinal();
+    }
+
+    private int allocate(UUID uuid) {
+        if (size == players.length) {
+            int capacity = size * 2;
+            players = Arrays.copyOf(players, capacity);
+            names = Arrays.copyOf(names, capacity);
+            blocks = Arrays.copyOf(blocks, capacity * JOBS);
+            kills = Arrays.copyOf(kills, capacity * JOBS);
+            earned = Arrays.copyOf(earned, capacity * JOBS);
+            heapPositions = Arrays.copyOf(heapPositions, capacity * JOBS);
+            Arrays.fill(heapPositions, size * JOBS, capacity * JOBS, -1);
+        }
+        int slot = size++;
+        players[slot] = uuid;
+        slots.put(uuid, slot);
+        return slot;
+    }
+
+    private void addEarnings(int index, JobType job, double amount) {
+        if (amount <= 0) {
+            return;
+        }
+        earned[index] += amount;
+        offer(index / JOBS, job.ordinal());
+    }
+
+    private void offer(int slot, int job) {
+        int[] heap = heaps[job];
+        int index = slot * JOBS + job;
+        int position = heapPositions[index];
+        if (position >= 0) {
+            siftDown(job, position);
+        } else if (heapSizes[job] < TOP_SIZE) {
+            position = heapSizes[job]++;
+            place(job, position, slot);
+            siftUp(job, position);
+        } else if (earned[index] > earned[heap[0] * JOBS + job]) {
+            heapPositions[heap[0] * JOBS + job] = -1;
+            place(job, 0, slot);
+            siftDown(job, 0);
+        } else {
+            return;
+        }
+        topCache.set(job, null);
+    }
+
+    private void siftUp(int job, int position) {
+        int[] heap = heaps[job];
+        int slot = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (earned[heap[parent] * JOBS + job] <= earned[slot * JOBS + job]) {
+                break;
+            }
+            place(job, position, heap[parent]);
+            position = parent;
+        }
+        place(job, position, slot);
+    }
+
+    private void siftDown(int job, int position) {
+        int[] heap = heaps[job];
+        int count = heapSizes[job];
+        int slot = heap[position];
+        while (true) {
+            int child = position * 2 + 1;
+            if (child >= count) {
+                break;
+            }
+            if (child + 1 < count && earned[heap[child + 1] * JOBS + job] < earned[heap[child] * JOBS + job]) {
+                child++;
+            }
+            if (earned[slot * JOBS + job] <= earned[heap[child] * JOBS + job]) {
+                break;
+            }
+            place(job, position, heap[child]);
+            position = child;
+        }
+        place(job, position, slot);
+    }
+
+    private void place(int job, int position, int slot) {
+        heaps[job][position] = slot;
+        heapPositions[slot * JOBS + job] = position;
+    }
+
+    private Entry entry(int slot, int job) {
+        int index = slot * JOBS + job;
+        String name = names[slot] != null ? names[slot] : Bukkit.getOfflinePlayer(players[slot]).getName();
+        return new Entry(name == null ? "-" : name, blocks[index], kills[index], earned[index]);
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+        ConfigurationSection section = config.getConfigurationSection("stats");
+        if (section == null) {
+            return;
+        }
+        for (String key : section.getKeys(false)) {
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(key);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            ConfigurationSection playerSection = section.getConfigurationSection(key);
+            if (playerSection == null) {
+                continue;
+            }
+            int slot = allocate(uuid);
+            names[slot] = playerSection.getString("name");
+            for (JobType job : JobType.values()) {
+                ConfigurationSection jobSection = playerSection.getConfigurationSection(job.name().toLowerCase(Locale.ROOT));
+                if (jobSection == null) {
+                    continue;
+                }
+                int index = slot * JOBS + job.ordinal();
+                blocks[index] = jobSection.getLong("blocks");
+                kills[index] = jobSection.getLong("kills");
+                earned[index] = jobSection.getDouble("earned");
+                if (earned[index] > 0) {
+                    offer(slot, job.ordinal());
+                }
+            }
+        }
+    }
+
+    private void saveAsync() {
+        if (version == savedVersion) {
+            return;
+        }
+        long snapshotVersion = version;
+        String data = snapshot();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> write(data, snapshotVersion));
+    }
+
+    private String snapshot() {
+        YamlConfiguration config = new YamlConfiguration();
+        for (int slot = 0; slot < size; slot++) {
+            String path = "stats." + players[slot];
+            if (names[slot] != null) {
+                config.set(path + ".name", names[slot]);
+            }
+            for (JobType job : JobType.values()) {
+                int index = slot * JOBS + job.ordinal();
+                if (blocks[index] == 0 && kills[index] == 0 && earned[index] == 0) {
+                    continue;
+                }
+                String jobPath = path + "." + job.name().toLowerCase(Locale.ROOT);
+                config.set(jobPath + ".blocks", blocks[index]);
+                config.set(jobPath + ".kills", kills[index]);
+                config.set(jobPath + ".earned", earned[index]);
+            }
+        }
+        return config.saveToString();
+    }
+
+    /**
+     * Writes a snapshot unless a newer one is already on disk, so a slow write that finishes after
+     * a later one cannot put older counters back.
+     */
+    private void write(String data, long dataVersion) {
+        synchronized (fileLock) {
+            if (dataVersion <= savedVersion) {
+                return;
+            }
+            Path path = file.toPath();
+            Path temp = path.resolveSibling(file.getName() + ".tmp");
+            try {
+                Files.createDirectories(path.getParent());
+                Files.writeString(temp, data, StandardCharsets.UTF_8);
+                try {
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+                savedVersion = dataVersion;
+            } catch (IOException e) {
+                plugin.getLogger().warning("Не удалось сохранить jobstats.yml: " + e.getMessage());
+            }
+        }
+    }
+}
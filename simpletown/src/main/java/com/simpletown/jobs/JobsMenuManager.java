@@ -15,21 +15,28 @@ import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
+import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 public class JobsMenuManager implements Listener {
+    private static final DecimalFormat FORMAT = new DecimalFormat("#0.##");
+    private static final int TOP_LORE_LINES = 3;
+
     private final JobsService jobsService;
     private final JobsManager jobsManager;
     private final MessageService messages;
+    private final JobStats stats;
     private final Map<Inventory, Map<Integer, JobType>> menus = new HashMap<>();
 
-    public JobsMenuManager(JobsService jobsService, JobsManager jobsManager, MessageService messages) {
+    public JobsMenuManager(JobsService jobsService, JobsManager jobsManager, MessageService messages, JobStats stats) {
         this.jobsService = jobsService;
         this.jobsManager = jobsManager;
         this.messages = messages;
+        this.stats = stats;
     }
 
     public void openMenu(Player player) {
@@ -111,7 +118,11 @@ public class JobsMenuManager implements Listener {
         ItemStack stack = new ItemStack(type.getIcon() == null ? Material.BARRIER : type.getIcon());
         ItemMeta meta = stack.getItemMeta();
         meta.setDisplayName(ChatColor.GOLD + messages.get(type.getMessageKey()));
-        meta.setLore(getJobLore(type));
+        List<String> lore = new ArrayList<>(getJobLore(type));
+        if (type != JobType.UNEMPLOYED) {
+            appendStatsLore(lore, player, type);
+        }
+        meta.setLore(lore);
         if (jobsService.getJob(player) == type) {
             meta.addEnchant(org.bukkit.enchantments.Enchantment.DURABILITY, 1, true);
             meta.addItemFlags(ItemFlag.HIDE_ENCHANTS);
@@ -120,6 +131,28 @@ public class JobsMenuManager implements Listener {
         return stack;
     }
 
+    private void appendStatsLore(List<String> lore, Player player, JobType type) {
+        JobStats.Entry own = stats.getEntry(player.getUniqueId(), type);
+        lore.add(messages.get("jobs.stats.header"));
+        lore.add(messages.format("jobs.stats.line", Map.of(
+                "blocks", String.valueOf(own == null ? 0 : own.blocks()),
+                "kills", String.valueOf(own == null ? 0 : own.kills()),
+                "earned", FORMAT.format(own == null ? 0.0 : own.earned())
+        )));
+        List<JobStats.Entry> top = stats.getTop(type);
+        if (top.isEmpty()) {
+            return;
+        }
+        lore.add(messages.get("jobs.stats.top-header"));
+        for (int i = 0; i < Math.min(TOP_LORE_LINES, top.size()); i++) {
+            lore.add(messages.format("jobs.stats.top-line", Map.of(
+                    "place", String.valueOf(i + 1),
+                    "player", top.get(i).name(),
+                    "earned", FORMAT.format(top.get(i).earned())
+            )));
+        }
+    }
+
     private List<String> getJobLore(JobType type) {
         return switch (type) {
             case LUMBERJACK -> messages.getList("jobs.lore.lumberjack");
@@ -17,7 +17,6 @@ public class JobsService {
     public static final long KILLER_COOLDOWN_MS = 60L * 60L * 1000L;
     public static final long KILLER_TIMEOUT_MS = 15L * 60L * 1000L;
     public static final long KILLER_SUSPEND_MS = 24L * 60L * 60L * 1000L;
-    public static final double KILLER_REWARD = 150.0;
 
     private final SimpleTownPlugin plugin;
     private final JobsManager jobsManager;
@@ -0,0 +1,308 @@
+package com.simpletown.jobs;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Append-only record of job earnings that have not reached Vault yet, kept in
+ * {@code job-payouts.bin} as fixed 32-byte records: a header with the record type and payout id,
+ * the player UUID and an amount.
+ * <p>
+ * A reward appends an {@code EARNED} record. A payout appends {@code PAYING} with a new id before
+ * the deposit and {@code PAID} or {@code REFUSED} with the same id after it, each forced to disk
+ * before the caller goes on, so a crash at any point either leaves the balance owed or shows the
+ * payout as started. Earnings are forced in groups by {@link #sync()}. A payout that is still
+ * {@code PAYING} on load may or may not have been deposited; it is not paid again but written to
+ * {@code job-payouts-unresolved.yml} for an admin to check. The file is rewritten with one record
+ * per unpaid player on load, on shutdown and whenever it grows large.
+ */
+class PayoutJournal {
+    static final int RECORD_SIZE = 32;
+    private static final long COMPACT_SIZE = RECORD_SIZE * 4096L;
+    private static final double MIN_BALANCE = 0.000001;
+    private static final long ID_MASK = (1L << 56) - 1;
+    private static final int EARNED = 0;
+    private static final int PAYING = 1;
+    private static final int PAID = 2;
+    private static final int REFUSED = 3;
+
+    private record Payout(long id, UUID player, double amount) {
+    }
+
+    private final Logger logger;
+    private final Path path;
+    private final File unresolvedFile;
+    private FileChannel channel;
+    private boolean compactable = true;
+    private boolean unsynced;
+    private long nextId = 1;
+
+    PayoutJournal(Plugin plugin) {
+        this.logger = plugin.getLogger();
+        this.path = new File(plugin.getDataFolder(), "job-payouts.bin").toPath();
+        this.unresolvedFile = new File(plugin.getDataFolder(), "job-payouts-unresolved.yml");
+    }
+
+    /**
+     * Replays the journal into per-player balances and compacts it. A journal that cannot be read,
+     * or whose unresolved payouts cannot be set aside, is only appended to from then on, so
+     * nothing recorded in it is dropped.
+     */
+    Map<UUID, Double> load() {
+        Map<UUID, Double> balances = new HashMap<>();
+        Map<Long, Payout> inFlight = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                long records = Files.size(path) / RECORD_SIZE;
+                for (long i = 0; i < records; i++) {
+                    long header = in.readLong();
+                    Payout record = new Payout(header & ID_MASK, new UUID(in.readLong(), in.readLong()), in.readDouble());
+                    switch ((int) (header >>> 56)) {
+                        case EARNED -> balances.merge(record.player(), record.amount(), Double::sum);
+                        case PAYING -> {
+                            balances.merge(record.player(), -record.amount(), Double::sum);
+                            inFlight.put(record.id(), record);
+                        }
+                        case PAID -> inFlight.remove(record.id());
+                        case REFUSED -> {
+                            inFlight.remove(record.id());
+                            balances.merge(record.player(), record.amount(), Double::sum);
+                        }
+                        default -> throw new IOException("неизвестный тип записи " + (header >>> 56));
+                    }
+                    nextId = Math.max(nextId, record.id() + 1);
+                }
+            } catch (IOException e) {
+                logger.warning("Не удалось прочитать журнал выплат: " + e.getMessage());
+                compactable = false;
+                open();
+                return new HashMap<>();
+            }
+        }
+        if (!inFlight.isEmpty() && !setAside(inFlight.values())) {
+            compactable = false;
+        }
+        balances.values().removeIf(amount -> amount < MIN_BALANCE);
+        if (compactable) {
+            compact(balances);
+        } else {
+            open();
+        }
+        return balances;
+    }
+
+    void earned(UUID uuid, double amount) {
+        if (append(EARNED, 0, uuid, amount, false)) {
+            unsynced = true;
+        }
+    }
+
+    /**
+     * Records that a deposit is about to be made and returns its payout id, or {@code -1} when
+     * the record could not be written, including when the journal is not open. The deposit must
+     * then not be attempted.
+     */
+    long paying(UUID uuid, double amount) {
+        long id = nextId++;
+        return append(PAYING, id, uuid, amount, true) ? id : -1;
+    }
+
+    void paid(long id, UUID uuid, double amount) {
+        append(PAID, id, uuid, amount, true);
+    }
+
+    void refused(long id, UUID uuid, double amount) {
+        append(REFUSED, id, uuid, amount, true);
+    }
+
+    /**
+     * Forces earnings appended since the last sync to disk.
+     */
+    void sync() {
+        if (!unsynced || channel == null) {
+            return;
+        }
+        unsynced = false;
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            logger.warning("Не удалось записать журнал выплат: " + e.getMessage());
+        }
+    }
+
+    boolean needsCompaction() {
+        try {
+            return compactable && channel != null && channel.size() > COMPACT_SIZE;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Replaces the journal with one record per remaining balance. Only call it with no payout
+     * between {@link #paying} and its outcome.
+     */
+    void compact(Map<UUID, Double> balances) {
+        if (!compactable) {
+            return;
+        }
+        close();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * balances.size());
+        for (Map.Entry<UUID, Double> entry : balances.entrySet()) {
+            put(buffer, EARNED, 0, entry.getKey(), entry.getValue());
+        }
+        buffer.flip();
+        try {
+            Files.createDirectories(path.getParent());
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warning("Не удалось сжать журнал выплат: " + e.getMessage());
+        }
+        open();
+    }
+
+    void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("Не удалось закрыть журнал выплат: " + e.getMessage());
+        }
+        channel = null;
+        unsynced = false;
+    }
+
+    private boolean append(int type, long id, UUID uuid, double amount, boolean force) {
+        if (channel == null) {
+            return false;
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        put(record, type, id, uuid, amount);
+        record.flip();
+        long start = -1;
+        try {
+            start = channel.size();
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            if (force) {
+                channel.force(false);
+                unsynced = false;
+            }
+            return true;
+        } catch (IOException e) {
+            logger.warning("Не удалось записать журнал выплат: " + e.getMessage());
+            discardFrom(start);
+            return false;
+        }
+    }
+
+    /**
+     * Cuts off a record whose write or force failed, so the next record starts on a record boundary
+     * and a payout reported as not journaled does not turn up on load. If the file cannot be cut
+     * there, the channel is reopened, which at least drops a partial record.
+     */
+    private void discardFrom(long start) {
+        if (start >= 0) {
+            try {
+                channel.truncate(start);
+                return;
+            } catch (IOException e) {
+                logger.warning("Не удалось обрезать журнал выплат: " + e.getMessage());
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        open();
+    }
+
+    /**
+     * Adds payouts of unknown outcome to {@code job-payouts-unresolved.yml}. They are neither owed
+     * nor paid as far as the journal is concerned once this succeeds.
+     */
+    private boolean setAside(Collection<Payout> payouts) {
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(unresolvedFile);
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (Map<?, ?> existing : config.getMapList("payouts")) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            existing.forEach((key, value) -> copy.put(String.valueOf(key), value));
+            entries.add(copy);
+        }
+        long now = System.currentTimeMillis();
+        for (Payout payout : payouts) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", payout.id());
+            entry.put("player", payout.player().toString());
+            entry.put("amount", payout.amount());
+            entry.put("found-at", now);
+            entries.add(entry);
+            logger.warning("Выплата " + payout.amount() + " игроку " + payout.player()
+                    + " прервана до подтверждения и не будет повторена; проверьте баланс по " + unresolvedFile.getName());
+        }
+        config.set("payouts", entries);
+        try {
+            config.save(unresolvedFile);
+            return true;
+        } catch (IOException e) {
+            logger.warning("Не удалось сохранить " + unresolvedFile.getName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(path.getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            long excess = channel.size() % RECORD_SIZE;
+            if (excess != 0) {
+                channel.truncate(channel.size() - excess);
+            }
+        } catch (IOException e) {
+            logger.warning("Не удалось открыть журнал выплат: " + e.getMessage());
+            channel = null;
+        }
+    }
+
+    private static void put(ByteBuffer buffer, int type, long id, UUID uuid, double amount) {
+        buffer.putLong((long) type << 56 | id & ID_MASK);
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+        buffer.putDouble(amount);
+    }
+}
@@ -0,0 +1,309 @@
+package com.simpletown.jobs;
+
+import com.simpletown.data.ChunkPosition;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.Ageable;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.event.world.WorldSaveEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Blocks placed by players, so that breaking them again pays no job reward. Only block types some
+ * job is paid for are tracked, and crops are left out because they are always planted.
+ * <p>
+ * A loaded chunk with tracked blocks holds one 4096-bit set per 16-block-high section that has
+ * any, allocated on first use, so a lookup is a map read and a bit test. The sets live in memory
+ * while the chunk is loaded and are stored in its persistent data container as a long array of
+ * {@code [section, 64 words]} groups when the chunk unloads or the world saves.
+ */
+public class PlacedBlockTracker implements Listener {
+    private static final int SECTION_WORDS = 64;
+    private static final int SECTION_BYTES = 16 + SECTION_WORDS * Long.BYTES;
+    private static final int CHUNK_OVERHEAD_BYTES = 96;
+
+    private static final class ChunkBits {
+        private final long[][] sections;
+        private boolean dirty;
+
+        private ChunkBits(int sectionCount) {
+            this.sections = new long[sectionCount][];
+        }
+    }
+
+    public record Stats(int chunks, int loadedChunks, int sections, long bytes) {
+    }
+
+    private final JobRewardTable rewardTable;
+    private final NamespacedKey key;
+    private final Map<ChunkPosition, ChunkBits> chunks = new HashMap<>();
+
+    public PlacedBlockTracker(Plugin plugin, JobRewardTable rewardTable) {
+        this.rewardTable = rewardTable;
+        this.key = new NamespacedKey(plugin, "placed_blocks");
+    }
+
+    public void start() {
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                load(chunk);
+            }
+        }
+    }
+
+    public void stop() {
+        for (World world : Bukkit.getWorlds()) {
+            save(world);
+        }
+        chunks.clear();
+    }
+
+    public boolean isPlaced(Block block) {
+        ChunkBits bits = chunks.get(ChunkPosition.fromBlock(block));
+        if (bits == null) {
+            return false;
+        }
+        int section = (block.getY() - block.getWorld().getMinHeight()) >> 4;
+        if (section < 0 || section >= bits.sections.length || bits.sections[section] == null) {
+            return false;
+        }
+        int index = blockIndex(block);
+        return (bits.sections[section][index >>> 6] & (1L << index)) != 0;
+    }
+
+    public Stats getStats() {
+        int sections = 0;
+        long bytes = 0;
+        for (ChunkBits bits : chunks.values()) {
+            bytes += CHUNK_OVERHEAD_BYTES + 4L * bits.sections.length;
+            for (long[] words : bits.sections) {
+                if (words != null) {
+                    sections++;
+                    bytes += SECTION_BYTES;
+                }
+            }
+        }
+        int loaded = 0;
+        for (World world : Bukkit.getWorlds()) {
+            loaded += world.getLoadedChunks().length;
+        }
+        return new Stats(chunks.size(), loaded, sections, bytes);
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onPlace(BlockPlaceEvent event) {
+        Block block = event.getBlockPlaced();
+        if (rewardTable.hasBlockReward(block.getType()) && !(block.getBlockData() instanceof Ageable)) {
+            set(block, true);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBreak(BlockBreakEvent event) {
+        set(event.getBlock(), false);
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBurn(BlockBurnEvent event) {
+        set(event.getBlock(), false);
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        event.blockList().forEach(block -> set(block, false));
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        event.blockList().forEach(block -> set(block, false));
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onGrow(StructureGrowEvent event) {
+        for (BlockState state : event.getBlocks()) {
+            set(state.getBlock(), false);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        move(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        move(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        load(event.getChunk());
+    }
+
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        ChunkBits bits = chunks.remove(ChunkPosition.fromChunk(event.getChunk()));
+        if (bits != null && bits.dirty) {
+            write(event.getChunk(), bits);
+        }
+    }
+
+    @EventHandler
+    public void onWorldSave(WorldSaveEvent event) {
+        save(event.getWorld());
+    }
+
+    private void move(List<Block> blocks, BlockFace direction) {
+        List<Block> placed = new ArrayList<>();
+        for (Block block : blocks) {
+            if (isPlaced(block)) {
+                placed.add(block);
+                set(block, false);
+            }
+        }
+        for (Block block : placed) {
+            set(block.getRelative(direction), true);
+        }
+    }
+
+    private void set(Block block, boolean placed) {
+        ChunkPosition position = ChunkPosition.fromBlock(block);
+        ChunkBits bits = chunks.get(position);
+        if (bits == null) {
+            if (!placed) {
+                return;
+            }
+            World world = block.getWorld();
+            bits = new ChunkBits((world.getMaxHeight() - world.getMinHeight()) >> 4);
+            chunks.put(position, bits);
+        }
+        int section = (block.getY() - block.getWorld().getMinHeight()) >> 4;
+        if (section < 0 || section >= bits.sections.length) {
+            return;
+        }
+        long[] words = bits.sections[section];
+        int index = blockIndex(block);
+        if (placed) {
+            if (words == null) {
+                words = new long[SECTION_WORDS];
+                bits.sections[section] = words;
+            }
+            words[index >>> 6] |= 1L << index;
+        } else {
+            if (words == null || (words[index >>> 6] & (1L << index)) == 0) {
+                return;
+            }
+            words[index >>> 6] &= ~(1L << index);
+            if (isEmpty(words)) {
+                bits.sections[section] = null;
+            }
+        }
+        bits.dirty = true;
+    }
+
+    private void load(Chunk chunk) {
+        long[] data = chunk.getPersistentDataContainer().get(key, PersistentDataType.LONG_ARRAY);
+        if (data == null) {
+            return;
+        }
+        World world = chunk.getWorld();
+        ChunkBits bits = new ChunkBits((world.getMaxHeight() - world.getMinHeight()) >> 4);
+        for (int offset = 0; offset + SECTION_WORDS < data.length; offset += SECTION_WORDS + 1) {
+            int section = (int) data[offset];
+            if (section < 0 || section >= bits.sections.length) {
+                continue;
+            }
+            long[] words = new long[SECTION_WORDS];
+            System.arraycopy(data, offset + 1, words, 0, SECTION_WORDS);
+            if (!isEmpty(words)) {
+                bits.sections[section] = words;
+            }
+        }
+        chunks.put(ChunkPosition.fromChunk(chunk), bits);
+    }
+
+    private void save(World world) {
+        Iterator<Map.Entry<ChunkPosition, ChunkBits>> iterator = chunks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<ChunkPosition, ChunkBits> entry = iterator.next();
+            ChunkPosition position = entry.getKey();
+            ChunkBits bits = entry.getValue();
+            if (!bits.dirty || !position.getWorld().equals(world.getName())
+                    || !world.isChunkLoaded(position.getX(), position.getZ())) {
+                continue;
+            }
+            write(world.getChunkAt(position.getX(), position.getZ()), bits);
+            if (sectionCount(bits) == 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void write(Chunk chunk, ChunkBits bits) {
+        PersistentDataContainer container = chunk.getPersistentDataContainer();
+        int sections = sectionCount(bits);
+        if (sections == 0) {
+            container.remove(key);
+        } else {
+            long[] data = new long[sections * (SECTION_WORDS + 1)];
+            int offset = 0;
+            for (int section = 0; section < bits.sections.length; section++) {
+                if (bits.sections[section] != null) {
+                    data[offset] = section;
+                    System.arraycopy(bits.sections[section], 0, data, offset + 1, SECTION_WORDS);
+                    offset += SECTION_WORDS + 1;
+                }
+            }
+            container.set(key, PersistentDataType.LONG_ARRAY, data);
+        }
+        bits.dirty = false;
+    }
+
+    private static int sectionCount(ChunkBits bits) {
+        int count = 0;
+        for (long[] words : bits.sections) {
+            if (words != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int blockIndex(Block block) {
+        return ((block.getY() & 15) << 8) | ((block.getZ() & 15) << 4) | (block.getX() & 15);
+    }
+
+    private static boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
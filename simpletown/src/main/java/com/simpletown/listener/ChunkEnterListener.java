@@ -1,69 +1,52 @@
 package com.simpletown.listener;
 
-import com.simpletown.data.ChunkPosition;
+import com.simpletown.api.event.TerritoryChangeCause;
 import com.simpletown.data.Town;
-import com.simpletown.data.TownManager;
+import com.simpletown.movement.Territory;
+import com.simpletown.movement.TerritoryTransitionListener;
 import com.simpletown.service.MessageService;
-import com.simpletown.war.WarManager;
 import net.md_5.bungee.api.ChatMessageType;
 import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.ChatColor;
-import org.bukkit.Chunk;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
-import org.bukkit.event.player.PlayerMoveEvent;
 
 import java.util.Map;
 
-public class ChunkEnterListener implements Listener {
-    private final TownManager townManager;
+public class ChunkEnterListener implements TerritoryTransitionListener {
     private final MessageService messages;
-    private final WarManager warManager;
 
-    public ChunkEnterListener(TownManager townManager, MessageService messages, WarManager warManager) {
-        this.townManager = townManager;
+    public ChunkEnterListener(MessageService messages) {
         this.messages = messages;
-        this.warManager = warManager;
     }
 
-    @EventHandler
-    public void onPlayerMove(PlayerMoveEvent event) {
-        if (event.getFrom() == null || event.getTo() == null) {
-            return;
-        }
-
-        Chunk fromChunk = event.getFrom().getChunk();
-        Chunk toChunk = event.getTo().getChunk();
-        if (fromChunk.getX() == toChunk.getX() && fromChunk.getZ() == toChunk.getZ() && fromChunk.getWorld().equals(toChunk.getWorld())) {
+    @Override
+    public void onTransition(Player player, Territory from, Territory to, TerritoryChangeCause cause) {
+        if (from == null || to == null) {
             return;
         }
+        notifyCrossing(player, from, to);
+    }
 
-        Town fromTown = townManager.getTownAtChunk(fromChunk);
-        Town toTown = townManager.getTownAtChunk(toChunk);
-        ChunkPosition toPos = ChunkPosition.fromChunk(toChunk);
-        ChunkPosition fromPos = ChunkPosition.fromChunk(fromChunk);
-        boolean sameTown = fromTown != null && toTown != null && fromTown.getName().equalsIgnoreCase(toTown.getName());
-        boolean toCapital = toTown != null && toTown.getCapital().equals(toPos);
-        boolean fromCapital = fromTown != null && fromTown.getCapital().equals(fromPos);
+    private void notifyCrossing(Player player, Territory from, Territory to) {
+        Town fromTown = from.getTown();
+        Town toTown = to.getTown();
+        boolean toCapital = to.isCapital();
+        boolean fromCapital = from.isCapital();
         if (fromTown == null && toTown == null) {
             return;
         }
 
-        Player player = event.getPlayer();
         if (toTown == null) {
             sendActionBar(player, messages.get("chunk.enter.wilderness"));
             return;
         }
 
-        boolean fromOccupied = warManager != null && warManager.isChunkOccupied(fromPos);
-        if (warManager != null && warManager.isChunkOccupied(toPos)) {
-            String controller = warManager.getChunkController(toPos);
-            sendActionBar(player, ChatColor.RED + messages.format("war.occupied", Map.of("town", controller)));
+        if (to.isOccupied()) {
+            sendActionBar(player, ChatColor.RED + messages.format("war.occupied", Map.of("town", to.getController())));
             return;
         }
 
-        if (warManager != null && fromOccupied && !warManager.isChunkOccupied(toPos) && toTown != null) {
+        if (from.isOccupied()) {
             String path = toCapital ? "chunk.enter.center" : "chunk.enter.town";
             sendActionBar(player, messages.format(path, Map.of(
                     "town", toTown.getName(),
@@ -72,7 +55,7 @@ public class ChunkEnterListener implements Listener {
             return;
         }
 
-        if (sameTown) {
+        if (from.isSameTown(to)) {
             if (toCapital && !fromCapital) {
                 sendActionBar(player, messages.format("chunk.enter.center", Map.of(
                         "town", toTown.getName(),
@@ -97,4 +80,4 @@ public class ChunkEnterListener implements Listener {
     private void sendActionBar(Player player, String message) {
         player.spigot().sendMessage(ChatMessageType.ACTION_BAR, new TextComponent(message));
     }
-}
\ No newline at end of file
+}
@@ -1,146 +1,130 @@
-package com.simpletown.listener;
-
-import com.simpletown.data.ChunkPosition;
-import com.simpletown.data.PlotData;
-import com.simpletown.data.Town;
-import com.simpletown.data.TownFlag;
-import com.simpletown.data.TownFlags;
-import com.simpletown.data.TownManager;
-import com.simpletown.service.MessageService;
-import org.bukkit.Chunk;
-import org.bukkit.entity.Animals;
-import org.bukkit.entity.Monster;
-import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
-import org.bukkit.event.block.BlockBreakEvent;
-import org.bukkit.event.block.BlockPlaceEvent;
-import org.bukkit.event.entity.EntityDamageByEntityEvent;
-import org.bukkit.event.entity.CreatureSpawnEvent;
-import org.bukkit.event.player.PlayerArmorStandManipulateEvent;
-import org.bukkit.event.player.PlayerInteractEvent;
-import org.bukkit.event.Event.Result;
-import org.bukkit.event.player.PlayerInteractEntityEvent;
-
-public class TownProtectionListener implements Listener {
-    private final TownManager townManager;
-    private final MessageService messages;
-
-    public TownProtectionListener(TownManager townManager, MessageService messages) {
-        this.townManager = townManager;
-        this.messages = messages;
-    }
-
-    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
-    public void onBlockBreak(BlockBreakEvent event) {
-        Player player = event.getPlayer();
-        if (!isActionAllowed(player, event.getBlock().getChunk(), TownFlag.BREAK)) {
-            event.setCancelled(true);
-            messages.sendError(player, "protection.break");
-        }
-    }
-
-    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
-    public void onBlockPlace(BlockPlaceEvent event) {
-        Player player = event.getPlayer();
-        if (!isActionAllowed(player, event.getBlock().getChunk(), TownFlag.PLACE)) {
-            event.setCancelled(true);
-            messages.sendError(player, "protection.place");
-        }
-    }
-
-    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
-    public void onInteract(PlayerInteractEvent event) {
-        if (event.getClickedBlock() == null) {
-            return;
-        }
-        Player player = event.getPlayer();
-        if (!isActionAllowed(player, event.getClickedBlock().getChunk(), TownFlag.INTERACT)) {
-            event.setCancelled(true);
-            event.setUseInteractedBlock(Result.DENY);
-            messages.sendError(player, "protection.interact");
-        }
-    }
-
-    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
-    public void onEntityInteract(PlayerInteractEntityEvent event) {
-        Player player = event.getPlayer();
-        if (!isActionAllowed(player, event.getRightClicked().getLocation().getChunk(), TownFlag.INTERACT)) {
-            event.setCancelled(true);
-            messages.sendError(player, "protection.interact");
-        }
-    }
-
-    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
-    public void onArmorStand(PlayerArmorStandManipulateEvent event) {
-        Player player = event.getPlayer();
-        if (!isActionAllowed(player, event.getRightClicked().getLocation().getChunk(), TownFlag.INTERACT)) {
-            event.setCancelled(true);
-            messages.sendError(player, "protection.interact");
-        }
-    }
-
-    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
-    public void onPlayerDamage(EntityDamageByEntityEvent event) {
-        if (!(event.getEntity() instanceof Player victim) || !(event.getDamager() instanceof Player attacker)) {
-            return;
-        }
-
-        if (!isActionAllowed(attacker, victim.getLocation().getChunk(), TownFlag.PVP)) {
-            event.setCancelled(true);
-            messages.sendError(attacker, "protection.pvp");
-        }
-    }
-
-    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
-    public void onCreatureSpawn(CreatureSpawnEvent event) {
-        Chunk chunk = event.getLocation().getChunk();
-        Town town = townManager.getTownAtChunk(chunk);
-        if (town == null) {
-            return;
-        }
-
-        TownFlags flags = getChunkFlags(town, chunk);
-        if (event.getEntity() instanceof Monster && !flags.isEnabled(TownFlag.MONSTER_SPAWN)) {
-            event.setCancelled(true);
-            return;
-        }
-
-        if (event.getEntity() instanceof Animals && !flags.isEnabled(TownFlag.ANIMAL_SPAWN)) {
-            event.setCancelled(true);
-        }
-    }
-
-    private boolean isActionAllowed(Player player, Chunk chunk, TownFlag flag) {
-        Town town = townManager.getTownAtChunk(chunk);
-        if (town == null) {
-            return true;
-        }
-
-        if (town.isMayor(player.getName())) {
-            return true;
-        }
-
-        boolean isMember = town.isMember(player.getName());
-        PlotData plot = town.getPlot(ChunkPosition.fromChunk(chunk));
-        if (!isMember) {
-            if (flag == TownFlag.BREAK || flag == TownFlag.PLACE || flag == TownFlag.INTERACT) {
-                return false;
-            }
-            return town.getOutsiderFlags().isEnabled(flag);
-        }
-
-        TownFlags flags = getChunkFlags(plot, town);
-        return flags.isEnabled(flag);
-    }
-
-    private TownFlags getChunkFlags(Town town, Chunk chunk) {
-        PlotData plot = town.getPlot(ChunkPosition.fromChunk(chunk));
-        return getChunkFlags(plot, town);
-    }
-
-    private TownFlags getChunkFlags(PlotData plot, Town town) {
-        return plot == null || plot.isMunicipal() ? town.getCitizenFlags() : plot.getFlags();
-    }
-}
\ No newline at end of file
+package com.simpletown.listener;
+
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.data.PlotData;
+import com.simpletown.data.Town;
+import com.simpletown.data.TownFlag;
+import com.simpletown.data.TownFlags;
+import com.simpletown.data.TownManager;
+import com.simpletown.protection.ProtectionDecision;
+import com.simpletown.protection.ProtectionService;
+import com.simpletown.service.MessageService;
+import org.bukkit.entity.Animals;
+import org.bukkit.entity.Monster;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event.Result;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.player.PlayerArmorStandManipulateEvent;
+import org.bukkit.event.player.PlayerInteractEntityEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+public class ProtectionListener implements Listener {
+    private final ProtectionService protectionService;
+    private final TownManager townManager;
+    private final MessageService messages;
+
+    public ProtectionListener(ProtectionService protectionService, TownManager townManager, MessageService messages) {
+        this.protectionService = protectionService;
+        this.townManager = townManager;
+        this.messages = messages;
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
+    public void onBlockBreak(BlockBreakEvent event) {
+        ProtectionDecision decision = protectionService.check(event.getPlayer(), event.getBlock(), TownFlag.BREAK);
+        if (decision.isDenied()) {
+            event.setCancelled(true);
+            notifyDenied(event.getPlayer(), decision);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        ProtectionDecision decision = protectionService.check(event.getPlayer(), event.getBlockPlaced(), TownFlag.PLACE);
+        if (decision.isDenied()) {
+            event.setCancelled(true);
+            notifyDenied(event.getPlayer(), decision);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
+    public void onInteract(PlayerInteractEvent event) {
+        if (event.getClickedBlock() == null) {
+            return;
+        }
+        ProtectionDecision decision = protectionService.check(event.getPlayer(), event.getClickedBlock(), TownFlag.INTERACT);
+        if (decision.isDenied()) {
+            event.setCancelled(true);
+            event.setUseInteractedBlock(Result.DENY);
+            notifyDenied(event.getPlayer(), decision);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
+    public void onEntityInteract(PlayerInteractEntityEvent event) {
+        ProtectionDecision decision = protectionService.check(event.getPlayer(), event.getRightClicked().getLocation(), TownFlag.INTERACT);
+        if (decision.isDenied()) {
+            event.setCancelled(true);
+            notifyDenied(event.getPlayer(), decision);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
+    public void onArmorStand(PlayerArmorStandManipulateEvent event) {
+        ProtectionDecision decision = protectionService.check(event.getPlayer(), event.getRightClicked().getLocation(), TownFlag.INTERACT);
+        if (decision.isDenied()) {
+            event.setCancelled(true);
+            notifyDenied(event.getPlayer(), decision);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
+    public void onPlayerDamage(EntityDamageByEntityEvent event) {
+        if (!(event.getEntity() instanceof Player victim) || !(event.getDamager() instanceof Player attacker)) {
+            return;
+        }
+        ProtectionDecision decision = protectionService.check(attacker, victim.getLocation(), TownFlag.PVP);
+        if (decision.isDenied()) {
+            event.setCancelled(true);
+            notifyDenied(attacker, decision);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
+    public void onCreatureSpawn(CreatureSpawnEvent event) {
+        ChunkPosition position = ChunkPosition.fromLocation(event.getLocation());
+        Town town = townManager.getTownAtPosition(position);
+        if (town == null) {
+            return;
+        }
+
+        PlotData plot = town.getPlot(position);
+        TownFlags flags = plot == null || plot.isMunicipal() ? town.getCitizenFlags() : plot.getFlags();
+        if (event.getEntity() instanceof Monster && !flags.isEnabled(TownFlag.MONSTER_SPAWN)) {
+            event.setCancelled(true);
+            return;
+        }
+
+        if (event.getEntity() instanceof Animals && !flags.isEnabled(TownFlag.ANIMAL_SPAWN)) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        protectionService.forget(event.getPlayer().getUniqueId());
+    }
+
+    private void notifyDenied(Player player, ProtectionDecision decision) {
+        if (decision.getMessageKey() != null) {
+            messages.sendError(player, decision.getMessageKey());
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.simpletown.map;
+
+import com.flowpowered.math.vector.Vector2d;
+import com.simpletown.data.ChunkPosition;
+import de.bluecolored.bluemap.api.BlueMapAPI;
+import de.bluecolored.bluemap.api.BlueMapMap;
+import de.bluecolored.bluemap.api.markers.Marker;
+import de.bluecolored.bluemap.api.markers.MarkerSet;
+import de.bluecolored.bluemap.api.markers.POIMarker;
+import de.bluecolored.bluemap.api.markers.ShapeMarker;
+import de.bluecolored.bluemap.api.math.Color;
+import de.bluecolored.bluemap.api.math.Shape;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * BlueMap backend: towns and occupied territory as shape markers, capitals and captures as POI
+ * markers, in one marker set per layer on every map of the world.
+ * <p>
+ * Markers are keyed like the Dynmap ones and hashed the same way, so a polygon that did not change
+ * is not rebuilt. Holes are passed to BlueMap as real shape holes. BlueMap drops API marker sets on
+ * reload; the hashes are forgotten with them and {@link #setOnReady} gets a chance to draw
+ * everything again.
+ */
+public class BlueMapMapRenderer implements MapRenderer {
+    private static final Layer CITIES = new Layer("simpletown-cities", "Города");
+    private static final Layer CITY_CENTERS = new Layer("simpletown-city-centers", "Столицы городов");
+    private static final Layer OCCUPIED = new Layer("simpletown-occupied", "Оккупированные чанки");
+    private static final Layer CAPTURES = new Layer("simpletown-captures", "Захваты чанков");
+    private static final List<Layer> LAYERS = List.of(CITIES, CITY_CENTERS, OCCUPIED, CAPTURES);
+    private static final float SHAPE_Y = 64.0f;
+    private static final int LINE_WIDTH = 2;
+    private static final float CITY_BORDER_OPACITY = 1.0f;
+    private static final float CITY_BORDER_FILL_OPACITY = 0.35f;
+    private static final float OCCUPIED_FILL_OPACITY = 0.4f;
+    private static final float OCCUPIED_LINE_OPACITY = 1.0f;
+    private static final double MARKER_HEIGHT_OFFSET = 2.0;
+
+    private final JavaPlugin plugin;
+    private volatile BlueMapAPI api;
+    private final Map<String, Set<String>> cityMarkers = new ConcurrentHashMap<>();
+    private final Map<String, String> cityCenterMarkers = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> occupiedMarkers = new ConcurrentHashMap<>();
+    private final Map<String, String> captureMarkers = new ConcurrentHashMap<>();
+    private final Map<String, PlacedMarker> placed = new ConcurrentHashMap<>();
+    private Runnable onReady;
+
+    public BlueMapMapRenderer(JavaPlugin plugin) {
+        this.plugin = plugin;
+        BlueMapAPI.onEnable(enabled -> onMainThread(() -> enable(enabled)));
+        BlueMapAPI.onDisable(disabled -> onMainThread(this::disable));
+    }
+
+    public void setOnReady(Runnable onReady) {
+        this.onReady = onReady;
+        notifyReady();
+    }
+
+    private void onMainThread(Runnable task) {
+        if (!plugin.isEnabled()) {
+            return;
+        }
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    private void enable(BlueMapAPI enabled) {
+        forgetMarkers();
+        this.api = enabled;
+        notifyReady();
+    }
+
+    private void disable() {
+        this.api = null;
+        forgetMarkers();
+    }
+
+    private void forgetMarkers() {
+        cityMarkers.clear();
+        cityCenterMarkers.clear();
+        occupiedMarkers.clear();
+        captureMarkers.clear();
+        placed.clear();
+    }
+
+    private boolean ready() {
+        return api != null;
+    }
+
+    @Override
+    public void upsertCity(String cityId, String name, String description, List<MapPolygon> polygons, String colorHex, ChunkPosition capitalChunk) {
+        if (!ready()) {
+            return;
+        }
+        String popup = description == null ? "" : description;
+        upsertShapes(CITIES, cityMarkers, cityId, "city_" + cityId, name, popup, polygons, MapColors.parseColor(colorHex),
+                CITY_BORDER_FILL_OPACITY, CITY_BORDER_OPACITY);
+        if (capitalChunk == null) {
+            removeMarker(cityCenterMarkers.remove(cityId));
+            return;
+        }
+        String markerId = "city_center_" + cityId;
+        if (upsertPoint(CITY_CENTERS, markerId, name, popup, capitalChunk)) {
+            cityCenterMarkers.put(cityId, markerId);
+        } else {
+            removeMarker(cityCenterMarkers.remove(cityId));
+        }
+    }
+
+    @Override
+    public void removeCity(String cityId) {
+        if (!ready()) {
+            return;
+        }
+        removeMarkers(cityMarkers.remove(cityId));
+        removeMarker(cityCenterMarkers.remove(cityId));
+    }
+
+    @Override
+    public void upsertOccupied(String controllerId, String controllerName, List<MapPolygon> polygons, String colorHex) {
+        if (!ready()) {
+            return;
+        }
+        String label = "Оккупированная территория городом " + controllerName;
+        upsertShapes(OCCUPIED, occupiedMarkers, controllerId, "occupied_" + controllerId, label, label, polygons,
+                MapColors.parseColor(colorHex), OCCUPIED_FILL_OPACITY, OCCUPIED_LINE_OPACITY);
+    }
+
+    @Override
+    public void removeOccupied(String controllerId) {
+        if (!ready()) {
+            return;
+        }
+        removeMarkers(occupiedMarkers.remove(controllerId));
+    }
+
+    @Override
+    public void upsertCaptureFlag(String flagId, String townName, ChunkPosition chunk) {
+        if (!ready() || chunk == null) {
+            return;
+        }
+        String markerId = "capture_flag_" + flagId;
+        String description = townName == null || townName.isBlank() ? "" : "Чанк захватывает город " + townName;
+        if (upsertPoint(CAPTURES, markerId, "Захват чанка", description, chunk)) {
+            captureMarkers.put(flagId, markerId);
+        } else {
+            removeCaptureFlag(flagId);
+        }
+    }
+
+    @Override
+    public void removeCaptureFlag(String flagId) {
+        if (!ready()) {
+            return;
+        }
+        removeMarker(captureMarkers.remove(flagId));
+    }
+
+    @Override
+    public void clearWorld(String worldName) {
+        if (!ready() || worldName == null) {
+            return;
+        }
+        for (Map.Entry<String, PlacedMarker> entry : new ArrayList<>(placed.entrySet())) {
+            if (worldName.equals(entry.getValue().world())) {
+                removeMarker(entry.getKey());
+            }
+        }
+    }
+
+    @Override
+    public void clearAll() {
+        BlueMapAPI current = api;
+        if (current != null) {
+            for (BlueMapMap map : current.getMaps()) {
+                for (Layer layer : LAYERS) {
+                    map.getMarkerSets().remove(layer.id());
+                }
+            }
+        }
+        forgetMarkers();
+    }
+
+    /**
+     * Brings one owner's shape markers in line with its polygons, numbered per world like the
+     * Dynmap areas. A marker whose hash is unchanged is left alone.
+     */
+    private void upsertShapes(Layer layer, Map<String, Set<String>> registry, String ownerId, String markerPrefix,
+                              String label, String description, List<MapPolygon> polygons, int rgb,
+                              float fillOpacity, float lineOpacity) {
+        Set<String> current = new HashSet<>();
+        Map<String, Collection<BlueMapMap>> mapsByWorld = new HashMap<>();
+        Map<String, Integer> indexByWorld = new HashMap<>();
+        for (MapPolygon polygon : polygons) {
+            String world = polygon.world();
+            if (polygon.size() < 4) {
+                continue;
+            }
+            Collection<BlueMapMap> maps = mapsByWorld.computeIfAbsent(world, this::maps);
+            if (maps.isEmpty()) {
+                continue;
+            }
+            int index = indexByWorld.merge(world, 1, Integer::sum) - 1;
+            String markerId = markerPrefix + "_" + world + "_p" + index;
+            int hash = Objects.hash(polygon.geometryHash(), label, description, rgb);
+            current.add(markerId);
+            if (unchanged(markerId, world, hash)) {
+                continue;
+            }
+            ShapeMarker marker = ShapeMarker.builder()
+                    .label(label)
+                    .detail(description)
+                    .shape(toShape(polygon), SHAPE_Y)
+                    .holes(polygon.holes().stream().map(BlueMapMapRenderer::toShape).toArray(Shape[]::new))
+                    .fillColor(color(rgb, fillOpacity))
+                    .lineColor(color(rgb, lineOpacity))
+                    .lineWidth(LINE_WIDTH)
+                    .depthTestEnabled(false)
+                    .build();
+            place(layer, markerId, world, hash, marker, maps);
+        }
+        Set<String> previous = registry.get(ownerId);
+        if (previous != null) {
+            previous.removeAll(current);
+            removeMarkers(previous);
+        }
+        if (current.isEmpty()) {
+            registry.remove(ownerId);
+        } else {
+            registry.put(ownerId, current);
+        }
+    }
+
+    /**
+     * Point counterpart of {@link #upsertShapes}; the terrain height is looked up only when the
+     * marker is rebuilt.
+     */
+    private boolean upsertPoint(Layer layer, String markerId, String label, String description, ChunkPosition chunk) {
+        String world = chunk.getWorld();
+        Collection<BlueMapMap> maps = maps(world);
+        if (maps.isEmpty()) {
+            removeMarker(markerId);
+            return false;
+        }
+        int hash = Objects.hash(world, chunk.getX(), chunk.getZ(), label, description);
+        if (unchanged(markerId, world, hash)) {
+            return true;
+        }
+        double x = chunk.getX() * 16.0 + 8.0;
+        double z = chunk.getZ() * 16.0 + 8.0;
+        double y = Bukkit.getWorld(world).getHighestBlockYAt((int) x, (int) z) + MARKER_HEIGHT_OFFSET;
+        POIMarker marker = POIMarker.builder()
+                .label(label)
+                .detail(description == null || description.isBlank() ? label : description)
+                .position(x, y, z)
+                .build();
+        place(layer, markerId, world, hash, marker, maps);
+        return true;
+    }
+
+    private boolean unchanged(String markerId, String world, int hash) {
+        PlacedMarker previous = placed.get(markerId);
+        return previous != null && previous.hash() == hash && previous.world().equals(world);
+    }
+
+    private void place(Layer layer, String markerId, String world, int hash, Marker marker, Collection<BlueMapMap> maps) {
+        PlacedMarker previous = placed.get(markerId);
+        if (previous != null && !previous.world().equals(world)) {
+            removeMarker(markerId);
+        }
+        for (BlueMapMap map : maps) {
+            markerSet(map, layer).put(markerId, marker);
+        }
+        placed.put(markerId, new PlacedMarker(layer, world, hash));
+    }
+
+    private void removeMarkers(Set<String> markerIds) {
+        if (markerIds == null) {
+            return;
+        }
+        for (String markerId : markerIds) {
+            removeMarker(markerId);
+        }
+    }
+
+    private void removeMarker(String markerId) {
+        if (markerId == null) {
+            return;
+        }
+        PlacedMarker marker = placed.remove(markerId);
+        if (marker == null) {
+            return;
+        }
+        forEachMap(marker.world(), map -> {
+            MarkerSet set = map.getMarkerSets().get(marker.layer().id());
+            if (set != null) {
+                set.remove(markerId);
+            }
+        });
+    }
+
+    private void forEachMap(String worldName, Consumer<BlueMapMap> action) {
+        for (BlueMapMap map : maps(worldName)) {
+            action.accept(map);
+        }
+    }
+
+    private Collection<BlueMapMap> maps(String worldName) {
+        BlueMapAPI current = api;
+        World world = worldName == null ? null : Bukkit.getWorld(worldName);
+        if (current == null || world == null || world.getEnvironment() == World.Environment.NETHER) {
+            return Collections.emptyList();
+        }
+        return current.getWorld(world)
+                .map(blueMapWorld -> blueMapWorld.getMaps())
+                .orElse(Collections.emptyList());
+    }
+
+    private MarkerSet markerSet(BlueMapMap map, Layer layer) {
+        return map.getMarkerSets().computeIfAbsent(layer.id(), id -> MarkerSet.builder()
+                .label(layer.label())
+                .toggleable(true)
+                .build());
+    }
+
+    /**
+     * BlueMap closes shapes on its own, so the repeated first point is dropped.
+     */
+    private static Shape toShape(MapPolygon polygon) {
+        int size = polygon.size() - 1;
+        Vector2d[] points = new Vector2d[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = new Vector2d(polygon.x()[i], polygon.z()[i]);
+        }
+        return new Shape(points);
+    }
+
+    private static Color color(int rgb, float alpha) {
+        return new Color((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF, alpha);
+    }
+
+    private void notifyReady() {
+        if (onReady != null && ready()) {
+            onReady.run();
+        }
+    }
+
+    private record Layer(String id, String label) {
+    }
+
+    private record PlacedMarker(Layer layer, String world, int hash) {
+    }
+}
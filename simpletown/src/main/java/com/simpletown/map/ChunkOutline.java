@@ -0,0 +1,454 @@
+package com.simpletown.map;
+
+import com.simpletown.data.ChunkPosition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outline of one town in one world, kept up to date chunk by chunk.
+ * <p>
+ * Borders live on the integer chunk grid as directed unit edges with the claimed side on the
+ * right, stored per grid vertex as a bit mask of outgoing directions. Claiming or unclaiming a
+ * chunk toggles its four edges; only the loops that pass through one of its corners are dropped
+ * and traced again on the next {@link #getPolygons()}, every other loop keeps its cached polygon.
+ * Where two claimed chunks touch only diagonally the tracer turns right, so they end up in
+ * separate loops.
+ * <p>
+ * Polygons keep only the corners of each loop. Loops wound clockwise on the map (claimed side
+ * inside) are outer borders; the others enclose unclaimed land and are attached as holes to the
+ * smallest outer border around them.
+ */
+public final class ChunkOutline {
+    private static final int EAST = 0;
+    private static final int SOUTH = 1;
+    private static final int WEST = 2;
+    private static final int NORTH = 3;
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DZ = {0, 1, 0, -1};
+    private static final double CHUNK_SIZE = 16.0;
+
+    private static final class Vertex {
+        private final int x;
+        private final int z;
+        private int mask;
+        private final Loop[] loops = new Loop[4];
+        private boolean pending;
+
+        private Vertex(int x, int z) {
+            this.x = x;
+            this.z = z;
+        }
+    }
+
+    private static final class Loop {
+        private int[] xs = new int[8];
+        private int[] zs = new int[8];
+        private int size;
+        private int[] cornerX;
+        private int[] cornerZ;
+        private long area;
+        private int minX;
+        private int minZ;
+        private int maxX;
+        private int maxZ;
+        private int[][] rows;
+        private Loop owner;
+        private MapPolygon ring;
+        private MapPolygon polygon;
+
+        private void add(int x, int z) {
+            if (size == xs.length) {
+                xs = Arrays.copyOf(xs, size * 2);
+                zs = Arrays.copyOf(zs, size * 2);
+            }
+            xs[size] = x;
+            zs[size] = z;
+            size++;
+        }
+
+        /**
+         * Drops every point where the border runs straight on and works out the doubled signed
+         * area and bounds from the corners that remain. The traced points stay, they are needed
+         * to invalidate the loop later.
+         */
+        private void simplify() {
+            int points = size - 1;
+            int[] x = new int[points + 1];
+            int[] z = new int[points + 1];
+            int corners = 0;
+            for (int i = 0; i < points; i++) {
+                int previous = (i + points - 1) % points;
+                int next = (i + 1) % points;
+                int inX = xs[i] - xs[previous];
+                int inZ = zs[i] - zs[previous];
+                if (inX != xs[next] - xs[i] || inZ != zs[next] - zs[i]) {
+                    x[corners] = xs[i];
+                    z[corners] = zs[i];
+                    corners++;
+                }
+            }
+            x[corners] = x[0];
+            z[corners] = z[0];
+            cornerX = Arrays.copyOf(x, corners + 1);
+            cornerZ = Arrays.copyOf(z, corners + 1);
+            minX = maxX = cornerX[0];
+            minZ = maxZ = cornerZ[0];
+            area = 0;
+            for (int i = 0; i < corners; i++) {
+                area += (long) cornerX[i] * cornerZ[i + 1] - (long) cornerX[i + 1] * cornerZ[i];
+                minX = Math.min(minX, cornerX[i]);
+                maxX = Math.max(maxX, cornerX[i]);
+                minZ = Math.min(minZ, cornerZ[i]);
+                maxZ = Math.max(maxZ, cornerZ[i]);
+            }
+        }
+
+        private boolean outer() {
+            return area > 0;
+        }
+
+        /**
+         * Even-odd test for the centre of a chunk: the number of vertical edges east of it in its
+         * row, looked up in a per-row index built on first use.
+         */
+        private boolean contains(int chunkX, int chunkZ) {
+            if (chunkX < minX || chunkX >= maxX || chunkZ < minZ || chunkZ >= maxZ) {
+                return false;
+            }
+            if (rows == null) {
+                indexRows();
+            }
+            int[] crossings = rows[chunkZ - minZ];
+            int index = Arrays.binarySearch(crossings, chunkX);
+            int east = crossings.length - (index >= 0 ? index + 1 : -index - 1);
+            return (east & 1) == 1;
+        }
+
+        private void indexRows() {
+            int[] counts = new int[maxZ - minZ];
+            for (int i = 0; i + 1 < cornerX.length; i++) {
+                if (cornerX[i] == cornerX[i + 1]) {
+                    for (int z = Math.min(cornerZ[i], cornerZ[i + 1]); z < Math.max(cornerZ[i], cornerZ[i + 1]); z++) {
+                        counts[z - minZ]++;
+                    }
+                }
+            }
+            rows = new int[counts.length][];
+            for (int row = 0; row < counts.length; row++) {
+                rows[row] = new int[counts[row]];
+                counts[row] = 0;
+            }
+            for (int i = 0; i + 1 < cornerX.length; i++) {
+                if (cornerX[i] == cornerX[i + 1]) {
+                    for (int z = Math.min(cornerZ[i], cornerZ[i + 1]); z < Math.max(cornerZ[i], cornerZ[i + 1]); z++) {
+                        rows[z - minZ][counts[z - minZ]++] = cornerX[i];
+                    }
+                }
+            }
+            for (int[] row : rows) {
+                Arrays.sort(row);
+            }
+        }
+
+        private MapPolygon ring(String world) {
+            if (ring == null) {
+                double[] x = new double[cornerX.length];
+                double[] z = new double[cornerZ.length];
+                for (int i = 0; i < x.length; i++) {
+                    x[i] = cornerX[i] * CHUNK_SIZE;
+                    z[i] = cornerZ[i] * CHUNK_SIZE;
+                }
+                ring = new MapPolygon(world, x, z);
+            }
+            return ring;
+        }
+
+        private MapPolygon polygon(String world, List<MapPolygon> holes) {
+            if (polygon == null || !polygon.holes().equals(holes)) {
+                MapPolygon outline = ring(world);
+                polygon = new MapPolygon(world, outline.x(), outline.z(), List.copyOf(holes));
+                // Bridged here, on the map worker, so backends without holes only read it.
+                polygon.bridged();
+            }
+            return polygon;
+        }
+    }
+
+    private final String world;
+    private final Set<Long> chunks = new HashSet<>();
+    private final Map<Long, Vertex> vertices = new HashMap<>();
+    private final Set<Loop> loops = new LinkedHashSet<>();
+    private final ArrayDeque<Vertex> pending = new ArrayDeque<>();
+    private final List<Loop> traced = new ArrayList<>();
+
+    public ChunkOutline(String world) {
+        this.world = world;
+    }
+
+    public boolean add(int x, int z) {
+        if (!chunks.add(key(x, z))) {
+            return false;
+        }
+        toggle(x, z, true);
+        return true;
+    }
+
+    public boolean remove(int x, int z) {
+        if (!chunks.remove(key(x, z))) {
+            return false;
+        }
+        toggle(x, z, false);
+        return true;
+    }
+
+    /**
+     * Brings the outline to exactly the given chunks, toggling only the ones that differ.
+     */
+    public void sync(Collection<ChunkPosition> target) {
+        Set<Long> wanted = new HashSet<>(target.size() * 2);
+        for (ChunkPosition pos : target) {
+            wanted.add(key(pos.getX(), pos.getZ()));
+        }
+        for (Long chunk : new ArrayList<>(chunks)) {
+            if (!wanted.contains(chunk)) {
+                remove(unpackX(chunk), unpackZ(chunk));
+            }
+        }
+        for (Long chunk : wanted) {
+            if (!chunks.contains(chunk)) {
+                add(unpackX(chunk), unpackZ(chunk));
+            }
+        }
+    }
+
+    public int size() {
+        return chunks.size();
+    }
+
+    public boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+
+    /**
+     * Outer borders in block coordinates with the first point repeated at the end, each with the
+     * holes it encloses. Borders whose loops and holes were not touched since the last call return
+     * the same polygon instances.
+     */
+    public List<MapPolygon> getPolygons() {
+        retrace();
+        List<Loop> outers = new ArrayList<>();
+        List<Loop> holes = new ArrayList<>();
+        for (Loop loop : loops) {
+            (loop.outer() ? outers : holes).add(loop);
+        }
+        List<Loop> tracedOuters = new ArrayList<>();
+        for (Loop loop : traced) {
+            if (loop.outer()) {
+                tracedOuters.add(loop);
+            }
+        }
+        traced.clear();
+        Map<Loop, List<MapPolygon>> holesByOuter = new HashMap<>();
+        for (Loop hole : holes) {
+            boolean ownerAlive = hole.owner != null && loops.contains(hole.owner);
+            hole.owner = owner(hole, ownerAlive ? hole.owner : null, ownerAlive ? tracedOuters : outers);
+            if (hole.owner != null) {
+                holesByOuter.computeIfAbsent(hole.owner, key -> new ArrayList<>()).add(hole.ring(world));
+            }
+        }
+        List<MapPolygon> result = new ArrayList<>(outers.size());
+        for (Loop outer : outers) {
+            result.add(outer.polygon(world, holesByOuter.getOrDefault(outer, List.of())));
+        }
+        return result;
+    }
+
+    /**
+     * Smallest outer border around the unclaimed chunk on the left of the hole's first edge.
+     * Nested borders are always smaller than the ones around them, so this is the innermost one.
+     * While the previous owner is still alive it stays the smallest of the old borders, so only
+     * the borders traced since the last call have to be checked against it.
+     */
+    private static Loop owner(Loop hole, Loop owner, List<Loop> outers) {
+        int dir = direction(hole.xs[1] - hole.xs[0], hole.zs[1] - hole.zs[0]);
+        int left = (dir + 3) & 3;
+        int x = Math.min(hole.xs[0], hole.xs[0] + DX[dir]) + Math.min(0, DX[left]);
+        int z = Math.min(hole.zs[0], hole.zs[0] + DZ[dir]) + Math.min(0, DZ[left]);
+        for (Loop outer : outers) {
+            if ((owner == null || outer.area < owner.area) && outer.contains(x, z)) {
+                owner = outer;
+            }
+        }
+        return owner;
+    }
+
+    private void toggle(int x, int z, boolean claim) {
+        invalidateAround(x, z);
+        toggleEdge(x, z, EAST, claim);
+        toggleEdge(x + 1, z, SOUTH, claim);
+        toggleEdge(x + 1, z + 1, WEST, claim);
+        toggleEdge(x, z + 1, NORTH, claim);
+    }
+
+    /**
+     * Adding a chunk adds its clockwise edges or cancels the opposite edge of a claimed neighbour;
+     * removing it does the reverse. Either way the edge set stays the XOR of all claimed squares.
+     */
+    private void toggleEdge(int x, int z, int dir, boolean claim) {
+        int tx = x + DX[dir];
+        int tz = z + DZ[dir];
+        int reverse = (dir + 2) & 3;
+        if (claim) {
+            Vertex opposite = vertices.get(key(tx, tz));
+            if (opposite != null && (opposite.mask & (1 << reverse)) != 0) {
+                clearEdge(opposite, reverse);
+            } else {
+                setEdge(x, z, dir);
+            }
+        } else {
+            Vertex from = vertices.get(key(x, z));
+            if (from != null && (from.mask & (1 << dir)) != 0) {
+                clearEdge(from, dir);
+            } else {
+                setEdge(tx, tz, reverse);
+            }
+        }
+    }
+
+    private void setEdge(int x, int z, int dir) {
+        Vertex vertex = vertices.computeIfAbsent(key(x, z), k -> new Vertex(x, z));
+        vertex.mask |= 1 << dir;
+        vertex.loops[dir] = null;
+        markPending(vertex);
+    }
+
+    private void clearEdge(Vertex vertex, int dir) {
+        vertex.mask &= ~(1 << dir);
+        vertex.loops[dir] = null;
+        if (vertex.mask == 0 && !vertex.pending) {
+            vertices.remove(key(vertex.x, vertex.z));
+        }
+    }
+
+    /**
+     * Drops every loop that enters or leaves one of the chunk's corners; their surviving edges are
+     * queued for tracing together with the edges the toggle adds.
+     */
+    private void invalidateAround(int x, int z) {
+        for (int cx = x; cx <= x + 1; cx++) {
+            for (int cz = z; cz <= z + 1; cz++) {
+                Vertex corner = vertices.get(key(cx, cz));
+                if (corner != null) {
+                    for (int dir = 0; dir < 4; dir++) {
+                        invalidate(corner.loops[dir]);
+                    }
+                }
+                for (int dir = 0; dir < 4; dir++) {
+                    Vertex from = vertices.get(key(cx - DX[dir], cz - DZ[dir]));
+                    if (from != null) {
+                        invalidate(from.loops[dir]);
+                    }
+                }
+            }
+        }
+    }
+
+    private void invalidate(Loop loop) {
+        if (loop == null || !loops.remove(loop)) {
+            return;
+        }
+        for (int i = 0; i + 1 < loop.size; i++) {
+            Vertex vertex = vertices.get(key(loop.xs[i], loop.zs[i]));
+            int dir = direction(loop.xs[i + 1] - loop.xs[i], loop.zs[i + 1] - loop.zs[i]);
+            if (vertex != null && vertex.loops[dir] == loop) {
+                vertex.loops[dir] = null;
+                markPending(vertex);
+            }
+        }
+    }
+
+    private void markPending(Vertex vertex) {
+        if (!vertex.pending) {
+            vertex.pending = true;
+            pending.add(vertex);
+        }
+    }
+
+    private void retrace() {
+        Vertex vertex;
+        while ((vertex = pending.poll()) != null) {
+            vertex.pending = false;
+            for (int dir = 0; dir < 4; dir++) {
+                if ((vertex.mask & (1 << dir)) != 0 && vertex.loops[dir] == null) {
+                    Loop loop = trace(vertex, dir);
+                    loops.add(loop);
+                    traced.add(loop);
+                }
+            }
+            if (vertex.mask == 0) {
+                vertices.remove(key(vertex.x, vertex.z));
+            }
+        }
+    }
+
+    private Loop trace(Vertex start, int startDir) {
+        Loop loop = new Loop();
+        Vertex current = start;
+        int dir = startDir;
+        do {
+            current.loops[dir] = loop;
+            loop.add(current.x, current.z);
+            Vertex next = vertices.get(key(current.x + DX[dir], current.z + DZ[dir]));
+            dir = nextDirection(next.mask, dir);
+            current = next;
+        } while (current != start || dir != startDir);
+        loop.add(start.x, start.z);
+        loop.simplify();
+        return loop;
+    }
+
+    private static int nextDirection(int mask, int incoming) {
+        int right = (incoming + 1) & 3;
+        if ((mask & (1 << right)) != 0) {
+            return right;
+        }
+        if ((mask & (1 << incoming)) != 0) {
+            return incoming;
+        }
+        return (incoming + 3) & 3;
+    }
+
+    private static int direction(int dx, int dz) {
+        if (dx > 0) {
+            return EAST;
+        }
+        if (dz > 0) {
+            return SOUTH;
+        }
+        if (dx < 0) {
+            return WEST;
+        }
+        return NORTH;
+    }
+
+    private static long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    private static int unpackX(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int unpackZ(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,72 @@
+package com.simpletown.map;
+
+import com.simpletown.data.ChunkPosition;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Hands every map update to all active backends. Polygons and popups are computed once by
+ * {@link com.simpletown.service.MapService} and shared; a failing backend is logged and skipped so
+ * the others still get the update.
+ */
+public class CompositeMapRenderer implements MapRenderer {
+    private final Logger logger;
+    private final List<MapRenderer> renderers;
+
+    public CompositeMapRenderer(Logger logger, List<MapRenderer> renderers) {
+        this.logger = logger;
+        this.renderers = List.copyOf(renderers);
+    }
+
+    @Override
+    public void upsertCity(String cityId, String name, String description, List<MapPolygon> polygons, String colorHex, ChunkPosition capitalChunk) {
+        forEach(renderer -> renderer.upsertCity(cityId, name, description, polygons, colorHex, capitalChunk));
+    }
+
+    @Override
+    public void removeCity(String cityId) {
+        forEach(renderer -> renderer.removeCity(cityId));
+    }
+
+    @Override
+    public void upsertOccupied(String controllerId, String controllerName, List<MapPolygon> polygons, String colorHex) {
+        forEach(renderer -> renderer.upsertOccupied(controllerId, controllerName, polygons, colorHex));
+    }
+
+    @Override
+    public void removeOccupied(String controllerId) {
+        forEach(renderer -> renderer.removeOccupied(controllerId));
+    }
+
+    @Override
+    public void upsertCaptureFlag(String flagId, String townName, ChunkPosition chunk) {
+        forEach(renderer -> renderer.upsertCaptureFlag(flagId, townName, chunk));
+    }
+
+    @Override
+    public void removeCaptureFlag(String flagId) {
+        forEach(renderer -> renderer.removeCaptureFlag(flagId));
+    }
+
+    @Override
+    public void clearWorld(String worldName) {
+        forEach(renderer -> renderer.clearWorld(worldName));
+    }
+
+    @Override
+    public void clearAll() {
+        forEach(MapRenderer::clearAll);
+    }
+
+    private void forEach(Consumer<MapRenderer> action) {
+        for (MapRenderer renderer : renderers) {
+            try {
+                action.accept(renderer);
+            } catch (RuntimeException e) {
+                logger.warning("Ошибка отрисовки карты (" + renderer.getClass().getSimpleName() + "): " + e.getMessage());
+            }
+        }
+    }
+}
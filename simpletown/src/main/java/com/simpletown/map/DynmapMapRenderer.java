@@ -17,13 +17,13 @@ import org.dynmap.markers.PolyLineMarker;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.server.PluginEnableEvent;
-import com.simpletown.map.ChunkOutlineBuilder;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -53,8 +53,8 @@ public class DynmapMapRenderer implements MapRenderer {
     private final Map<String, Set<String>> cityMarkers = new ConcurrentHashMap<>();
     private final Map<String, String> cityCenterMarkers = new ConcurrentHashMap<>();
     private final Map<String, Set<String>> occupiedMarkers = new ConcurrentHashMap<>();
-    private final Map<String, String> cityDescriptions = new ConcurrentHashMap<>();
     private final Map<String, String> captureMarkers = new ConcurrentHashMap<>();
+    private final Map<String, MarkerHash> markerHashes = new ConcurrentHashMap<>();
     private Runnable onReady;
 
     public DynmapMapRenderer(JavaPlugin plugin) {
@@ -104,43 +104,13 @@ public class DynmapMapRenderer implements MapRenderer {
     }
 
     @Override
-    public void upsertCity(String cityId, String name, String description, Map<String, Set<ChunkPosition>> worldChunks, String colorHex, ChunkPosition capitalChunk) {
+    public void upsertCity(String cityId, String name, String description, List<MapPolygon> polygons, String colorHex, ChunkPosition capitalChunk) {
         if (!ready()) {
             return;
         }
-        removeMarkers(citySet, cityMarkers.remove(cityId));
-        Set<String> created = new HashSet<>();
-        int rgb = parseColor(colorHex);
-        for (Map.Entry<String, Set<ChunkPosition>> entry : worldChunks.entrySet()) {
-            String world = entry.getKey();
-            World bukkitWorld = Bukkit.getWorld(world);
-            if (bukkitWorld == null || bukkitWorld.getEnvironment() == World.Environment.NETHER) {
-                continue;
-            }
-            List<List<ChunkOutlineBuilder.Point>> outlines = ChunkOutlineBuilder.buildOutlines(entry.getValue());
-            int index = 0;
-            for (List<ChunkOutlineBuilder.Point> outline : outlines) {
-                if (outline.size() < 4) {
-                    continue;
-                }
-                double[] x = outline.stream().mapToDouble(ChunkOutlineBuilder.Point::x).toArray();
-                double[] z = outline.stream().mapToDouble(ChunkOutlineBuilder.Point::z).toArray();
-                String markerId = "city_" + cityId + "_" + world + "_p" + index++;
-                AreaMarker area = citySet.createAreaMarker(markerId, name, false, world, x, z, false);
-                if (area != null) {
-                    area.setFillStyle(CITY_BORDER_FILL_OPACITY, rgb);
-                    area.setLineStyle(LINE_WEIGHT, CITY_BORDER_OPACITY, rgb);
-                    area.setDescription(description == null ? "" : description);
-                    created.add(markerId);
-                }
-            }
-        }
-        if (!created.isEmpty()) {
-            cityMarkers.put(cityId, created);
-            if (description != null) {
-                cityDescriptions.put(cityId, description);
-            }
-        }
+        String popup = description == null ? "" : description;
+        upsertAreas(citySet, cityMarkers, cityId, "city_" + cityId, name, popup, polygons, MapColors.parseColor(colorHex),
+                CITY_BORDER_FILL_OPACITY, CITY_BORDER_OPACITY);
         upsertCityCenterMarker(cityId, name, description, capitalChunk);
     }
 
@@ -150,51 +120,17 @@ public class DynmapMapRenderer implements MapRenderer {
             return;
         }
         removeMarkers(citySet, cityMarkers.remove(cityId));
-        cityDescriptions.remove(cityId);
         removeCityCenter(cityId);
     }
 
     @Override
-    public void upsertCityChunks(String cityId, String name, Map<String, Set<ChunkPosition>> worldChunks, String colorHex) {
-        // Городские чанки теперь отображаются вместе с контурами города в одном слое.
-        // Для совместимости повторно вызываем upsertCity, чтобы обновить заливку.
-        String description = cityDescriptions.getOrDefault(cityId, "");
-        upsertCity(cityId, name, description, worldChunks, colorHex, null);
-    }
-
-    @Override
-    public void upsertOccupiedChunks(String controllerId, String controllerName, Map<String, Set<ChunkPosition>> worldChunks, String colorHex) {
+    public void upsertOccupied(String controllerId, String controllerName, List<MapPolygon> polygons, String colorHex) {
         if (!ready()) {
             return;
         }
-        removeMarkers(occupiedSet, occupiedMarkers.remove(controllerId));
-        Set<String> created = new HashSet<>();
-        int rgb = parseColor(colorHex);
-        for (Map.Entry<String, Set<ChunkPosition>> entry : worldChunks.entrySet()) {
-            String world = entry.getKey();
-            for (ChunkPosition pos : entry.getValue()) {
-                World bukkitWorld = Bukkit.getWorld(world);
-                if (bukkitWorld == null || bukkitWorld.getEnvironment() == World.Environment.NETHER) {
-                    continue;
-                }
-                double x0 = pos.getX() * 16.0;
-                double z0 = pos.getZ() * 16.0;
-                double[] x = new double[]{x0, x0 + 16.0, x0 + 16.0, x0};
-                double[] z = new double[]{z0, z0, z0 + 16.0, z0 + 16.0};
-                String markerId = "occupied_" + controllerId + "_" + world + "_" + pos.getX() + "_" + pos.getZ();
-                String label = "Оккупированная территория городом " + controllerName;
-                AreaMarker area = occupiedSet.createAreaMarker(markerId, label, false, world, x, z, false);
-                if (area != null) {
-                    area.setFillStyle(OCCUPIED_FILL_OPACITY, rgb);
-                    area.setLineStyle(LINE_WEIGHT, OCCUPIED_LINE_OPACITY, rgb);
-                    area.setDescription(label);
-                    created.add(markerId);
-                }
-            }
-        }
-        if (!created.isEmpty()) {
-            occupiedMarkers.put(controllerId, created);
-        }
+        String label = "Оккупированная территория городом " + controllerName;
+        upsertAreas(occupiedSet, occupiedMarkers, controllerId, "occupied_" + controllerId, label, label, polygons,
+                MapColors.parseColor(colorHex), OCCUPIED_FILL_OPACITY, OCCUPIED_LINE_OPACITY);
     }
 
     @Override
@@ -226,10 +162,10 @@ public class DynmapMapRenderer implements MapRenderer {
         deleteSet(occupiedSet);
         deleteSet(captureSet);
         cityMarkers.clear();
-        cityDescriptions.clear();
         cityCenterMarkers.clear();
         occupiedMarkers.clear();
         captureMarkers.clear();
+        markerHashes.clear();
         initialize();
     }
 
@@ -261,6 +197,7 @@ public class DynmapMapRenderer implements MapRenderer {
             return;
         }
         for (String id : ids) {
+            markerHashes.remove(id);
             Optional.ofNullable(set.findAreaMarker(id)).ifPresent(marker -> marker.deleteMarker());
             Optional.ofNullable(set.findPolyLineMarker(id)).ifPresent(marker -> marker.deleteMarker());
             Optional.ofNullable(set.findMarker(id)).ifPresent(marker -> marker.deleteMarker());
@@ -294,38 +231,142 @@ public class DynmapMapRenderer implements MapRenderer {
         }
     }
 
-    private int parseColor(String hex) {
-        String normalized = hex == null ? "#FFD700" : hex.trim();
-        if (!normalized.startsWith("#")) {
-            normalized = "#" + normalized;
+    private boolean renderable(String worldName) {
+        World world = Bukkit.getWorld(worldName);
+        return world != null && world.getEnvironment() != World.Environment.NETHER;
+    }
+
+    /**
+     * Brings one owner's area markers in line with its polygons. Markers are numbered per world,
+     * so they are only created or deleted when the number of polygons changes; the rest are
+     * updated in place by {@link #upsertArea}. Area markers cannot have holes, so each polygon is
+     * sent as its bridged ring, which the outline cache already built on the map worker.
+     */
+    private void upsertAreas(MarkerSet set, Map<String, Set<String>> registry, String ownerId, String markerPrefix,
+                             String label, String description, List<MapPolygon> polygons, int rgb,
+                             double fillOpacity, double lineOpacity) {
+        Set<String> current = new HashSet<>();
+        Map<String, Boolean> renderableWorlds = new HashMap<>();
+        Map<String, Integer> indexByWorld = new HashMap<>();
+        for (MapPolygon polygon : polygons) {
+            String world = polygon.world();
+            if (polygon.size() < 4 || !renderableWorlds.computeIfAbsent(world, this::renderable)) {
+                continue;
+            }
+            int index = indexByWorld.merge(world, 1, Integer::sum) - 1;
+            String markerId = markerPrefix + "_" + world + "_p" + index;
+            if (upsertArea(set, markerId, label, description, polygon.bridged(), rgb, fillOpacity, lineOpacity)) {
+                current.add(markerId);
+            }
+        }
+        Set<String> previous = registry.get(ownerId);
+        if (previous != null) {
+            previous.removeAll(current);
+            removeMarkers(set, previous);
         }
-        try {
-            return Integer.parseInt(normalized.substring(1), 16);
-        } catch (Exception ex) {
-            return 0xFFD700;
+        if (current.isEmpty()) {
+            registry.remove(ownerId);
+        } else {
+            registry.put(ownerId, current);
         }
     }
 
+    /**
+     * Creates the area marker or updates it in place. Geometry and label/popup/color are hashed
+     * separately, so an unchanged polygon costs no Dynmap call at all and a changed popup does not
+     * resend the corners. Returns whether the marker exists afterwards.
+     */
+    private boolean upsertArea(MarkerSet set, String markerId, String label, String description, MapPolygon polygon,
+                               int rgb, double fillOpacity, double lineOpacity) {
+        int geometry = polygon.geometryHash();
+        int style = Objects.hash(label, description, rgb);
+        MarkerHash previous = markerHashes.get(markerId);
+        AreaMarker area = set.findAreaMarker(markerId);
+        if (area != null && !polygon.world().equals(area.getWorld())) {
+            area.deleteMarker();
+            area = null;
+        }
+        if (area == null) {
+            area = set.createAreaMarker(markerId, label, false, polygon.world(), polygon.x(), polygon.z(), false);
+            if (area == null) {
+                markerHashes.remove(markerId);
+                return false;
+            }
+            area.setFillStyle(fillOpacity, rgb);
+            area.setLineStyle(LINE_WEIGHT, lineOpacity, rgb);
+            area.setDescription(description);
+        } else {
+            if (previous == null || previous.geometry() != geometry) {
+                area.setCornerLocations(polygon.x(), polygon.z());
+            }
+            if (previous == null || previous.style() != style) {
+                area.setLabel(label);
+                area.setDescription(description);
+                area.setFillStyle(fillOpacity, rgb);
+                area.setLineStyle(LINE_WEIGHT, lineOpacity, rgb);
+            }
+        }
+        markerHashes.put(markerId, new MarkerHash(geometry, style));
+        return true;
+    }
+
+    /**
+     * Point counterpart of {@link #upsertArea}; the terrain height is looked up only when the
+     * marker is created or moved.
+     */
+    private boolean upsertPoint(MarkerSet set, String markerId, String label, String description, ChunkPosition chunk, String iconId) {
+        World world = Bukkit.getWorld(chunk.getWorld());
+        if (world == null || world.getEnvironment() == World.Environment.NETHER) {
+            return false;
+        }
+        double x = chunk.getX() * 16.0 + 8.0;
+        double z = chunk.getZ() * 16.0 + 8.0;
+        int geometry = Objects.hash(chunk.getWorld(), chunk.getX(), chunk.getZ());
+        int style = Objects.hash(label, description, iconId);
+        MarkerHash previous = markerHashes.get(markerId);
+        Marker marker = set.findMarker(markerId);
+        if (marker != null && previous != null && previous.geometry() == geometry && previous.style() == style) {
+            return true;
+        }
+        if (marker == null) {
+            double y = world.getHighestBlockYAt((int) x, (int) z) + MARKER_HEIGHT_OFFSET;
+            MarkerIcon icon = Optional.ofNullable(markerAPI.getMarkerIcon(iconId)).orElse(markerAPI.getMarkerIcon(MarkerIcon.DEFAULT));
+            marker = set.createMarker(markerId, label, chunk.getWorld(), x, y, z, icon, false);
+            if (marker == null) {
+                markerHashes.remove(markerId);
+                return false;
+            }
+            if (description != null) {
+                marker.setDescription(description);
+            }
+        } else {
+            if (previous == null || previous.geometry() != geometry) {
+                double y = world.getHighestBlockYAt((int) x, (int) z) + MARKER_HEIGHT_OFFSET;
+                marker.setLocation(chunk.getWorld(), x, y, z);
+            }
+            if (previous == null || previous.style() != style) {
+                marker.setLabel(label);
+                marker.setDescription(description == null ? "" : description);
+            }
+        }
+        markerHashes.put(markerId, new MarkerHash(geometry, style));
+        return true;
+    }
+
     private void upsertCityCenterMarker(String cityId, String name, String description, ChunkPosition capitalChunk) {
-        if (!ready() || capitalChunk == null) {
+        if (!ready()) {
             return;
         }
-        World world = Bukkit.getWorld(capitalChunk.getWorld());
-        if (world == null || world.getEnvironment() == World.Environment.NETHER) {
+        if (capitalChunk == null) {
+            removeCityCenter(cityId);
             return;
         }
-        removeCityCenter(cityId);
-        double x = capitalChunk.getX() * 16.0 + 8.0;
-        double z = capitalChunk.getZ() * 16.0 + 8.0;
-        double y = world.getHighestBlockYAt((int) x, (int) z) + MARKER_HEIGHT_OFFSET;
         String markerId = "city_center_" + cityId;
-        MarkerIcon icon = Optional.ofNullable(markerAPI.getMarkerIcon("star")).orElse(markerAPI.getMarkerIcon(MarkerIcon.DEFAULT));
-        Marker marker = cityCenterSet.createMarker(markerId, name, capitalChunk.getWorld(), x, y, z, icon, false);
-        if (marker != null) {
-            if (description != null && !description.isBlank()) {
-                marker.setDescription(description);
-            }
+        String popup = description == null || description.isBlank() ? null : description;
+        if (upsertPoint(cityCenterSet, markerId, name, popup, capitalChunk, "star")) {
             cityCenterMarkers.put(cityId, markerId);
+        } else {
+            removeCityCenter(cityId);
         }
     }
 
@@ -334,6 +375,7 @@ public class DynmapMapRenderer implements MapRenderer {
         if (cityCenterSet == null || markerId == null) {
             return;
         }
+        markerHashes.remove(markerId);
         Optional.ofNullable(cityCenterSet.findMarker(markerId)).ifPresent(Marker::deleteMarker);
     }
 
@@ -342,23 +384,12 @@ public class DynmapMapRenderer implements MapRenderer {
         if (!ready() || chunk == null) {
             return;
         }
-        World world = Bukkit.getWorld(chunk.getWorld());
-        if (world == null || world.getEnvironment() == World.Environment.NETHER) {
-            return;
-        }
-        removeCaptureFlag(flagId);
-        double x = chunk.getX() * 16.0 + 8.0;
-        double z = chunk.getZ() * 16.0 + 8.0;
-        double y = world.getHighestBlockYAt((int) x, (int) z) + MARKER_HEIGHT_OFFSET;
         String markerId = "capture_flag_" + flagId;
-        MarkerIcon icon = Optional.ofNullable(markerAPI.getMarkerIcon("redflag")).orElse(markerAPI.getMarkerIcon(MarkerIcon.DEFAULT));
-        String label = "Захват чанка";
-        Marker marker = captureSet.createMarker(markerId, label, chunk.getWorld(), x, y, z, icon, false);
-        if (marker != null) {
-            if (townName != null && !townName.isBlank()) {
-                marker.setDescription("Чанк захватывает город " + townName);
-            }
+        String description = townName == null || townName.isBlank() ? null : "Чанк захватывает город " + townName;
+        if (upsertPoint(captureSet, markerId, "Захват чанка", description, chunk, "redflag")) {
             captureMarkers.put(flagId, markerId);
+        } else {
+            removeCaptureFlag(flagId);
         }
     }
 
@@ -368,9 +399,13 @@ public class DynmapMapRenderer implements MapRenderer {
         if (captureSet == null || markerId == null) {
             return;
         }
+        markerHashes.remove(markerId);
         Optional.ofNullable(captureSet.findMarker(markerId)).ifPresent(Marker::deleteMarker);
     }
 
+    private record MarkerHash(int geometry, int style) {
+    }
+
     private void notifyReady() {
         if (onReady != null && ready()) {
             onReady.run();
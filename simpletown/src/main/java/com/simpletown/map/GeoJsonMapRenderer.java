@@ -0,0 +1,397 @@
+package com.simpletown.map;
+
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.schedule.GuardedTask;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Static export of the map layers for web maps that do not run Dynmap or BlueMap.
+ * <p>
+ * Features are grouped into square tiles of {@value #TILE_SIZE} blocks per world and written to
+ * {@code web/<world>/<x>_<z>.geojson}; a polygon goes into every tile its bounds touch. Renderer
+ * calls only hand the shared polygons to a single background thread, which keeps the features,
+ * marks the tiles an owner covered before and after the change and rewrites just those tiles every
+ * few seconds. Every file is written to a temporary file and moved into place, and
+ * {@code manifest.json} goes last with the revision of every tile, so a web server can cache tiles
+ * by revision and never sees a half-written one.
+ */
+public class GeoJsonMapRenderer implements MapRenderer {
+    static final int TILE_SIZE = 2048;
+    private static final String MANIFEST = "manifest.json";
+    private static final String TILE_SUFFIX = ".geojson";
+
+    private record Feature(String world, String json, Set<String> tiles) {
+    }
+
+    private final Plugin plugin;
+    private final File directory;
+    private final ScheduledExecutorService writer;
+    private final Map<String, List<Feature>> owners = new HashMap<>();
+    private final Map<String, Set<String>> ownersByTile = new HashMap<>();
+    private final Map<String, Long> tileRevisions = new TreeMap<>();
+    private final Set<String> dirtyTiles = new LinkedHashSet<>();
+    private long revision;
+    private boolean orphansChecked;
+
+    public GeoJsonMapRenderer(Plugin plugin, int flushIntervalSeconds) {
+        this.plugin = plugin;
+        this.directory = new File(plugin.getDataFolder(), "web");
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SimpleTown-GeoJson");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.revision = System.currentTimeMillis();
+        writer.scheduleWithFixedDelay(GuardedTask.of(plugin.getLogger(), "Ошибка экспорта карты: ", this::flush),
+                flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void upsertCity(String cityId, String name, String description, List<MapPolygon> polygons, String colorHex, ChunkPosition capitalChunk) {
+        submit(() -> {
+            Map<String, String> properties = properties("city", cityId, name, colorHex);
+            properties.put("popup", description == null ? "" : description);
+            putPolygons("city:" + cityId, polygons, properties);
+            if (capitalChunk == null) {
+                removeOwner("capital:" + cityId);
+            } else {
+                putPoint("capital:" + cityId, capitalChunk, properties("capital", cityId, name, colorHex));
+            }
+        });
+    }
+
+    @Override
+    public void removeCity(String cityId) {
+        submit(() -> {
+            removeOwner("city:" + cityId);
+            removeOwner("capital:" + cityId);
+        });
+    }
+
+    @Override
+    public void upsertOccupied(String controllerId, String controllerName, List<MapPolygon> polygons, String colorHex) {
+        submit(() -> putPolygons("occupied:" + controllerId, polygons, properties("occupied", controllerId, controllerName, colorHex)));
+    }
+
+    @Override
+    public void removeOccupied(String controllerId) {
+        submit(() -> removeOwner("occupied:" + controllerId));
+    }
+
+    @Override
+    public void upsertCaptureFlag(String flagId, String townName, ChunkPosition chunk) {
+        if (chunk == null) {
+            return;
+        }
+        submit(() -> putPoint("capture:" + flagId, chunk, properties("capture", flagId, townName == null ? "" : townName, null)));
+    }
+
+    @Override
+    public void removeCaptureFlag(String flagId) {
+        submit(() -> removeOwner("capture:" + flagId));
+    }
+
+    @Override
+    public void clearWorld(String worldName) {
+        submit(() -> {
+            for (Map.Entry<String, List<Feature>> entry : new ArrayList<>(owners.entrySet())) {
+                List<Feature> remaining = new ArrayList<>();
+                for (Feature feature : entry.getValue()) {
+                    if (!feature.world().equals(worldName)) {
+                        remaining.add(feature);
+                    }
+                }
+                replaceOwner(entry.getKey(), remaining);
+            }
+        });
+    }
+
+    @Override
+    public void clearAll() {
+        submit(() -> {
+            for (String owner : new ArrayList<>(owners.keySet())) {
+                removeOwner(owner);
+            }
+        });
+    }
+
+    /**
+     * Writes what is pending and stops the writer. Calls after this are dropped, so the last export
+     * stays on disk while the server is down.
+     */
+    public void shutdown() {
+        submit(this::flush);
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(Runnable task) {
+        if (writer.isShutdown()) {
+            return;
+        }
+        writer.execute(GuardedTask.of(plugin.getLogger(), "Ошибка экспорта карты: ", task));
+    }
+
+    private void putPolygons(String owner, List<MapPolygon> polygons, Map<String, String> properties) {
+        List<Feature> features = new ArrayList<>(polygons.size());
+        for (MapPolygon polygon : polygons) {
+            if (polygon.size() < 4) {
+                continue;
+            }
+            double minX = Double.MAX_VALUE;
+            double minZ = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE;
+            double maxZ = -Double.MAX_VALUE;
+            for (int i = 0; i < polygon.size(); i++) {
+                minX = Math.min(minX, polygon.x()[i]);
+                maxX = Math.max(maxX, polygon.x()[i]);
+                minZ = Math.min(minZ, polygon.z()[i]);
+                maxZ = Math.max(maxZ, polygon.z()[i]);
+            }
+            StringBuilder geometry = new StringBuilder("{\"type\":\"Polygon\",\"coordinates\":[");
+            appendRing(geometry, polygon);
+            for (MapPolygon hole : polygon.holes()) {
+                geometry.append(',');
+                appendRing(geometry, hole);
+            }
+            geometry.append("]}");
+            Set<String> tiles = new HashSet<>();
+            for (int tx = tile(minX); tx <= tile(maxX - 1); tx++) {
+                for (int tz = tile(minZ); tz <= tile(maxZ - 1); tz++) {
+                    tiles.add(tileKey(polygon.world(), tx, tz));
+                }
+            }
+            features.add(new Feature(polygon.world(), feature(geometry.toString(), properties), tiles));
+        }
+        replaceOwner(owner, features);
+    }
+
+    private void putPoint(String owner, ChunkPosition chunk, Map<String, String> properties) {
+        double x = chunk.getX() * 16.0 + 8.0;
+        double z = chunk.getZ() * 16.0 + 8.0;
+        String geometry = "{\"type\":\"Point\",\"coordinates\":[" + number(x) + "," + number(z) + "]}";
+        String tile = tileKey(chunk.getWorld(), tile(x), tile(z));
+        replaceOwner(owner, List.of(new Feature(chunk.getWorld(), feature(geometry, properties), Set.of(tile))));
+    }
+
+    private void removeOwner(String owner) {
+        replaceOwner(owner, List.of());
+    }
+
+    /**
+     * Swaps an owner's features and marks dirty every tile it covered before or covers now.
+     * Unchanged features leave their tiles alone.
+     */
+    private void replaceOwner(String owner, List<Feature> features) {
+        List<Feature> previous = features.isEmpty() ? owners.remove(owner) : owners.put(owner, features);
+        if (previous != null && previous.equals(features)) {
+            return;
+        }
+        if (previous != null) {
+            for (Feature feature : previous) {
+                for (String tile : feature.tiles()) {
+                    dirtyTiles.add(tile);
+                    Set<String> tileOwners = ownersByTile.get(tile);
+                    if (tileOwners != null) {
+                        tileOwners.remove(owner);
+                    }
+                }
+            }
+        }
+        for (Feature feature : features) {
+            for (String tile : feature.tiles()) {
+                dirtyTiles.add(tile);
+                ownersByTile.computeIfAbsent(tile, key -> new HashSet<>()).add(owner);
+            }
+        }
+    }
+
+    private void flush() {
+        try {
+            if (!orphansChecked) {
+                orphansChecked = true;
+                markOrphans();
+            }
+            if (dirtyTiles.isEmpty()) {
+                return;
+            }
+            revision = Math.max(revision + 1, System.currentTimeMillis());
+            for (String tile : dirtyTiles) {
+                writeTile(tile);
+            }
+            dirtyTiles.clear();
+            writeManifest();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Не удалось записать экспорт карты: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tiles left over from an earlier run are rewritten with the next flush, which deletes the
+     * ones nobody covers any more.
+     */
+    private void markOrphans() {
+        File[] worlds = directory.listFiles(File::isDirectory);
+        if (worlds == null) {
+            return;
+        }
+        for (File world : worlds) {
+            File[] tiles = world.listFiles((dir, name) -> name.endsWith(TILE_SUFFIX));
+            if (tiles == null) {
+                continue;
+            }
+            for (File tile : tiles) {
+                String name = tile.getName();
+                dirtyTiles.add(world.getName() + "/" + name.substring(0, name.length() - TILE_SUFFIX.length()));
+            }
+        }
+    }
+
+    private void writeTile(String tile) throws IOException {
+        Path path = directory.toPath().resolve(tile + TILE_SUFFIX);
+        Set<String> tileOwners = ownersByTile.get(tile);
+        if (tileOwners == null || tileOwners.isEmpty()) {
+            ownersByTile.remove(tile);
+            tileRevisions.remove(tile);
+            Files.deleteIfExists(path);
+            return;
+        }
+        StringBuilder json = new StringBuilder("{\"type\":\"FeatureCollection\",\"features\":[");
+        boolean first = true;
+        for (String owner : tileOwners) {
+            for (Feature feature : owners.getOrDefault(owner, List.of())) {
+                if (!feature.tiles().contains(tile)) {
+                    continue;
+                }
+                if (!first) {
+                    json.append(',');
+                }
+                json.append(feature.json());
+                first = false;
+            }
+        }
+        json.append("]}");
+        writeAtomically(path, json.toString());
+        tileRevisions.put(tile, revision);
+    }
+
+    private void writeManifest() throws IOException {
+        StringBuilder json = new StringBuilder("{\"revision\":").append(revision)
+                .append(",\"tileSize\":").append(TILE_SIZE)
+                .append(",\"tiles\":{");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : tileRevisions.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            json.append(quote(entry.getKey())).append(':').append(entry.getValue());
+            first = false;
+        }
+        json.append("}}");
+        writeAtomically(directory.toPath().resolve(MANIFEST), json.toString());
+    }
+
+    private void writeAtomically(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Map<String, String> properties(String layer, String id, String name, String colorHex) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("layer", layer);
+        properties.put("id", id);
+        properties.put("name", name);
+        if (colorHex != null) {
+            properties.put("color", colorHex);
+        }
+        return properties;
+    }
+
+    private static String feature(String geometry, Map<String, String> properties) {
+        StringBuilder json = new StringBuilder("{\"type\":\"Feature\",\"geometry\":").append(geometry)
+                .append(",\"properties\":{");
+        boolean first = true;
+        for (Map.Entry<String, String> entry : new TreeMap<>(properties).entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            json.append(quote(entry.getKey())).append(':').append(quote(entry.getValue()));
+            first = false;
+        }
+        return json.append("}}").toString();
+    }
+
+    private static void appendRing(StringBuilder json, MapPolygon ring) {
+        json.append('[');
+        for (int i = 0; i < ring.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('[').append(number(ring.x()[i])).append(',').append(number(ring.z()[i])).append(']');
+        }
+        json.append(']');
+    }
+
+    private static String number(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    private static String quote(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    private static int tile(double block) {
+        return (int) Math.floor(block / TILE_SIZE);
+    }
+
+    private static String tileKey(String world, int x, int z) {
+        return world + "/" + x + "_" + z;
+    }
+}
@@ -0,0 +1,27 @@
+package com.simpletown.map;
+
+/**
+ * Town colors as the {@code 0xRRGGBB} ints the map backends take.
+ */
+final class MapColors {
+    private static final String DEFAULT_HEX = "#FFD700";
+    private static final int DEFAULT_RGB = 0xFFD700;
+
+    private MapColors() {
+    }
+
+    /**
+     * Parses {@code #RRGGBB}, with or without the {@code #}; anything unreadable is gold.
+     */
+    static int parseColor(String hex) {
+        String normalized = hex == null ? DEFAULT_HEX : hex.trim();
+        if (!normalized.startsWith("#")) {
+            normalized = "#" + normalized;
+        }
+        try {
+            return Integer.parseInt(normalized.substring(1), 16);
+        } catch (Exception ex) {
+            return DEFAULT_RGB;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.simpletown.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * One closed outline in block coordinates, ready to hand to a map backend, with the closed
+ * outlines of the unclaimed holes inside it. The arrays are shared with the outline cache and must
+ * not be modified.
+ * <p>
+ * Equal like a record: same world, same array instances and equal holes. The bridged ring is
+ * built once per polygon and kept with it, so it travels with the outline cache.
+ */
+public final class MapPolygon {
+    private final String world;
+    private final double[] x;
+    private final double[] z;
+    private final List<MapPolygon> holes;
+    private volatile MapPolygon bridged;
+
+    public MapPolygon(String world, double[] x, double[] z, List<MapPolygon> holes) {
+        this.world = world;
+        this.x = x;
+        this.z = z;
+        this.holes = holes;
+    }
+
+    public MapPolygon(String world, double[] x, double[] z) {
+        this(world, x, z, List.of());
+    }
+
+    public String world() {
+        return world;
+    }
+
+    public double[] x() {
+        return x;
+    }
+
+    public double[] z() {
+        return z;
+    }
+
+    public List<MapPolygon> holes() {
+        return holes;
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    /**
+     * Vertex count including the holes.
+     */
+    public int vertexCount() {
+        int count = x.length;
+        for (MapPolygon hole : holes) {
+            count += hole.size();
+        }
+        return count;
+    }
+
+    /**
+     * Hash of the outline and its holes, for backends that skip unchanged markers.
+     */
+    public int geometryHash() {
+        int hash = 31 * Arrays.hashCode(x) + Arrays.hashCode(z);
+        for (MapPolygon hole : holes) {
+            hash = 31 * hash + hole.geometryHash();
+        }
+        return hash;
+    }
+
+    /**
+     * Single ring for backends without holes: every hole is spliced in through a zero-width cut
+     * and walked back out again. The cut runs both ways, so it adds nothing to the fill under
+     * either fill rule and only shows as a thin line in the border.
+     * <p>
+     * Holes are merged rightmost first, as in ear clipping, so a hole can always reach the outer
+     * outline or a hole merged before it. Each cut is the shortest vertex pair whose segment
+     * touches no edge of the ring built so far or of any hole; shorter pairs that would cross the
+     * border or another hole are skipped.
+     */
+    public MapPolygon bridged() {
+        if (holes.isEmpty()) {
+            return this;
+        }
+        MapPolygon ring = bridged;
+        if (ring == null) {
+            ring = bridge();
+            bridged = ring;
+        }
+        return ring;
+    }
+
+    private MapPolygon bridge() {
+        List<MapPolygon> pending = new ArrayList<>(holes);
+        pending.sort(Comparator.comparingDouble(MapPolygon::maxX).reversed());
+        boolean outerClockwise = signedArea(x, z) < 0;
+        int size = x.length - 1;
+        double[] rx = Arrays.copyOf(x, size);
+        double[] rz = Arrays.copyOf(z, size);
+        for (int h = 0; h < pending.size(); h++) {
+            MapPolygon hole = pending.get(h);
+            int holePoints = hole.size() - 1;
+            boolean reverse = (signedArea(hole.x, hole.z) < 0) == outerClockwise;
+            long bridge = findBridge(rx, rz, size, pending, h);
+            int ringIndex = (int) (bridge >>> 32);
+            int holeIndex = (int) bridge;
+            double[] nx = new double[size + holePoints + 2];
+            double[] nz = new double[nx.length];
+            System.arraycopy(rx, 0, nx, 0, ringIndex + 1);
+            System.arraycopy(rz, 0, nz, 0, ringIndex + 1);
+            int n = ringIndex + 1;
+            for (int k = 0; k <= holePoints; k++) {
+                int j = reverse ? (holeIndex - k + holePoints) % holePoints : (holeIndex + k) % holePoints;
+                nx[n] = hole.x[j];
+                nz[n++] = hole.z[j];
+            }
+            nx[n] = rx[ringIndex];
+            nz[n++] = rz[ringIndex];
+            System.arraycopy(rx, ringIndex + 1, nx, n, size - ringIndex - 1);
+            System.arraycopy(rz, ringIndex + 1, nz, n, size - ringIndex - 1);
+            rx = nx;
+            rz = nz;
+            size = nx.length;
+        }
+        double[] bx = Arrays.copyOf(rx, size + 1);
+        double[] bz = Arrays.copyOf(rz, size + 1);
+        bx[size] = rx[0];
+        bz[size] = rz[0];
+        return new MapPolygon(world, bx, bz);
+    }
+
+    /**
+     * Shortest clear cut from a ring vertex to a vertex of {@code pending.get(current)}, as
+     * {@code ringIndex << 32 | holeIndex}. Falls back to the shortest cut if none is clear, which
+     * only happens for outlines that overlap themselves.
+     */
+    private static long findBridge(double[] rx, double[] rz, int size, List<MapPolygon> pending, int current) {
+        MapPolygon hole = pending.get(current);
+        int holePoints = hole.size() - 1;
+        Set<Long> rejected = new HashSet<>();
+        long shortest = -1;
+        while (true) {
+            double best = Double.MAX_VALUE;
+            long candidate = -1;
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < holePoints; j++) {
+                    double dx = rx[i] - hole.x[j];
+                    double dz = rz[i] - hole.z[j];
+                    double distance = dx * dx + dz * dz;
+                    long pair = (long) i << 32 | j;
+                    if (distance < best && !rejected.contains(pair)) {
+                        best = distance;
+                        candidate = pair;
+                    }
+                }
+            }
+            if (candidate < 0) {
+                return shortest;
+            }
+            if (shortest < 0) {
+                shortest = candidate;
+            }
+            int i = (int) (candidate >>> 32);
+            int j = (int) candidate;
+            if (isClear(rx[i], rz[i], hole.x[j], hole.z[j], rx, rz, size, pending, current)) {
+                return candidate;
+            }
+            rejected.add(candidate);
+        }
+    }
+
+    private static boolean isClear(double ax, double az, double bx, double bz, double[] rx, double[] rz, int size,
+                                   List<MapPolygon> pending, int current) {
+        for (int i = 0; i < size; i++) {
+            int next = i + 1 == size ? 0 : i + 1;
+            if (touches(ax, az, bx, bz, rx[i], rz[i], rx[next], rz[next])) {
+                return false;
+            }
+        }
+        for (int h = current; h < pending.size(); h++) {
+            MapPolygon hole = pending.get(h);
+            for (int j = 0; j < hole.size() - 1; j++) {
+                if (touches(ax, az, bx, bz, hole.x[j], hole.z[j], hole.x[j + 1], hole.z[j + 1])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the open segment a-b shares a point with the closed segment c-d.
+     */
+    private static boolean touches(double ax, double az, double bx, double bz, double cx, double cz, double dx, double dz) {
+        if (ax == bx && az == bz) {
+            return false;
+        }
+        double o1 = cross(ax, az, bx, bz, cx, cz);
+        double o2 = cross(ax, az, bx, bz, dx, dz);
+        double o3 = cross(cx, cz, dx, dz, ax, az);
+        double o4 = cross(cx, cz, dx, dz, bx, bz);
+        if (o1 == 0 && o2 == 0) {
+            boolean alongX = Math.abs(bx - ax) >= Math.abs(bz - az);
+            double a = alongX ? ax : az;
+            double b = alongX ? bx : bz;
+            double c = alongX ? cx : cz;
+            double d = alongX ? dx : dz;
+            return Math.min(c, d) < Math.max(a, b) && Math.max(c, d) > Math.min(a, b);
+        }
+        if (o1 == 0 && strictlyBetween(ax, az, bx, bz, cx, cz)) {
+            return true;
+        }
+        if (o2 == 0 && strictlyBetween(ax, az, bx, bz, dx, dz)) {
+            return true;
+        }
+        return Math.signum(o1) * Math.signum(o2) < 0 && Math.signum(o3) * Math.signum(o4) < 0;
+    }
+
+    private static boolean strictlyBetween(double ax, double az, double bx, double bz, double px, double pz) {
+        double dot = (px - ax) * (bx - ax) + (pz - az) * (bz - az);
+        double length = (bx - ax) * (bx - ax) + (bz - az) * (bz - az);
+        return dot > 0 && dot < length;
+    }
+
+    private static double cross(double ax, double az, double bx, double bz, double px, double pz) {
+        return (bx - ax) * (pz - az) - (bz - az) * (px - ax);
+    }
+
+    private static double signedArea(double[] xs, double[] zs) {
+        double area = 0;
+        for (int i = 0; i < xs.length - 1; i++) {
+            area += xs[i] * zs[i + 1] - xs[i + 1] * zs[i];
+        }
+        return area / 2;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof MapPolygon polygon && world.equals(polygon.world) && x == polygon.x && z == polygon.z
+                && holes.equals(polygon.holes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(world, System.identityHashCode(x), System.identityHashCode(z), holes);
+    }
+
+    private double maxX() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : x) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+}
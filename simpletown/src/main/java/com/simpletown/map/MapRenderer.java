@@ -2,17 +2,14 @@ package com.simpletown.map;
 
 import com.simpletown.data.ChunkPosition;
 
-import java.util.Map;
-import java.util.Set;
+import java.util.List;
 
 public interface MapRenderer {
-    void upsertCity(String cityId, String name, String description, Map<String, Set<ChunkPosition>> worldChunks, String colorHex, ChunkPosition capitalChunk);
+    void upsertCity(String cityId, String name, String description, List<MapPolygon> polygons, String colorHex, ChunkPosition capitalChunk);
 
     void removeCity(String cityId);
 
-    void upsertCityChunks(String cityId, String name, Map<String, Set<ChunkPosition>> worldChunks, String colorHex);
-
-    void upsertOccupiedChunks(String controllerId, String controllerName, Map<String, Set<ChunkPosition>> worldChunks, String colorHex);
+    void upsertOccupied(String controllerId, String controllerName, List<MapPolygon> polygons, String colorHex);
 
     void removeOccupied(String controllerId);
 
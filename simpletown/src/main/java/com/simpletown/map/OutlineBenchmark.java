@@ -0,0 +1,192 @@
+package com.simpletown.map;
+
+import com.simpletown.data.ChunkPosition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares a full {@link ChunkOutlineBuilder#buildOutlines(Set)} rebuild with {@link ChunkOutline}
+ * on a generated town. The town grows as a random blob from one chunk, then every step claims a
+ * free neighbour or unclaims a border chunk and both variants bring their outlines up to date.
+ * Vertex counts compare the builder's step-by-step loops with the simplified polygons and their
+ * holes. After every step both results are reduced to their chunk-sized border edges and compared,
+ * so a wrong incremental outline shows up as a mismatch instead of a fast timing. Steps that had
+ * nothing to do are not timed. Pure computation, so it can run off the main thread.
+ */
+public final class OutlineBenchmark {
+    public record Result(int chunks, int toggles, int loops, int rawVertices, int vertices, int mismatches,
+                         long initialRebuildMicros, long initialIncrementalMicros,
+                         long rebuildP50, long rebuildP99, long incrementalP50, long incrementalP99) {
+    }
+
+    private record Edge(long x, long z, boolean alongX) {
+    }
+
+    private static final String WORLD = "benchmark";
+    private static final int WARMUP_ROUNDS = 3;
+    private static final double CHUNK_SIZE = 16.0;
+
+    private OutlineBenchmark() {
+    }
+
+    public static Result run(int chunks, int toggles, long seed) {
+        Random random = new Random(seed);
+        List<ChunkPosition> claimed = grow(chunks, random);
+        Set<ChunkPosition> town = new HashSet<>(claimed);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            ChunkOutlineBuilder.buildOutlines(town);
+            ChunkOutline warm = new ChunkOutline(WORLD);
+            warm.sync(town);
+            warm.getPolygons();
+        }
+
+        long started = System.nanoTime();
+        List<List<ChunkOutlineBuilder.Point>> loops = ChunkOutlineBuilder.buildOutlines(town);
+        long initialRebuild = (System.nanoTime() - started) / 1000L;
+
+        ChunkOutline outline = new ChunkOutline(WORLD);
+        started = System.nanoTime();
+        outline.sync(town);
+        List<MapPolygon> polygons = outline.getPolygons();
+        long initialIncremental = (System.nanoTime() - started) / 1000L;
+        int mismatches = matches(loops, polygons) ? 0 : 1;
+
+        long[] rebuild = new long[toggles];
+        long[] incremental = new long[toggles];
+        int measured = 0;
+        for (int i = 0; i < toggles; i++) {
+            ChunkPosition chunk = claimed.get(random.nextInt(claimed.size()));
+            ChunkPosition neighbour = neighbour(chunk, random);
+            boolean claim = !town.contains(neighbour);
+            ChunkPosition target = claim ? neighbour : chunk;
+            if (!claim && town.size() <= 1) {
+                continue;
+            }
+            if (claim) {
+                town.add(target);
+                claimed.add(target);
+            } else {
+                town.remove(target);
+                claimed.remove(target);
+            }
+
+            started = System.nanoTime();
+            loops = ChunkOutlineBuilder.buildOutlines(town);
+            rebuild[measured] = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            if (claim) {
+                outline.add(target.getX(), target.getZ());
+            } else {
+                outline.remove(target.getX(), target.getZ());
+            }
+            polygons = outline.getPolygons();
+            incremental[measured] = System.nanoTime() - started;
+            measured++;
+
+            if (!matches(loops, polygons)) {
+                mismatches++;
+            }
+        }
+        rebuild = Arrays.copyOf(rebuild, measured);
+        incremental = Arrays.copyOf(incremental, measured);
+
+        int rawVertices = 0;
+        for (List<ChunkOutlineBuilder.Point> loop : loops) {
+            rawVertices += loop.size();
+        }
+        int vertices = 0;
+        for (MapPolygon polygon : polygons) {
+            vertices += polygon.vertexCount();
+        }
+        return new Result(town.size(), measured, polygons.size(), rawVertices, vertices, mismatches, initialRebuild, initialIncremental,
+                percentileMicros(rebuild, 0.5), percentileMicros(rebuild, 0.99),
+                percentileMicros(incremental, 0.5), percentileMicros(incremental, 0.99));
+    }
+
+    /**
+     * Whether the builder's loops and the incremental polygons, holes included, run along exactly
+     * the same chunk edges. The builder steps one chunk at a time while the polygons skip straight
+     * runs, so both are cut into chunk-sized edges first.
+     */
+    private static boolean matches(List<List<ChunkOutlineBuilder.Point>> loops, List<MapPolygon> polygons) {
+        Set<Edge> expected = new HashSet<>();
+        for (List<ChunkOutlineBuilder.Point> loop : loops) {
+            for (int i = 0; i < loop.size(); i++) {
+                ChunkOutlineBuilder.Point from = loop.get(i);
+                ChunkOutlineBuilder.Point to = loop.get((i + 1) % loop.size());
+                addEdges(expected, from.x(), from.z(), to.x(), to.z());
+            }
+        }
+        Set<Edge> actual = new HashSet<>();
+        for (MapPolygon polygon : polygons) {
+            addEdges(actual, polygon);
+            for (MapPolygon hole : polygon.holes()) {
+                addEdges(actual, hole);
+            }
+        }
+        return expected.equals(actual);
+    }
+
+    private static void addEdges(Set<Edge> edges, MapPolygon ring) {
+        double[] xs = ring.x();
+        double[] zs = ring.z();
+        for (int i = 0; i < xs.length; i++) {
+            int next = (i + 1) % xs.length;
+            addEdges(edges, xs[i], zs[i], xs[next], zs[next]);
+        }
+    }
+
+    private static void addEdges(Set<Edge> edges, double ax, double az, double bx, double bz) {
+        long x0 = Math.round(Math.min(ax, bx) / CHUNK_SIZE);
+        long x1 = Math.round(Math.max(ax, bx) / CHUNK_SIZE);
+        long z0 = Math.round(Math.min(az, bz) / CHUNK_SIZE);
+        long z1 = Math.round(Math.max(az, bz) / CHUNK_SIZE);
+        for (long x = x0; x < x1; x++) {
+            edges.add(new Edge(x, z0, true));
+        }
+        for (long z = z0; z < z1; z++) {
+            edges.add(new Edge(x0, z, false));
+        }
+    }
+
+    private static List<ChunkPosition> grow(int chunks, Random random) {
+        List<ChunkPosition> claimed = new ArrayList<>(chunks);
+        Set<ChunkPosition> seen = new HashSet<>();
+        ChunkPosition origin = new ChunkPosition(WORLD, 0, 0);
+        claimed.add(origin);
+        seen.add(origin);
+        while (claimed.size() < chunks) {
+            ChunkPosition next = neighbour(claimed.get(random.nextInt(claimed.size())), random);
+            if (seen.add(next)) {
+                claimed.add(next);
+            }
+        }
+        return claimed;
+    }
+
+    private static ChunkPosition neighbour(ChunkPosition chunk, Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> new ChunkPosition(WORLD, chunk.getX() + 1, chunk.getZ());
+            case 1 -> new ChunkPosition(WORLD, chunk.getX() - 1, chunk.getZ());
+            case 2 -> new ChunkPosition(WORLD, chunk.getX(), chunk.getZ() + 1);
+            default -> new ChunkPosition(WORLD, chunk.getX(), chunk.getZ() - 1);
+        };
+    }
+
+    private static long percentileMicros(long[] nanos, double percentile) {
+        if (nanos.length == 0) {
+            return 0;
+        }
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.min(sorted.length - 1, Math.round(percentile * (sorted.length - 1)));
+        return sorted[index] / 1000L;
+    }
+}
@@ -0,0 +1,38 @@
+package com.simpletown.map;
+
+import com.simpletown.data.ChunkPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incremental outlines per map layer id and world. Safe to use from worker threads as long as a
+ * single id is never updated by two threads at once, which {@code MapService} guarantees by
+ * keeping at most one computation per id in flight.
+ */
+public class OutlineCache {
+    private final Map<String, Map<String, ChunkOutline>> outlines = new ConcurrentHashMap<>();
+
+    public List<MapPolygon> update(String id, Map<String, Set<ChunkPosition>> worldChunks) {
+        Map<String, ChunkOutline> byWorld = outlines.computeIfAbsent(id, key -> new ConcurrentHashMap<>());
+        byWorld.keySet().retainAll(worldChunks.keySet());
+        List<MapPolygon> polygons = new ArrayList<>();
+        for (Map.Entry<String, Set<ChunkPosition>> entry : worldChunks.entrySet()) {
+            ChunkOutline outline = byWorld.computeIfAbsent(entry.getKey(), ChunkOutline::new);
+            outline.sync(entry.getValue());
+            polygons.addAll(outline.getPolygons());
+        }
+        return polygons;
+    }
+
+    public void remove(String id) {
+        outlines.remove(id);
+    }
+
+    public void clear() {
+        outlines.clear();
+    }
+}
@@ -1,16 +1,13 @@
 package com.simpletown.map;
 
 import com.simpletown.data.AgeTier;
-import com.simpletown.data.Town;
-import com.simpletown.war.WarConflict;
-import com.simpletown.war.WarManager;
 import com.simpletown.war.WarStatus;
 
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Locale;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 public final class TownPopupFormatter {
@@ -21,13 +18,16 @@ public final class TownPopupFormatter {
     private TownPopupFormatter() {
     }
 
-    public static String buildDescription(Town town, WarManager warManager) {
+    /**
+     * Works only on the snapshot, so it is safe to call from a worker thread.
+     */
+    public static String buildDescription(TownSnapshot town) {
         if (town == null) {
             return "";
         }
         StringBuilder sb = new StringBuilder();
         sb.append("<div style=\"font-size:2em;font-weight:bold;\">")
-                .append(escape(town.getName()))
+                .append(escape(town.name()))
                 .append("</div>");
         sb.append("<div style=\"font-size:2em;\">")
                 .append("(")
@@ -36,7 +36,7 @@ public final class TownPopupFormatter {
         sb.append("<hr/>");
 
         sb.append("<div><b>Мэр:</b> ")
-                .append(valueOrMissing(town.getMayor()))
+                .append(valueOrMissing(town.mayor()))
                 .append(" &nbsp; <b>Создан:</b> ")
                 .append(createdDate(town))
                 .append("</div>");
@@ -47,21 +47,21 @@ public final class TownPopupFormatter {
         sb.append("<div><b>Век:</b> ").append(ageName(town)).append("</div>");
         sb.append("<hr/>");
 
-        sb.append("<div><b>Войны:</b> ").append(warStatus(town, warManager)).append("</div>");
+        sb.append("<div><b>Войны:</b> ").append(warStatus(town)).append("</div>");
         sb.append("<hr/>");
 
-        sb.append("<div><b>Казна:</b> ").append(formatBank(town.getBank())).append("</div>");
+        sb.append("<div><b>Казна:</b> ").append(formatBank(town.bank())).append("</div>");
         sb.append("<hr/>");
 
         sb.append("<div><b>Граждане (")
-                .append(town.getCitizens().size())
+                .append(town.citizens().size())
                 .append("):</b> ")
-                .append(citizens(town.getCitizens()))
+                .append(citizens(town.citizens()))
                 .append("</div>");
         sb.append("<hr/>");
 
         sb.append("<div><b>Объявление:</b> ")
-                .append(valueOrMissing(town.getBoardMessage()))
+                .append(valueOrMissing(town.boardMessage()))
                 .append("</div>");
         sb.append("<hr/>");
 
@@ -76,7 +76,7 @@ public final class TownPopupFormatter {
         return escape(input);
     }
 
-    private static String citizens(Set<String> citizens) {
+    private static String citizens(List<String> citizens) {
         if (citizens == null || citizens.isEmpty()) {
             return MISSING;
         }
@@ -86,21 +86,15 @@ public final class TownPopupFormatter {
                 .collect(Collectors.joining(", "));
     }
 
-    private static String warStatus(Town town, WarManager warManager) {
-        if (town == null || warManager == null) {
+    private static String warStatus(TownSnapshot town) {
+        if (town.warStatus() == null) {
             return "мирно";
         }
-        return warManager.getConflictForTown(town.getName())
-                .map(conflict -> describeConflict(town.getName(), conflict))
-                .orElse("мирно");
+        return describeConflict(town.opponent(), town.warStatus());
     }
 
-    private static String describeConflict(String townName, WarConflict conflict) {
-        String opponent = townName.equalsIgnoreCase(conflict.getAttacker())
-                ? conflict.getDefender()
-                : conflict.getAttacker();
+    private static String describeConflict(String opponent, WarStatus status) {
         String statusText;
-        WarStatus status = conflict.getStatus();
         if (status == WarStatus.PREPARATION) {
             statusText = "подготовка к войне";
         } else if (status == WarStatus.ACTIVE) {
@@ -113,19 +107,16 @@ public final class TownPopupFormatter {
         return escape(statusText + " с " + opponent);
     }
 
-    private static String ageName(Town town) {
-        if (town == null) {
-            return MISSING;
-        }
-        AgeTier tier = AgeTier.byLevel(town.getAgeLevel());
+    private static String ageName(TownSnapshot town) {
+        AgeTier tier = AgeTier.byLevel(town.ageLevel());
         return escape(tier.getDisplayName());
     }
 
-    private static String createdDate(Town town) {
-        if (town == null || town.getCreatedAt() <= 0) {
+    private static String createdDate(TownSnapshot town) {
+        if (town.createdAt() <= 0) {
             return MISSING;
         }
-        return escape(CREATED_FORMAT.format(Instant.ofEpochMilli(town.getCreatedAt())));
+        return escape(CREATED_FORMAT.format(Instant.ofEpochMilli(town.createdAt())));
     }
 
     private static String formatBank(double bank) {
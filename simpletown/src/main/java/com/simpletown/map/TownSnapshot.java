@@ -0,0 +1,43 @@
+package com.simpletown.map;
+
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.data.Town;
+import com.simpletown.war.WarConflict;
+import com.simpletown.war.WarManager;
+import com.simpletown.war.WarStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Copy of everything the map needs from a town, taken on the main thread so outlines and the
+ * popup can be built on a worker without touching live data. The revisions it was taken at key the
+ * cached popup.
+ */
+public record TownSnapshot(String cityId, String name, String mayor, long createdAt, int ageLevel, double bank,
+                           List<String> citizens, String boardMessage, String opponent, WarStatus warStatus,
+                           String colorHex, ChunkPosition capital, List<ChunkPosition> chunks,
+                           long revision, long warRevision) {
+
+    public static TownSnapshot of(String cityId, Town town, WarManager warManager, List<ChunkPosition> chunks) {
+        WarConflict conflict = warManager == null ? null : warManager.getConflictForTown(town.getName()).orElse(null);
+        String opponent = null;
+        WarStatus status = null;
+        if (conflict != null) {
+            opponent = town.getName().equalsIgnoreCase(conflict.getAttacker()) ? conflict.getDefender() : conflict.getAttacker();
+            status = conflict.getStatus();
+        }
+        return new TownSnapshot(cityId, town.getName(), town.getMayor(), town.getCreatedAt(), town.getAgeLevel(),
+                town.getBank(), citizens(town), town.getBoardMessage(), opponent, status,
+                town.getMapColor(), town.getCapital(), chunks,
+                town.getRevision(), warManager == null ? 0L : warManager.getRevision());
+    }
+
+    private static List<String> citizens(Town town) {
+        if (town.getCitizens() == null) {
+            return List.of();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(town.getCitizens()));
+    }
+}
@@ -0,0 +1,129 @@
+package com.simpletown.movement;
+
+import com.simpletown.api.event.TerritoryChangeCause;
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.data.Town;
+import com.simpletown.data.TownManager;
+import com.simpletown.data.TownMembershipListener;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Number of online town members per chunk and per town, kept current from territory transitions
+ * and membership changes. A dead player keeps counting in the chunk they died in until they
+ * respawn or quit, because the tracker only moves them on respawn.
+ */
+public class ChunkOccupancyIndex implements TerritoryTransitionListener, TownMembershipListener {
+    private static final class Presence {
+        private ChunkPosition chunk;
+        private Town town;
+    }
+
+    private final TownManager townManager;
+    private final Map<UUID, Presence> presences = new HashMap<>();
+    private final Map<String, UUID> playersByName = new HashMap<>();
+    private final Map<ChunkPosition, Map<Town, Integer>> chunkCounts = new HashMap<>();
+    private final Map<Town, Integer> onlineMembers = new HashMap<>();
+
+    public ChunkOccupancyIndex(TownManager townManager) {
+        this.townManager = townManager;
+    }
+
+    public int count(ChunkPosition chunk, Town town) {
+        Map<Town, Integer> counts = chunkCounts.get(chunk);
+        return counts == null ? 0 : counts.getOrDefault(town, 0);
+    }
+
+    public int getOnlineMembers(Town town) {
+        return onlineMembers.getOrDefault(town, 0);
+    }
+
+    @Override
+    public void onTransition(Player player, Territory from, Territory to, TerritoryChangeCause cause) {
+        UUID playerId = player.getUniqueId();
+        if (to == null) {
+            Presence presence = presences.remove(playerId);
+            playersByName.remove(player.getName().toLowerCase(Locale.ROOT));
+            if (presence != null) {
+                leave(presence);
+            }
+            return;
+        }
+        Presence presence = presences.get(playerId);
+        if (presence == null) {
+            presence = new Presence();
+            presence.town = townManager.getTownByMember(player.getName());
+            presences.put(playerId, presence);
+            playersByName.put(player.getName().toLowerCase(Locale.ROOT), playerId);
+            presence.chunk = to.getPosition();
+            enter(presence);
+            return;
+        }
+        adjustChunk(presence.chunk, presence.town, -1);
+        presence.chunk = to.getPosition();
+        adjustChunk(presence.chunk, presence.town, 1);
+    }
+
+    @Override
+    public void onMembershipChanged(String playerName) {
+        UUID playerId = playersByName.get(playerName.toLowerCase(Locale.ROOT));
+        Presence presence = playerId == null ? null : presences.get(playerId);
+        if (presence == null) {
+            return;
+        }
+        leave(presence);
+        presence.town = townManager.getTownByMember(playerName);
+        enter(presence);
+    }
+
+    @Override
+    public void onTownsReloaded() {
+        chunkCounts.clear();
+        onlineMembers.clear();
+        for (Map.Entry<String, UUID> entry : playersByName.entrySet()) {
+            Presence presence = presences.get(entry.getValue());
+            if (presence != null) {
+                presence.town = townManager.getTownByMember(entry.getKey());
+                enter(presence);
+            }
+        }
+    }
+
+    private void enter(Presence presence) {
+        if (presence.town == null) {
+            return;
+        }
+        onlineMembers.merge(presence.town, 1, Integer::sum);
+        adjustChunk(presence.chunk, presence.town, 1);
+    }
+
+    private void leave(Presence presence) {
+        if (presence.town == null) {
+            return;
+        }
+        onlineMembers.computeIfPresent(presence.town, (town, count) -> count > 1 ? count - 1 : null);
+        adjustChunk(presence.chunk, presence.town, -1);
+    }
+
+    private void adjustChunk(ChunkPosition chunk, Town town, int delta) {
+        if (town == null || chunk == null) {
+            return;
+        }
+        if (delta > 0) {
+            chunkCounts.computeIfAbsent(chunk, key -> new HashMap<>(4)).merge(town, delta, Integer::sum);
+            return;
+        }
+        Map<Town, Integer> counts = chunkCounts.get(chunk);
+        if (counts == null) {
+            return;
+        }
+        counts.computeIfPresent(town, (key, count) -> count + delta > 0 ? count + delta : null);
+        if (counts.isEmpty()) {
+            chunkCounts.remove(chunk);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.simpletown.movement;
+
+/**
+ * Cost of the territory tracker in the current mode: how often it ran, how many of those runs
+ * were real chunk crossings and how much main-thread time it took.
+ */
+public class MovementMetrics {
+    private long checks;
+    private long crossings;
+    private long nanos;
+    private long startedAt;
+
+    public MovementMetrics() {
+        reset();
+    }
+
+    public void record(boolean crossed, long elapsedNanos) {
+        checks++;
+        if (crossed) {
+            crossings++;
+        }
+        nanos += elapsedNanos;
+    }
+
+    public void reset() {
+        checks = 0;
+        crossings = 0;
+        nanos = 0;
+        startedAt = System.currentTimeMillis();
+    }
+
+    public long getChecks() {
+        return checks;
+    }
+
+    public long getCrossings() {
+        return crossings;
+    }
+
+    public long getTotalMicros() {
+        return nanos / 1000L;
+    }
+
+    public double getMicrosPerCheck() {
+        return checks == 0 ? 0.0 : nanos / 1000.0 / checks;
+    }
+
+    /**
+     * Main-thread time spent per second of wall clock, the number to compare between modes.
+     */
+    public double getMicrosPerSecond() {
+        long elapsedMs = Math.max(1L, System.currentTimeMillis() - startedAt);
+        return nanos / 1000.0 / (elapsedMs / 1000.0);
+    }
+
+    public long getElapsedSeconds() {
+        return (System.currentTimeMillis() - startedAt) / 1000L;
+    }
+}
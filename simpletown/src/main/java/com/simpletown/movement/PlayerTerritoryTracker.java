@@ -0,0 +1,252 @@
+package com.simpletown.movement;
+
+import com.simpletown.api.event.OccupiedZoneEnterEvent;
+import com.simpletown.api.event.PlotEnterEvent;
+import com.simpletown.api.event.TerritoryChangeCause;
+import com.simpletown.api.event.TownEnterEvent;
+import com.simpletown.api.event.TownLeaveEvent;
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.data.PlotData;
+import com.simpletown.data.Town;
+import com.simpletown.data.TownManager;
+import com.simpletown.war.WarManager;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Single owner of "which chunk is this player in". Every crossing is resolved once here and
+ * handed to internal listeners and to other plugins through the territory events.
+ * <p>
+ * Walking and riding are picked up either from move events or, in {@link TrackingMode#SAMPLED}
+ * mode, by sampling a round-robin slice of online players every tick so that each player is
+ * checked once per interval. Teleports, respawns, joins and quits are always event driven.
+ */
+public class PlayerTerritoryTracker implements Listener {
+    private final Plugin plugin;
+    private final TownManager townManager;
+    private final WarManager warManager;
+    private final Map<UUID, Territory> territories = new HashMap<>();
+    private final List<TerritoryTransitionListener> listeners = new ArrayList<>();
+    private final MovementMetrics metrics = new MovementMetrics();
+    private final Listener moveListener = new MoveListener();
+    private final List<Player> sampleRoster = new ArrayList<>();
+    private final Location sampleLocation = new Location(null, 0, 0, 0);
+    private TrackingMode mode = TrackingMode.EVENT;
+    private int sampleInterval;
+    private int sampleCursor;
+    private BukkitTask samplerTask;
+
+    public PlayerTerritoryTracker(Plugin plugin, TownManager townManager, WarManager warManager) {
+        this.plugin = plugin;
+        this.townManager = townManager;
+        this.warManager = warManager;
+    }
+
+    public void start() {
+        mode = TrackingMode.fromConfig(plugin.getConfig().getString("movement.tracking-mode", "event"));
+        sampleInterval = Math.max(1, plugin.getConfig().getInt("movement.sample-interval-ticks", 10));
+        metrics.reset();
+        if (mode == TrackingMode.SAMPLED) {
+            sampleRoster.clear();
+            sampleCursor = 0;
+            samplerTask = Bukkit.getScheduler().runTaskTimer(plugin, this::sampleSlice, 1L, 1L);
+        } else {
+            Bukkit.getPluginManager().registerEvents(moveListener, plugin);
+        }
+    }
+
+    public void stop() {
+        HandlerList.unregisterAll(moveListener);
+        if (samplerTask != null) {
+            samplerTask.cancel();
+            samplerTask = null;
+        }
+        sampleRoster.clear();
+    }
+
+    public void reload() {
+        stop();
+        start();
+    }
+
+    public TrackingMode getMode() {
+        return mode;
+    }
+
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public MovementMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void addListener(TerritoryTransitionListener listener) {
+        listeners.add(listener);
+    }
+
+    public Territory getTerritory(Player player) {
+        return territories.get(player.getUniqueId());
+    }
+
+    public void trackOnlinePlayers() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            update(player, player.getLocation(), TerritoryChangeCause.JOIN);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onTeleport(PlayerTeleportEvent event) {
+        update(event.getPlayer(), event.getTo(), TerritoryChangeCause.TELEPORT);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        update(event.getPlayer(), event.getPlayer().getLocation(), TerritoryChangeCause.TELEPORT);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        update(event.getPlayer(), event.getRespawnLocation(), TerritoryChangeCause.RESPAWN);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        update(event.getPlayer(), event.getPlayer().getLocation(), TerritoryChangeCause.JOIN);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        Territory from = territories.remove(event.getPlayer().getUniqueId());
+        if (from != null) {
+            dispatch(event.getPlayer(), from, null, TerritoryChangeCause.QUIT);
+        }
+    }
+
+    private void sampleSlice() {
+        if (sampleCursor >= sampleRoster.size()) {
+            sampleRoster.clear();
+            sampleRoster.addAll(Bukkit.getOnlinePlayers());
+            sampleCursor = 0;
+        }
+        int perTick = (sampleRoster.size() + sampleInterval - 1) / sampleInterval;
+        int end = Math.min(sampleRoster.size(), sampleCursor + perTick);
+        for (; sampleCursor < end; sampleCursor++) {
+            Player player = sampleRoster.get(sampleCursor);
+            if (!player.isOnline()) {
+                continue;
+            }
+            TerritoryChangeCause cause = player.isInsideVehicle() ? TerritoryChangeCause.VEHICLE : TerritoryChangeCause.MOVE;
+            long start = System.nanoTime();
+            boolean crossed = update(player, player.getLocation(sampleLocation), cause);
+            metrics.record(crossed, System.nanoTime() - start);
+        }
+    }
+
+    private boolean update(Player player, Location to, TerritoryChangeCause cause) {
+        if (to == null || to.getWorld() == null) {
+            return false;
+        }
+        World world = to.getWorld();
+        int chunkX = to.getBlockX() >> 4;
+        int chunkZ = to.getBlockZ() >> 4;
+        Territory current = territories.get(player.getUniqueId());
+        if (current != null && current.isAt(world.getUID(), chunkX, chunkZ)) {
+            return false;
+        }
+
+        long townRevision = townManager.getRevision();
+        long warRevision = warManager.getRevision();
+        if (current != null && !current.isCurrent(townRevision, warRevision)) {
+            ChunkPosition previous = current.getPosition();
+            current = resolve(previous.getWorld(), current.getWorldId(), previous.getX(), previous.getZ(), townRevision, warRevision);
+        }
+        Territory next = resolve(world.getName(), world.getUID(), chunkX, chunkZ, townRevision, warRevision);
+        territories.put(player.getUniqueId(), next);
+        dispatch(player, current, next, current == null ? TerritoryChangeCause.JOIN : cause);
+        return true;
+    }
+
+    private Territory resolve(String worldName, UUID worldId, int chunkX, int chunkZ, long townRevision, long warRevision) {
+        ChunkPosition position = new ChunkPosition(worldName, chunkX, chunkZ);
+        Town town = townManager.getTownAtPosition(position);
+        if (town == null) {
+            return new Territory(position, worldId, null, null, false, null, townRevision, warRevision);
+        }
+        PlotData plot = town.getPlot(position);
+        String controller = warManager.isChunkOccupied(position) ? warManager.getChunkController(position) : null;
+        return new Territory(position, worldId, town, plot, town.isCapitalChunk(worldName, chunkX, chunkZ), controller,
+                townRevision, warRevision);
+    }
+
+    private void dispatch(Player player, Territory from, Territory to, TerritoryChangeCause cause) {
+        for (TerritoryTransitionListener listener : listeners) {
+            listener.onTransition(player, from, to, cause);
+        }
+        if (from == null || to == null) {
+            return;
+        }
+        ChunkPosition fromPos = from.getPosition();
+        ChunkPosition toPos = to.getPosition();
+        boolean sameTown = from.isSameTown(to);
+        if (from.getTown() != null && !sameTown) {
+            Bukkit.getPluginManager().callEvent(new TownLeaveEvent(player, from.getTown(), fromPos, toPos, cause));
+        }
+        if (to.getTown() != null && !sameTown) {
+            Bukkit.getPluginManager().callEvent(new TownEnterEvent(player, to.getTown(), fromPos, toPos, cause));
+        }
+        if (to.getPlot() != null && to.getPlot() != from.getPlot()) {
+            Bukkit.getPluginManager().callEvent(new PlotEnterEvent(player, to.getTown(), to.getPlot(), fromPos, toPos, cause));
+        }
+        if (to.isOccupied() && (!from.isOccupied() || !to.getController().equalsIgnoreCase(from.getController()))) {
+            Bukkit.getPluginManager().callEvent(new OccupiedZoneEnterEvent(player, to.getTown(), to.getController(), fromPos, toPos, cause));
+        }
+    }
+
+    public class MoveListener implements Listener {
+        @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+        public void onMove(PlayerMoveEvent event) {
+            long start = System.nanoTime();
+            boolean crossed = update(event.getPlayer(), event.getTo(), TerritoryChangeCause.MOVE);
+            metrics.record(crossed, System.nanoTime() - start);
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onVehicleMove(VehicleMoveEvent event) {
+            Location from = event.getFrom();
+            Location to = event.getTo();
+            if (from.getBlockX() >> 4 == to.getBlockX() >> 4 && from.getBlockZ() >> 4 == to.getBlockZ() >> 4) {
+                return;
+            }
+            for (Entity passenger : event.getVehicle().getPassengers()) {
+                if (passenger instanceof Player player) {
+                    long start = System.nanoTime();
+                    boolean crossed = update(player, to, TerritoryChangeCause.VEHICLE);
+                    metrics.record(crossed, System.nanoTime() - start);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.simpletown.movement;
+
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.data.PlotData;
+import com.simpletown.data.Town;
+
+import java.util.UUID;
+
+/**
+ * Snapshot of what a player stands on: the chunk and everything resolved for it at the given
+ * town and war data revisions.
+ */
+public class Territory {
+    private final ChunkPosition position;
+    private final UUID worldId;
+    private final Town town;
+    private final PlotData plot;
+    private final boolean capital;
+    private final String controller;
+    private final long townRevision;
+    private final long warRevision;
+
+    public Territory(ChunkPosition position, UUID worldId, Town town, PlotData plot, boolean capital, String controller,
+                     long townRevision, long warRevision) {
+        this.position = position;
+        this.worldId = worldId;
+        this.town = town;
+        this.plot = plot;
+        this.capital = capital;
+        this.controller = controller;
+        this.townRevision = townRevision;
+        this.warRevision = warRevision;
+    }
+
+    public boolean isAt(UUID worldId, int chunkX, int chunkZ) {
+        return position.getX() == chunkX && position.getZ() == chunkZ && this.worldId.equals(worldId);
+    }
+
+    public boolean isCurrent(long townRevision, long warRevision) {
+        return this.townRevision == townRevision && this.warRevision == warRevision;
+    }
+
+    public ChunkPosition getPosition() {
+        return position;
+    }
+
+    public UUID getWorldId() {
+        return worldId;
+    }
+
+    public Town getTown() {
+        return town;
+    }
+
+    public PlotData getPlot() {
+        return plot;
+    }
+
+    public boolean isCapital() {
+        return capital;
+    }
+
+    /**
+     * Name of the town holding this chunk in an active war, or {@code null} if it is not occupied.
+     */
+    public String getController() {
+        return controller;
+    }
+
+    public boolean isOccupied() {
+        return controller != null;
+    }
+
+    public boolean isSameTown(Territory other) {
+        if (town == null || other == null || other.town == null) {
+            return false;
+        }
+        return town.getName().equalsIgnoreCase(other.town.getName());
+    }
+}
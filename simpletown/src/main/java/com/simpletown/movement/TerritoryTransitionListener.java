@@ -0,0 +1,12 @@
+package com.simpletown.movement;
+
+import com.simpletown.api.event.TerritoryChangeCause;
+import org.bukkit.entity.Player;
+
+public interface TerritoryTransitionListener {
+    /**
+     * Called once per chunk crossing. {@code from} is {@code null} on join, {@code to} is
+     * {@code null} on quit.
+     */
+    void onTransition(Player player, Territory from, Territory to, TerritoryChangeCause cause);
+}
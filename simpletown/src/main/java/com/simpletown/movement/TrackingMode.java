@@ -0,0 +1,26 @@
+package com.simpletown.movement;
+
+import java.util.Locale;
+
+public enum TrackingMode {
+    /**
+     * Every PlayerMoveEvent and VehicleMoveEvent is checked for a chunk crossing.
+     */
+    EVENT,
+    /**
+     * A repeating task samples player positions once per interval, spread across ticks. Crossings are
+     * seen up to one interval late, and a chunk left and re-entered between two samples is missed.
+     */
+    SAMPLED;
+
+    public static TrackingMode fromConfig(String raw) {
+        if (raw == null) {
+            return EVENT;
+        }
+        try {
+            return valueOf(raw.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return EVENT;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.simpletown.protection;
+
+import com.simpletown.data.PlotData;
+
+public class PlotProtectionRule implements ProtectionRule {
+    @Override
+    public String getName() {
+        return "plot";
+    }
+
+    @Override
+    public ProtectionDecision evaluate(ProtectionContext context) {
+        PlotData plot = context.getPlot();
+        if (plot == null || plot.isMunicipal() || context.isOwnerMayor() || !context.isOwnerMember()) {
+            return ProtectionDecision.PASS;
+        }
+        return plot.getFlags().isEnabled(context.getAction())
+                ? ProtectionDecision.ALLOW
+                : ProtectionDecision.deny(context.getAction());
+    }
+}
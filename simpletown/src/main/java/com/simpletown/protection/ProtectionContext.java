@@ -0,0 +1,89 @@
+package com.simpletown.protection;
+
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.data.PlotData;
+import com.simpletown.data.Town;
+import com.simpletown.data.TownFlag;
+import com.simpletown.war.WarConflict;
+import com.simpletown.war.WarFlag;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+/**
+ * Everything the rule chain needs about one protected action, resolved once per event.
+ * {@code block} is {@code null} for entity interactions and PvP.
+ */
+public class ProtectionContext {
+    private final Player player;
+    private final TownFlag action;
+    private final Block block;
+    private final ChunkPosition position;
+    private final Town owner;
+    private final PlotData plot;
+    private final Town playerTown;
+    private final WarConflict conflict;
+    private final WarFlag flag;
+    private final String controller;
+
+    public ProtectionContext(Player player, TownFlag action, Block block, ChunkPosition position, Town owner, PlotData plot,
+                             Town playerTown, WarConflict conflict, WarFlag flag, String controller) {
+        this.player = player;
+        this.action = action;
+        this.block = block;
+        this.position = position;
+        this.owner = owner;
+        this.plot = plot;
+        this.playerTown = playerTown;
+        this.conflict = conflict;
+        this.flag = flag;
+        this.controller = controller;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public TownFlag getAction() {
+        return action;
+    }
+
+    public Block getBlock() {
+        return block;
+    }
+
+    public ChunkPosition getPosition() {
+        return position;
+    }
+
+    public Town getOwner() {
+        return owner;
+    }
+
+    public PlotData getPlot() {
+        return plot;
+    }
+
+    public Town getPlayerTown() {
+        return playerTown;
+    }
+
+    public WarConflict getConflict() {
+        return conflict;
+    }
+
+    public WarFlag getFlag() {
+        return flag;
+    }
+
+    public String getController() {
+        return controller;
+    }
+
+    public boolean isOwnerMayor() {
+        return owner != null && owner.isMayor(player.getName());
+    }
+
+    public boolean isOwnerMember() {
+        return owner != null && owner.isMember(player.getName());
+    }
+}
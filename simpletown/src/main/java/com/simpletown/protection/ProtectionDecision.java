@@ -0,0 +1,61 @@
+package com.simpletown.protection;
+
+import com.simpletown.data.TownFlag;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Result of a single protection rule. {@link #PASS} hands the event to the next rule in the chain,
+ * any other outcome is final. A denial may carry the message key shown to the player.
+ */
+public final class ProtectionDecision {
+    public enum Outcome {
+        ALLOW, DENY, PASS
+    }
+
+    public static final ProtectionDecision ALLOW = new ProtectionDecision(Outcome.ALLOW, null);
+    public static final ProtectionDecision PASS = new ProtectionDecision(Outcome.PASS, null);
+    public static final ProtectionDecision DENY_SILENT = new ProtectionDecision(Outcome.DENY, null);
+
+    private static final Map<TownFlag, ProtectionDecision> DENY_BY_ACTION = new EnumMap<>(TownFlag.class);
+
+    static {
+        for (TownFlag flag : TownFlag.values()) {
+            DENY_BY_ACTION.put(flag, deny("protection." + flag.name().toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    private final Outcome outcome;
+    private final String messageKey;
+
+    private ProtectionDecision(Outcome outcome, String messageKey) {
+        this.outcome = outcome;
+        this.messageKey = messageKey;
+    }
+
+    public static ProtectionDecision deny(String messageKey) {
+        return new ProtectionDecision(Outcome.DENY, messageKey);
+    }
+
+    public static ProtectionDecision deny(TownFlag action) {
+        return DENY_BY_ACTION.get(action);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public String getMessageKey() {
+        return messageKey;
+    }
+
+    public boolean isFinal() {
+        return outcome != Outcome.PASS;
+    }
+
+    public boolean isDenied() {
+        return outcome == Outcome.DENY;
+    }
+}
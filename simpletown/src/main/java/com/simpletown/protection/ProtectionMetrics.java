@@ -0,0 +1,127 @@
+package com.simpletown.protection;
+
+import com.simpletown.data.TownFlag;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Main-thread counters for the protection pipeline. Latency is kept in log2 buckets of roughly
+ * one microsecond each, so recording is a couple of array writes and no allocation.
+ */
+public class ProtectionMetrics {
+    private static final int BUCKETS = 16;
+
+    private final Map<TownFlag, Counters> counters = new EnumMap<>(TownFlag.class);
+    private long cacheHits;
+    private long cacheMisses;
+    private long startedAt;
+
+    public ProtectionMetrics() {
+        reset();
+    }
+
+    public void record(TownFlag action, ProtectionDecision decision, boolean fastPath, long nanos) {
+        Counters target = counters.get(action);
+        target.evaluated++;
+        if (decision.isDenied()) {
+            target.denied++;
+            if (fastPath) {
+                target.fastPathRejected++;
+            }
+        } else {
+            target.allowed++;
+        }
+        target.histogram[bucket(nanos)]++;
+        target.maxNanos = Math.max(target.maxNanos, nanos);
+    }
+
+    public void recordCacheHit() {
+        cacheHits++;
+    }
+
+    public void recordCacheMiss() {
+        cacheMisses++;
+    }
+
+    public void reset() {
+        for (TownFlag flag : TownFlag.values()) {
+            counters.put(flag, new Counters());
+        }
+        cacheHits = 0;
+        cacheMisses = 0;
+        startedAt = System.currentTimeMillis();
+    }
+
+    public Counters get(TownFlag action) {
+        return counters.get(action);
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public double getCacheHitRatio() {
+        long total = cacheHits + cacheMisses;
+        return total == 0 ? 0.0 : (double) cacheHits / total;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    private static int bucket(long nanos) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos >> 10));
+    }
+
+    public static final class Counters {
+        private long evaluated;
+        private long allowed;
+        private long denied;
+        private long fastPathRejected;
+        private long maxNanos;
+        private final long[] histogram = new long[BUCKETS];
+
+        public long getEvaluated() {
+            return evaluated;
+        }
+
+        public long getAllowed() {
+            return allowed;
+        }
+
+        public long getDenied() {
+            return denied;
+        }
+
+        public long getFastPathRejected() {
+            return fastPathRejected;
+        }
+
+        public long getMaxMicros() {
+            return maxNanos / 1000L;
+        }
+
+        /**
+         * Upper bound of the histogram bucket containing the given quantile, in microseconds.
+         */
+        public long percentileMicros(double quantile) {
+            if (evaluated == 0) {
+                return 0;
+            }
+            long threshold = (long) Math.ceil(evaluated * quantile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram[i];
+                if (seen >= threshold) {
+                    return (1024L << i) / 1000L;
+                }
+            }
+            return getMaxMicros();
+        }
+    }
+}
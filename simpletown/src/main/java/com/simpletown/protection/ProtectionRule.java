@@ -0,0 +1,7 @@
+package com.simpletown.protection;
+
+public interface ProtectionRule {
+    String getName();
+
+    ProtectionDecision evaluate(ProtectionContext context);
+}
@@ -0,0 +1,214 @@
+package com.simpletown.protection;
+
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.data.PlotData;
+import com.simpletown.data.Town;
+import com.simpletown.data.TownFlag;
+import com.simpletown.data.TownManager;
+import com.simpletown.war.WarConflict;
+import com.simpletown.war.WarFlag;
+import com.simpletown.war.WarManager;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Resolves the protection context once per event and runs it through the ordered rule chain:
+ * war rules first, then plot rules, then town rules. The first non-{@code PASS} decision wins.
+ * <p>
+ * Without active wars, wilderness and plain outsider building are answered by a fast path before
+ * any context is built. Resolved contexts are cached per player until the chunk, the town data
+ * revision or the war data revision changes.
+ */
+public class ProtectionService {
+    private record Resolution(ChunkPosition position, long townRevision, long warRevision, Town owner, PlotData plot,
+                              Town playerTown, WarConflict conflict, WarFlag flag, String controller) {
+    }
+
+    private final TownManager townManager;
+    private final WarManager warManager;
+    private final List<ProtectionRule> rules;
+    private final ProtectionMetrics metrics = new ProtectionMetrics();
+    private final ProtectionTracer tracer;
+    private final Map<UUID, Resolution> cache = new HashMap<>();
+
+    public ProtectionService(TownManager townManager, WarManager warManager, Logger logger) {
+        this.townManager = townManager;
+        this.warManager = warManager;
+        this.tracer = new ProtectionTracer(logger);
+        this.rules = List.of(
+                new WarProtectionRule(warManager),
+                new PlotProtectionRule(),
+                new TownProtectionRule()
+        );
+    }
+
+    public ProtectionDecision check(Player player, Block block, TownFlag action) {
+        return check(player, block, ChunkPosition.fromBlock(block), action);
+    }
+
+    public ProtectionDecision check(Player player, Location location, TownFlag action) {
+        return check(player, null, ChunkPosition.fromLocation(location), action);
+    }
+
+    public ProtectionDecision check(Player player, ChunkPosition position, TownFlag action) {
+        return check(player, null, position, action);
+    }
+
+    private ProtectionDecision check(Player player, Block block, ChunkPosition position, TownFlag action) {
+        long start = System.nanoTime();
+        StringBuilder trace = tracer.shouldTrace(player) ? new StringBuilder() : null;
+        ProtectionDecision decision = fastPath(player, block, position, action);
+        boolean fastPath = decision != null;
+        if (fastPath) {
+            if (trace != null) {
+                trace.append("быстрый путь -> ").append(describe(decision));
+            }
+        } else {
+            decision = evaluate(resolve(player, block, position, action), trace);
+        }
+        long elapsed = System.nanoTime() - start;
+        metrics.record(action, decision, fastPath, elapsed);
+        if (trace != null) {
+            tracer.log(player.getName() + " " + action.name() + " " + position.serialize() + ": " + trace
+                    + " (" + elapsed / 1000L + " мкс)");
+        }
+        return decision;
+    }
+
+    public ProtectionContext resolve(Player player, Block block, ChunkPosition position, TownFlag action) {
+        long townRevision = townManager.getRevision();
+        long warRevision = warManager.getRevision();
+        Resolution cached = cache.get(player.getUniqueId());
+        if (cached != null && cached.townRevision() == townRevision && cached.warRevision() == warRevision
+                && cached.position().equals(position)) {
+            metrics.recordCacheHit();
+            return toContext(player, action, block, cached);
+        }
+        metrics.recordCacheMiss();
+
+        Town owner = townManager.getTownAtPosition(position);
+        PlotData plot = owner == null ? null : owner.getPlot(position);
+        Town playerTown = townManager.getTownByMember(player.getName());
+        String controller = owner == null ? null : owner.getName();
+        WarConflict conflict = null;
+        WarFlag flag = null;
+        if (warManager.hasConflicts()) {
+            conflict = resolveConflict(position, owner, playerTown);
+            flag = warManager.findFlagAt(position).orElse(null);
+            if (conflict != null) {
+                if (conflict.getAttackerOccupied().contains(position)) {
+                    controller = conflict.getAttacker();
+                } else if (conflict.getDefenderOccupied().contains(position)) {
+                    controller = conflict.getDefender();
+                }
+            }
+        }
+        Resolution resolution = new Resolution(position, townRevision, warRevision, owner, plot, playerTown, conflict, flag, controller);
+        cache.put(player.getUniqueId(), resolution);
+        return toContext(player, action, block, resolution);
+    }
+
+    public ProtectionDecision evaluate(ProtectionContext context) {
+        return evaluate(context, null);
+    }
+
+    public void forget(UUID playerId) {
+        cache.remove(playerId);
+    }
+
+    public List<ProtectionRule> getRules() {
+        return rules;
+    }
+
+    public ProtectionMetrics getMetrics() {
+        return metrics;
+    }
+
+    public ProtectionTracer getTracer() {
+        return tracer;
+    }
+
+    private ProtectionDecision evaluate(ProtectionContext context, StringBuilder trace) {
+        if (trace != null) {
+            trace.append(describe(context));
+        }
+        for (ProtectionRule rule : rules) {
+            ProtectionDecision decision = rule.evaluate(context);
+            if (trace != null) {
+                trace.append(" | ").append(rule.getName()).append('=').append(describe(decision));
+            }
+            if (decision.isFinal()) {
+                return decision;
+            }
+        }
+        if (trace != null) {
+            trace.append(" | по умолчанию=ALLOW");
+        }
+        return ProtectionDecision.ALLOW;
+    }
+
+    private ProtectionDecision fastPath(Player player, Block block, ChunkPosition position, TownFlag action) {
+        if (warManager.hasConflicts()) {
+            return null;
+        }
+        if (action == TownFlag.PLACE && block != null && WarProtectionRule.isWarBanner(block.getType())) {
+            return null;
+        }
+        Town owner = townManager.getTownAtPosition(position);
+        if (owner == null) {
+            return ProtectionDecision.ALLOW;
+        }
+        if (action != TownFlag.PVP && !owner.isMember(player.getName())) {
+            return ProtectionDecision.deny(action);
+        }
+        return null;
+    }
+
+    private WarConflict resolveConflict(ChunkPosition position, Town owner, Town playerTown) {
+        if (playerTown != null) {
+            WarConflict conflict = warManager.getConflictForTown(playerTown.getName()).orElse(null);
+            if (conflict != null) {
+                return conflict;
+            }
+        }
+        if (owner != null) {
+            WarConflict conflict = warManager.getConflictForTown(owner.getName()).orElse(null);
+            if (conflict != null) {
+                return conflict;
+            }
+        }
+        return warManager.findConflictForChunk(position).orElse(null);
+    }
+
+    private ProtectionContext toContext(Player player, TownFlag action, Block block, Resolution resolution) {
+        return new ProtectionContext(player, action, block, resolution.position(), resolution.owner(), resolution.plot(),
+                resolution.playerTown(), resolution.conflict(), resolution.flag(), resolution.controller());
+    }
+
+    private String describe(ProtectionContext context) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("владелец=").append(context.getOwner() == null ? "-" : context.getOwner().getName());
+        PlotData plot = context.getPlot();
+        builder.append(", участок=").append(plot == null ? "-" : plot.isMunicipal() ? "муниципальный" : plot.getOwner());
+        builder.append(", город игрока=").append(context.getPlayerTown() == null ? "-" : context.getPlayerTown().getName());
+        WarConflict conflict = context.getConflict();
+        builder.append(", война=").append(conflict == null ? "-"
+                : conflict.getAttacker() + "/" + conflict.getDefender() + " " + conflict.getStatus().name());
+        builder.append(", флаг=").append(context.getFlag() == null ? "-" : context.getFlag().getOwningTown());
+        builder.append(", контроль=").append(context.getController() == null ? "-" : context.getController());
+        return builder.toString();
+    }
+
+    private String describe(ProtectionDecision decision) {
+        return decision.getMessageKey() == null
+                ? decision.getOutcome().name()
+                : decision.getOutcome().name() + "(" + decision.getMessageKey() + ")";
+    }
+}
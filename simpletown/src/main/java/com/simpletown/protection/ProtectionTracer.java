@@ -0,0 +1,56 @@
+package com.simpletown.protection;
+
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Logger;
+
+/**
+ * Opt-in decision tracer for a single player. When no target is set the check is one null
+ * comparison, so untraced players pay nothing.
+ */
+public class ProtectionTracer {
+    private final Logger logger;
+    private UUID target;
+    private String targetName;
+    private double sampleRate;
+
+    public ProtectionTracer(Logger logger) {
+        this.logger = logger;
+    }
+
+    public void start(Player player, double sampleRate) {
+        this.target = player.getUniqueId();
+        this.targetName = player.getName();
+        this.sampleRate = sampleRate;
+    }
+
+    public void stop() {
+        target = null;
+        targetName = null;
+    }
+
+    public boolean isActive() {
+        return target != null;
+    }
+
+    public String getTargetName() {
+        return targetName;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public boolean shouldTrace(Player player) {
+        if (target == null || !target.equals(player.getUniqueId())) {
+            return false;
+        }
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    public void log(String line) {
+        logger.info("[Трассировка защиты] " + line);
+    }
+}
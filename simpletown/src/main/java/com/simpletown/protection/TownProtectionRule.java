@@ -0,0 +1,27 @@
+package com.simpletown.protection;
+
+import com.simpletown.data.Town;
+import com.simpletown.data.TownFlag;
+
+public class TownProtectionRule implements ProtectionRule {
+    @Override
+    public String getName() {
+        return "town";
+    }
+
+    @Override
+    public ProtectionDecision evaluate(ProtectionContext context) {
+        Town owner = context.getOwner();
+        if (owner == null || context.isOwnerMayor()) {
+            return ProtectionDecision.ALLOW;
+        }
+        TownFlag action = context.getAction();
+        if (!context.isOwnerMember()) {
+            if (action == TownFlag.BREAK || action == TownFlag.PLACE || action == TownFlag.INTERACT) {
+                return ProtectionDecision.deny(action);
+            }
+            return owner.getOutsiderFlags().isEnabled(action) ? ProtectionDecision.ALLOW : ProtectionDecision.deny(action);
+        }
+        return owner.getCitizenFlags().isEnabled(action) ? ProtectionDecision.ALLOW : ProtectionDecision.deny(action);
+    }
+}
@@ -0,0 +1,92 @@
+package com.simpletown.protection;
+
+import com.simpletown.data.Town;
+import com.simpletown.data.TownFlag;
+import com.simpletown.war.WarConflict;
+import com.simpletown.war.WarFlag;
+import com.simpletown.war.WarManager;
+import com.simpletown.war.WarStatus;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+public class WarProtectionRule implements ProtectionRule {
+    private static final ProtectionDecision BUILD_BLOCKED = ProtectionDecision.deny("war.build-blocked");
+    private static final ProtectionDecision FLAG_BUILD_BLOCKED = ProtectionDecision.deny("war.flag-build-blocked");
+
+    private final WarManager warManager;
+
+    public WarProtectionRule(WarManager warManager) {
+        this.warManager = warManager;
+    }
+
+    @Override
+    public String getName() {
+        return "war";
+    }
+
+    @Override
+    public ProtectionDecision evaluate(ProtectionContext context) {
+        Block block = context.getBlock();
+        if (block == null || context.getAction() == TownFlag.PVP) {
+            return ProtectionDecision.PASS;
+        }
+        Player player = context.getPlayer();
+        TownFlag action = context.getAction();
+        Material type = block.getType();
+        boolean banner = isWarBanner(type);
+        if (banner && action == TownFlag.PLACE) {
+            return warManager.placeFlag(player, block, type == Material.GREEN_BANNER)
+                    ? ProtectionDecision.ALLOW
+                    : ProtectionDecision.DENY_SILENT;
+        }
+        if (banner && action == TownFlag.BREAK && context.getFlag() != null) {
+            warManager.damageFlag(player, block);
+            return ProtectionDecision.DENY_SILENT;
+        }
+
+        WarConflict conflict = context.getConflict();
+        if (conflict == null || conflict.getStatus() != WarStatus.ACTIVE) {
+            return ProtectionDecision.PASS;
+        }
+
+        WarFlag flag = context.getFlag();
+        if (flag != null) {
+            Location location = block.getLocation();
+            if (action == TownFlag.PLACE
+                    || action == TownFlag.BREAK && (flag.isFlagBlock(location) || flag.isSupportBlock(location))) {
+                return FLAG_BUILD_BLOCKED;
+            }
+            return ProtectionDecision.PASS;
+        }
+
+        Town owner = context.getOwner();
+        Town playerTown = context.getPlayerTown();
+        if (owner == null || playerTown == null || context.isOwnerMayor()) {
+            return ProtectionDecision.PASS;
+        }
+        String playerTownName = playerTown.getName();
+        if (!playerTownName.equalsIgnoreCase(conflict.getAttacker()) && !playerTownName.equalsIgnoreCase(conflict.getDefender())) {
+            return ProtectionDecision.PASS;
+        }
+
+        // Чанк оккупирован: контролирующий город распоряжается им вместо владельца
+        String controller = context.getController();
+        if (!controller.equalsIgnoreCase(owner.getName())) {
+            if (playerTownName.equalsIgnoreCase(controller)) {
+                return ProtectionDecision.ALLOW;
+            }
+            return action == TownFlag.PLACE ? BUILD_BLOCKED : ProtectionDecision.PASS;
+        }
+
+        if (playerTownName.equalsIgnoreCase(owner.getName())) {
+            return action == TownFlag.BREAK ? BUILD_BLOCKED : ProtectionDecision.PASS;
+        }
+        return action == TownFlag.PLACE ? BUILD_BLOCKED : ProtectionDecision.PASS;
+    }
+
+    public static boolean isWarBanner(Material type) {
+        return type == Material.RED_BANNER || type == Material.GREEN_BANNER;
+    }
+}
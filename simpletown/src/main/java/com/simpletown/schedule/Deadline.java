@@ -0,0 +1,66 @@
+package com.simpletown.schedule;
+
+/**
+ * A single entry of the {@link TimingWheel}. Persistent deadlines carry a handler type and a
+ * subject that survive restarts; transient ones carry the action to run.
+ */
+class Deadline {
+    private final String key;
+    private final String type;
+    private final String subject;
+    private final long dueAt;
+    private final long dueTick;
+    private final Runnable action;
+    private int level = -1;
+    private int slot = -1;
+
+    Deadline(String key, String type, String subject, long dueAt, Runnable action) {
+        this.key = key;
+        this.type = type;
+        this.subject = subject;
+        this.dueAt = dueAt;
+        this.dueTick = TimingWheel.toDueTick(dueAt);
+        this.action = action;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    String getType() {
+        return type;
+    }
+
+    String getSubject() {
+        return subject;
+    }
+
+    long getDueAt() {
+        return dueAt;
+    }
+
+    long getDueTick() {
+        return dueTick;
+    }
+
+    Runnable getAction() {
+        return action;
+    }
+
+    boolean isPersistent() {
+        return action == null;
+    }
+
+    int getLevel() {
+        return level;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    void place(int level, int slot) {
+        this.level = level;
+        this.slot = slot;
+    }
+}
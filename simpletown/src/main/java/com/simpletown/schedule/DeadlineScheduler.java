@@ -0,0 +1,221 @@
+package com.simpletown.schedule;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Wall-clock deadlines shared by the plugin: war phase changes, reparations, cooldowns and
+ * confirmation timeouts.
+ * <p>
+ * Persistent deadlines are stored in {@code deadlines.yml} as a type and a subject and are handed
+ * to the handler registered for that type, so they survive restarts. Deadlines that passed while
+ * the server was down fire right after startup. Transient deadlines run a callback and are lost on
+ * restart. All callbacks run on the main thread. Only one Bukkit task is kept, armed for the next
+ * deadline, so an idle scheduler costs nothing per tick.
+ */
+public class DeadlineScheduler {
+    private final Plugin plugin;
+    private final File storageFile;
+    private final Map<String, Deadline> deadlines = new HashMap<>();
+    private final Map<String, Consumer<String>> handlers = new HashMap<>();
+    private final TimingWheel wheel = new TimingWheel(System.currentTimeMillis());
+    private BukkitTask wakeup;
+    private long wakeupAt = -1;
+    private boolean dirty;
+    private boolean running;
+
+    public DeadlineScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        this.storageFile = new File(plugin.getDataFolder(), "deadlines.yml");
+        load();
+    }
+
+    public void registerHandler(String type, Consumer<String> handler) {
+        handlers.put(type, handler);
+    }
+
+    public void schedule(String type, String subject, long dueAt) {
+        put(new Deadline(key(type, subject), type, subject, dueAt, null));
+    }
+
+    public void schedule(String key, long dueAt, Runnable action) {
+        put(new Deadline(key, null, null, dueAt, Objects.requireNonNull(action)));
+    }
+
+    public boolean cancel(String type, String subject) {
+        return cancel(key(type, subject));
+    }
+
+    public boolean cancel(String key) {
+        Deadline deadline = deadlines.remove(key);
+        if (deadline == null) {
+            return false;
+        }
+        wheel.remove(deadline);
+        if (deadline.isPersistent()) {
+            markDirty();
+        }
+        arm();
+        return true;
+    }
+
+    public boolean isScheduled(String type, String subject) {
+        return deadlines.containsKey(key(type, subject));
+    }
+
+    public long getDueAt(String type, String subject) {
+        Deadline deadline = deadlines.get(key(type, subject));
+        return deadline == null ? 0 : deadline.getDueAt();
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    public void start() {
+        running = true;
+        arm();
+    }
+
+    public void stop() {
+        running = false;
+        disarm();
+        save();
+    }
+
+    public void save() {
+        dirty = false;
+        FileConfiguration config = new YamlConfiguration();
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (Deadline deadline : deadlines.values()) {
+            if (!deadline.isPersistent()) {
+                continue;
+            }
+            Map<String, Object> map = new HashMap<>();
+            map.put("type", deadline.getType());
+            map.put("subject", deadline.getSubject());
+            map.put("due", deadline.getDueAt());
+            list.add(map);
+        }
+        config.set("deadlines", list);
+        try {
+            config.save(storageFile);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Не удалось сохранить отложенные события: " + e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (!storageFile.exists()) {
+            return;
+        }
+        FileConfiguration config = YamlConfiguration.loadConfiguration(storageFile);
+        for (Map<?, ?> entry : config.getMapList("deadlines")) {
+            String type = Objects.toString(entry.get("type"), null);
+            String subject = Objects.toString(entry.get("subject"), "");
+            if (type == null || !(entry.get("due") instanceof Number due)) {
+                continue;
+            }
+            Deadline deadline = new Deadline(key(type, subject), type, subject, due.longValue(), null);
+            deadlines.put(deadline.getKey(), deadline);
+            wheel.add(deadline);
+        }
+    }
+
+    private void put(Deadline deadline) {
+        Deadline previous = deadlines.put(deadline.getKey(), deadline);
+        if (previous != null) {
+            wheel.remove(previous);
+        }
+        wheel.add(deadline);
+        if (deadline.isPersistent() || (previous != null && previous.isPersistent())) {
+            markDirty();
+        }
+        arm();
+    }
+
+    private void fire() {
+        wakeup = null;
+        wakeupAt = -1;
+        for (Deadline deadline : wheel.advance(System.currentTimeMillis())) {
+            if (!deadlines.remove(deadline.getKey(), deadline)) {
+                continue;
+            }
+            if (deadline.isPersistent()) {
+                markDirty();
+            }
+            try {
+                run(deadline);
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("Ошибка при обработке события " + deadline.getKey() + ": " + e.getMessage());
+            }
+        }
+        if (dirty) {
+            save();
+        }
+        arm();
+    }
+
+    private void run(Deadline deadline) {
+        if (!deadline.isPersistent()) {
+            deadline.getAction().run();
+            return;
+        }
+        Consumer<String> handler = handlers.get(deadline.getType());
+        if (handler == null) {
+            plugin.getLogger().warning("Нет обработчика для события " + deadline.getKey());
+            return;
+        }
+        handler.accept(deadline.getSubject());
+    }
+
+    private void markDirty() {
+        dirty = true;
+    }
+
+    private void arm() {
+        if (!running) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long at = wheel.nextEventAt();
+        if (dirty && (at < 0 || at > now)) {
+            at = now;
+        }
+        if (at < 0) {
+            disarm();
+            return;
+        }
+        if (wakeup != null && wakeupAt <= at) {
+            return;
+        }
+        disarm();
+        long delayTicks = Math.max(1L, (at - now + TimingWheel.TICK_MS - 1) / TimingWheel.TICK_MS);
+        wakeupAt = at;
+        wakeup = Bukkit.getScheduler().runTaskLater(plugin, this::fire, delayTicks);
+    }
+
+    private void disarm() {
+        if (wakeup != null) {
+            wakeup.cancel();
+            wakeup = null;
+        }
+        wakeupAt = -1;
+    }
+
+    private static String key(String type, String subject) {
+        return type + ":" + subject;
+    }
+}
@@ -0,0 +1,27 @@
+package com.simpletown.schedule;
+
+import java.util.logging.Logger;
+
+/**
+ * Wrapper for tasks run on the plugin's own executors, which have nobody to report an exception
+ * to.
+ */
+public final class GuardedTask {
+    private GuardedTask() {
+    }
+
+    /**
+     * Logs instead of throwing: a periodic task that throws is never run again.
+     *
+     * @param failure start of the warning, followed by the exception message
+     */
+    public static Runnable of(Logger logger, String failure, Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.warning(failure + e.getMessage());
+            }
+        };
+    }
+}
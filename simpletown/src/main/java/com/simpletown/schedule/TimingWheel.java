@@ -0,0 +1,187 @@
+package com.simpletown.schedule;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel over wall-clock time in 50 ms ticks.
+ * <p>
+ * Level {@code L} has 64 slots of {@code 64^L} ticks each. A deadline is stored on the level of the
+ * highest 6-bit digit in which its tick differs from the current tick, so every occupied slot lies
+ * ahead of the cursor. When the cursor reaches a slot on an upper level, its deadlines are moved to
+ * lower levels. Each level keeps an occupancy bitmap, so the next event is found without scanning
+ * and the cursor can jump straight to it. Deadlines past the five-level horizon (about 620 days)
+ * wait in an overflow set.
+ */
+class TimingWheel {
+    static final long TICK_MS = 50L;
+    private static final int LEVELS = 5;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int HORIZON_BITS = LEVELS * SLOT_BITS;
+    private static final int OVERFLOW_LEVEL = LEVELS;
+
+    @SuppressWarnings("unchecked")
+    private final Set<Deadline>[][] slots = new Set[LEVELS][SLOTS];
+    private final long[] occupied = new long[LEVELS];
+    private final Set<Deadline> overflow = new LinkedHashSet<>();
+    private final List<Deadline> ready = new ArrayList<>();
+    private long current;
+    private int size;
+
+    TimingWheel(long nowMs) {
+        this.current = toTick(nowMs);
+    }
+
+    static long toTick(long timeMs) {
+        return Math.floorDiv(timeMs, TICK_MS);
+    }
+
+    static long toDueTick(long timeMs) {
+        return Math.floorDiv(timeMs + TICK_MS - 1, TICK_MS);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(Deadline deadline) {
+        size++;
+        place(deadline);
+    }
+
+    void remove(Deadline deadline) {
+        int level = deadline.getLevel();
+        if (level < 0) {
+            if (ready.remove(deadline)) {
+                size--;
+            }
+            return;
+        }
+        boolean removed;
+        if (level == OVERFLOW_LEVEL) {
+            removed = overflow.remove(deadline);
+        } else {
+            Set<Deadline> bucket = slots[level][deadline.getSlot()];
+            removed = bucket != null && bucket.remove(deadline);
+            if (removed && bucket.isEmpty()) {
+                occupied[level] &= ~(1L << deadline.getSlot());
+            }
+        }
+        if (removed) {
+            size--;
+        }
+        deadline.place(-1, -1);
+    }
+
+    /**
+     * Moves the cursor up to {@code nowMs} and returns the deadlines that came due, earliest first.
+     */
+    List<Deadline> advance(long nowMs) {
+        long target = toTick(nowMs);
+        List<Deadline> due = new ArrayList<>(ready);
+        ready.clear();
+        while (true) {
+            long next = nextEventTick();
+            if (next < 0 || next > target) {
+                break;
+            }
+            current = next;
+            if ((current & ((1L << HORIZON_BITS) - 1)) == 0 && !overflow.isEmpty()) {
+                List<Deadline> pending = new ArrayList<>(overflow);
+                overflow.clear();
+                pending.forEach(this::place);
+            }
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                int slot = digit(current, level);
+                if ((occupied[level] & (1L << slot)) != 0) {
+                    List<Deadline> pending = new ArrayList<>(slots[level][slot]);
+                    slots[level][slot].clear();
+                    occupied[level] &= ~(1L << slot);
+                    pending.forEach(this::place);
+                }
+            }
+            int slot = digit(current, 0);
+            if ((occupied[0] & (1L << slot)) != 0) {
+                due.addAll(slots[0][slot]);
+                slots[0][slot].clear();
+                occupied[0] &= ~(1L << slot);
+            }
+            due.addAll(ready);
+            ready.clear();
+        }
+        if (target > current) {
+            current = target;
+        }
+        size -= due.size();
+        due.forEach(deadline -> deadline.place(-1, -1));
+        return due;
+    }
+
+    /**
+     * Wall-clock time at which {@link #advance(long)} next has work to do, or {@code -1} when the
+     * wheel is empty.
+     */
+    long nextEventAt() {
+        if (!ready.isEmpty()) {
+            return current * TICK_MS;
+        }
+        long next = nextEventTick();
+        return next < 0 ? -1 : next * TICK_MS;
+    }
+
+    private long nextEventTick() {
+        long best = -1;
+        for (int level = 0; level < LEVELS; level++) {
+            long ahead = occupied[level] & (-1L << digit(current, level) << 1);
+            if (ahead == 0) {
+                continue;
+            }
+            int shift = level * SLOT_BITS;
+            long prefix = current >>> (shift + SLOT_BITS) << (shift + SLOT_BITS);
+            long tick = prefix | ((long) Long.numberOfTrailingZeros(ahead) << shift);
+            if (best < 0 || tick < best) {
+                best = tick;
+            }
+        }
+        if (!overflow.isEmpty()) {
+            long boundary = ((current >>> HORIZON_BITS) + 1) << HORIZON_BITS;
+            if (best < 0 || boundary < best) {
+                best = boundary;
+            }
+        }
+        return best;
+    }
+
+    private void place(Deadline deadline) {
+        long tick = deadline.getDueTick();
+        if (tick <= current) {
+            deadline.place(-1, -1);
+            ready.add(deadline);
+            return;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(tick ^ current);
+        int level = highestBit / SLOT_BITS;
+        if (level >= LEVELS) {
+            deadline.place(OVERFLOW_LEVEL, -1);
+            overflow.add(deadline);
+            return;
+        }
+        int slot = digit(tick, level);
+        Set<Deadline> bucket = slots[level][slot];
+        if (bucket == null) {
+            bucket = new LinkedHashSet<>();
+            slots[level][slot] = bucket;
+        }
+        bucket.add(deadline);
+        occupied[level] |= 1L << slot;
+        deadline.place(level, slot);
+    }
+
+    private static int digit(long tick, int level) {
+        return (int) (tick >>> (level * SLOT_BITS)) & SLOT_MASK;
+    }
+}
@@ -1,7 +1,9 @@
 package com.simpletown.service;
 
+import com.simpletown.schedule.DeadlineScheduler;
 import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
@@ -12,11 +14,15 @@ import java.util.UUID;
 import com.simpletown.service.MessageService;
 
 public class ConfirmationManager {
+    private static final long CONFIRMATION_TIMEOUT_MS = 60 * 1000L;
+
     private final Map<UUID, ConfirmationRequest> pending = new HashMap<>();
     private final MessageService messages;
+    private final DeadlineScheduler deadlines;
 
-    public ConfirmationManager(MessageService messages) {
+    public ConfirmationManager(MessageService messages, DeadlineScheduler deadlines) {
         this.messages = messages;
+        this.deadlines = deadlines;
     }
 
     public void sendConfirmation(Player player, String actionLabel, Runnable onAccept, Runnable onDeny) {
@@ -34,7 +40,10 @@ public class ConfirmationManager {
             return false;
         }
 
-        pending.put(player.getUniqueId(), new ConfirmationRequest(actionLabel, onAccept, onDeny));
+        UUID playerId = player.getUniqueId();
+        ConfirmationRequest request = new ConfirmationRequest(actionLabel, onAccept, onDeny);
+        pending.put(playerId, request);
+        deadlines.schedule("confirmation:" + playerId, System.currentTimeMillis() + CONFIRMATION_TIMEOUT_MS, () -> expire(playerId, request));
 
         TextComponent question = new TextComponent(messages.format("confirmation.prompt", Map.of("action", actionLabel)));
         messages.sendRaw(player, question.getText());
@@ -66,6 +75,7 @@ public class ConfirmationManager {
             messages.sendError(player, "confirmation.no-requests");
             return true;
         }
+        deadlines.cancel("confirmation:" + player.getUniqueId());
 
         if (response.equalsIgnoreCase("accept")) {
             request.getOnAccept().run();
@@ -83,6 +93,19 @@ public class ConfirmationManager {
         return pending.containsKey(player.getUniqueId());
     }
 
+    private void expire(UUID playerId, ConfirmationRequest request) {
+        if (!pending.remove(playerId, request)) {
+            return;
+        }
+        if (request.getOnDeny() != null) {
+            request.getOnDeny().run();
+        }
+        Player player = Bukkit.getPlayer(playerId);
+        if (player != null) {
+            messages.sendError(player, "confirmation.expired", Map.of("action", request.getLabel()));
+        }
+    }
+
     private static class ConfirmationRequest {
         private final String label;
         private final Runnable onAccept;
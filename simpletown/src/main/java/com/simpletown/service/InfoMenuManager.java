@@ -1,6 +1,7 @@
 package com.simpletown.service;
 
 import com.simpletown.data.Town;
+import com.simpletown.data.TownCache;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
@@ -37,6 +38,7 @@ public class InfoMenuManager implements Listener {
     private final MessageService messages;
     private final com.simpletown.war.WarManager warManager;
     private final Map<Inventory, Town> inventories = new HashMap<>();
+    private final TownCache<ItemStack> infoItems = new TownCache<>();
 
     public InfoMenuManager(MessageService messages, com.simpletown.war.WarManager warManager) {
         this.messages = messages;
@@ -45,7 +47,8 @@ public class InfoMenuManager implements Listener {
 
     public void open(Player player, Town town) {
         Inventory inventory = Bukkit.createInventory(new InfoHolder(town), 9, messages.get("town.info.title"));
-        inventory.setItem(4, createInfoItem(town));
+        long warRevision = warManager == null ? 0L : warManager.getRevision();
+        inventory.setItem(4, infoItems.get(town, warRevision, this::createInfoItem));
         inventories.put(inventory, town);
         player.openInventory(inventory);
     }
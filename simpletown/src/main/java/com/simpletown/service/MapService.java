@@ -2,153 +2,443 @@ package com.simpletown.service;
 
 import com.simpletown.data.ChunkPosition;
 import com.simpletown.data.Town;
+import com.simpletown.data.TownCache;
 import com.simpletown.data.TownManager;
+import com.simpletown.map.MapPolygon;
 import com.simpletown.map.MapRenderer;
+import com.simpletown.map.OutlineCache;
+import com.simpletown.map.TownSnapshot;
 import com.simpletown.war.WarConflict;
 import com.simpletown.war.WarManager;
 import com.simpletown.war.WarStatus;
 import com.simpletown.war.WarFlag;
 import com.simpletown.map.TownPopupFormatter;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+/**
+ * Keeps the web map in sync with towns and wars.
+ * <p>
+ * Callers only mark what changed: a town, an occupation controller, a capture flag or everything.
+ * Marks are collected in dirty sets and applied by one flush every few ticks, so a burst of claims
+ * or captures within the window costs a single update per affected layer.
+ * <p>
+ * A flush only copies the affected towns and occupied zones into immutable snapshots. Grouping by
+ * world, outline tracing and popup HTML are done on a worker pool, and each finished layer comes
+ * back as one renderer call queued for the main thread, where at most a fixed number of calls is
+ * applied per tick. At most one computation per layer is in flight; a layer marked again while
+ * its computation runs is picked up by the next flush. Without workers (the simulation tests)
+ * nothing is scheduled and {@link #flush()} computes and applies everything inline.
+ */
 public class MapService {
+    private final Plugin plugin;
     private final TownManager townManager;
     private final WarManager warManager;
     private final MapRenderer renderer;
+    private final long flushIntervalTicks;
+    private final int operationsPerTick;
+    private final ExecutorService workers;
+    private final OutlineCache outlines = new OutlineCache();
+    private final TownCache<List<ChunkPosition>> visibleChunkCache = new TownCache<>();
+    private final TownCache<String> popupCache = new TownCache<>();
+    private final Queue<Runnable> operations = new ConcurrentLinkedQueue<>();
+    private final Set<String> inFlight = new HashSet<>();
     private final Set<String> knownCities = new HashSet<>();
     private final Set<String> knownOccupations = new HashSet<>();
     private final Set<String> knownCaptures = new HashSet<>();
+    private final Set<String> dirtyTowns = new LinkedHashSet<>();
+    private final Set<String> dirtyOccupations = new LinkedHashSet<>();
+    private final Set<String> dirtyCaptures = new LinkedHashSet<>();
+    private boolean capturesDirty;
+    private boolean fullRefresh;
+    private BukkitTask flushTask;
+    private BukkitTask applyTask;
+
+    public MapService(Plugin plugin, TownManager townManager, WarManager warManager, MapRenderer renderer) {
+        this(plugin, townManager, warManager, renderer, 0, 0, Integer.MAX_VALUE);
+    }
 
-    public MapService(TownManager townManager, WarManager warManager, MapRenderer renderer) {
+    public MapService(Plugin plugin, TownManager townManager, WarManager warManager, MapRenderer renderer,
+                      long flushIntervalTicks, int workerThreads, int operationsPerTick) {
+        this.plugin = plugin;
         this.townManager = townManager;
         this.warManager = warManager;
         this.renderer = renderer;
+        this.flushIntervalTicks = flushIntervalTicks;
+        this.operationsPerTick = Math.max(1, operationsPerTick);
+        if (workerThreads > 0) {
+            AtomicInteger counter = new AtomicInteger();
+            this.workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+                Thread thread = new Thread(runnable, "SimpleTown-Map-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.applyTask = Bukkit.getScheduler().runTaskTimer(plugin, this::applyOperations, 1L, 1L);
+        } else {
+            this.workers = null;
+        }
     }
 
+    /**
+     * Town borders, popup and capital marker; also its occupation layer, which uses the town color.
+     */
     public void refreshTown(Town town) {
         if (town == null) {
             return;
         }
-        String cityId = cityId(town.getName());
-        Map<String, Set<ChunkPosition>> chunks = byWorld(visibleChunks(town));
-        String description = TownPopupFormatter.buildDescription(town, warManager);
-        renderer.upsertCity(cityId, town.getName(), description, chunks, town.getMapColor(), town.getCapital());
-        knownCities.add(cityId);
-        refreshOccupied();
-        refreshCaptures();
+        markTown(town.getName());
     }
 
-
     public void removeTown(Town town) {
         if (town == null) {
             return;
         }
-        String cityId = cityId(town.getName());
-        renderer.removeCity(cityId);
-        knownCities.remove(cityId);
+        markTown(town.getName());
     }
 
-    public void refreshAll() {
-        Set<String> current = townManager.getTowns().stream()
-                .map(Town::getName)
-                .map(this::cityId)
-                .collect(Collectors.toSet());
-        for (Town town : townManager.getTowns()) {
-            refreshTown(town);
+    /**
+     * Both sides of a war: their borders, occupied zones and every capture flag.
+     */
+    public void refreshConflict(WarConflict conflict) {
+        if (conflict == null) {
+            return;
         }
-        Set<String> stale = new HashSet<>(knownCities);
-        stale.removeAll(current);
-        for (String removed : stale) {
-            renderer.removeCity(removed);
+        markTown(conflict.getAttacker());
+        markTown(conflict.getDefender());
+        markCaptures();
+    }
+
+    public void refreshCapture(ChunkPosition chunk) {
+        if (chunk == null) {
+            return;
         }
-        knownCities.clear();
-        knownCities.addAll(current);
-        refreshOccupied();
-        refreshCaptures();
+        dirtyCaptures.add(captureId(chunk));
+        markCaptures();
+    }
+
+    public void refreshAll() {
+        fullRefresh = true;
+        scheduleFlush();
     }
 
     public void clearAll() {
+        cancelFlush();
+        operations.clear();
+        inFlight.clear();
         renderer.clearAll();
+        outlines.clear();
+        visibleChunkCache.clear();
+        popupCache.clear();
         knownCities.clear();
         knownOccupations.clear();
         knownCaptures.clear();
+        dirtyTowns.clear();
+        dirtyOccupations.clear();
+        dirtyCaptures.clear();
+        capturesDirty = false;
+        fullRefresh = false;
+    }
+
+    public void shutdown() {
+        cancelFlush();
+        if (applyTask != null) {
+            applyTask.cancel();
+            applyTask = null;
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+        operations.clear();
+    }
+
+    /**
+     * Hands everything marked since the last flush to the workers.
+     */
+    public void flush() {
+        cancelFlush();
+        if (fullRefresh) {
+            fullRefresh = false;
+            markEverything();
+        }
+        if (!dirtyTowns.isEmpty()) {
+            flushTowns();
+        }
+        if (!dirtyOccupations.isEmpty()) {
+            flushOccupations();
+        }
+        if (capturesDirty) {
+            capturesDirty = false;
+            flushCaptures();
+        }
+        if (workers == null) {
+            drainOperations();
+        }
+    }
+
+    private void markTown(String name) {
+        if (name == null) {
+            return;
+        }
+        String key = name.toLowerCase(Locale.ROOT);
+        dirtyTowns.add(key);
+        dirtyOccupations.add(key);
+        scheduleFlush();
     }
 
-    public void refreshOccupied() {
+    private void markCaptures() {
+        capturesDirty = true;
+        scheduleFlush();
+    }
+
+    /**
+     * Every existing town and controller, plus layers that are still drawn but no longer exist;
+     * those are marked by id, which resolves to no town and so gets removed.
+     */
+    private void markEverything() {
+        Set<String> current = new HashSet<>();
+        for (Town town : townManager.getTowns()) {
+            dirtyTowns.add(town.getName().toLowerCase(Locale.ROOT));
+            current.add(cityId(town.getName()));
+        }
+        for (String cityId : knownCities) {
+            if (!current.contains(cityId)) {
+                dirtyTowns.add(cityId);
+            }
+        }
         Set<String> active = new HashSet<>();
-        if (warManager != null) {
-            for (WarConflict conflict : new HashSet<>(warManager.getConflicts())) {
-                if (conflict.getStatus() == WarStatus.ENDED) {
-                    continue;
+        for (String controller : collectOccupied().keySet()) {
+            dirtyOccupations.add(controller);
+            active.add(occupationId(controller));
+        }
+        for (String occupationId : knownOccupations) {
+            if (!active.contains(occupationId)) {
+                dirtyOccupations.add(occupationId.substring("occupied_".length()));
+            }
+        }
+        dirtyCaptures.clear();
+        capturesDirty = true;
+    }
+
+    private void scheduleFlush() {
+        if (flushTask != null || flushIntervalTicks <= 0 || !plugin.isEnabled()) {
+            return;
+        }
+        flushTask = Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            flushTask = null;
+            flush();
+        }, flushIntervalTicks);
+    }
+
+    private void cancelFlush() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+    }
+
+    private void flushTowns() {
+        for (String name : new ArrayList<>(dirtyTowns)) {
+            String cityId = cityId(name);
+            String key = cityKey(cityId);
+            if (inFlight.contains(key)) {
+                continue;
+            }
+            dirtyTowns.remove(name);
+            Town town = townManager.getTownByName(name);
+            if (town == null) {
+                visibleChunkCache.remove(name);
+                popupCache.remove(name);
+                if (knownCities.remove(cityId)) {
+                    outlines.remove(key);
+                    operations.add(() -> renderer.removeCity(cityId));
+                }
+                continue;
+            }
+            knownCities.add(cityId);
+            long warRevision = warManager == null ? 0L : warManager.getRevision();
+            List<ChunkPosition> chunks = visibleChunkCache.get(town, warRevision, visible -> List.copyOf(visibleChunks(visible)));
+            TownSnapshot snapshot = TownSnapshot.of(cityId, town, warManager, chunks);
+            compute(key, () -> {
+                List<MapPolygon> polygons = outlines.update(key, byWorld(snapshot.chunks()));
+                String description = popupCache.get(snapshot.name(), snapshot.revision(), snapshot.warRevision(),
+                        () -> TownPopupFormatter.buildDescription(snapshot));
+                return () -> renderer.upsertCity(cityId, snapshot.name(), description, polygons, snapshot.colorHex(), snapshot.capital());
+            });
+        }
+    }
+
+    private void flushOccupations() {
+        Map<String, Set<ChunkPosition>> occupied = collectOccupied();
+        for (String controller : new ArrayList<>(dirtyOccupations)) {
+            String occupationId = occupationId(controller);
+            String controllerId = controllerId(controller);
+            if (inFlight.contains(occupationId)) {
+                continue;
+            }
+            dirtyOccupations.remove(controller);
+            Set<ChunkPosition> chunks = occupied.get(controller);
+            if (chunks == null || chunks.isEmpty()) {
+                if (knownOccupations.remove(occupationId)) {
+                    outlines.remove(occupationId);
+                    operations.add(() -> renderer.removeOccupied(controllerId));
                 }
-                handleOccupation(conflict.getAttacker(), conflict.getAttackerOccupied(), active);
-                handleOccupation(conflict.getDefender(), conflict.getDefenderOccupied(), active);
+                continue;
             }
+            knownOccupations.add(occupationId);
+            Town town = townManager.getTownByName(controller);
+            String name = town == null ? controller : town.getName();
+            String color = town == null ? "#FFD700" : town.getMapColor();
+            compute(occupationId, () -> {
+                List<MapPolygon> polygons = outlines.update(occupationId, byWorld(chunks));
+                return () -> renderer.upsertOccupied(controllerId, name, polygons, color);
+            });
         }
-        Set<String> stale = new HashSet<>(knownOccupations);
-        stale.removeAll(active);
-        for (String removed : stale) {
-            renderer.removeOccupied(removed);
+    }
+
+    /**
+     * Runs the computation on a worker and queues its renderer call; inline without workers.
+     */
+    private void compute(String key, Supplier<Runnable> computation) {
+        if (workers == null) {
+            operations.add(computation.get());
+            return;
+        }
+        inFlight.add(key);
+        try {
+            workers.execute(() -> {
+                Runnable operation = null;
+                try {
+                    operation = computation.get();
+                } catch (RuntimeException e) {
+                    outlines.remove(key);
+                    plugin.getLogger().warning("Не удалось подготовить слой карты " + key + ": " + e.getMessage());
+                }
+                Runnable result = operation;
+                operations.add(() -> {
+                    if (result != null) {
+                        result.run();
+                    }
+                    finished(key);
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
         }
-        knownOccupations.clear();
-        knownOccupations.addAll(active);
     }
 
-    public void refreshCaptures() {
-        Set<String> active = new HashSet<>();
+    private void finished(String key) {
+        inFlight.remove(key);
+        if (!dirtyTowns.isEmpty() || !dirtyOccupations.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    private void applyOperations() {
+        for (int i = 0; i < operationsPerTick; i++) {
+            Runnable operation = operations.poll();
+            if (operation == null) {
+                return;
+            }
+            apply(operation);
+        }
+    }
+
+    private void drainOperations() {
+        Runnable operation;
+        while ((operation = operations.poll()) != null) {
+            apply(operation);
+        }
+    }
+
+    private void apply(Runnable operation) {
+        try {
+            operation.run();
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Ошибка обновления карты: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Occupied chunks per controller (lowercased) over every war that has not ended yet, copied so
+     * workers never see the live sets.
+     */
+    private Map<String, Set<ChunkPosition>> collectOccupied() {
+        Map<String, Set<ChunkPosition>> occupied = new HashMap<>();
+        if (warManager == null) {
+            return occupied;
+        }
+        for (WarConflict conflict : new HashSet<>(warManager.getConflicts())) {
+            if (conflict.getStatus() == WarStatus.ENDED) {
+                continue;
+            }
+            collect(occupied, conflict.getAttacker(), conflict.getAttackerOccupied());
+            collect(occupied, conflict.getDefender(), conflict.getDefenderOccupied());
+        }
+        return occupied;
+    }
+
+    private void collect(Map<String, Set<ChunkPosition>> occupied, String controller, Set<ChunkPosition> chunks) {
+        if (controller == null || chunks == null) {
+            return;
+        }
+        occupied.computeIfAbsent(controller.toLowerCase(Locale.ROOT), k -> new HashSet<>()).addAll(chunks);
+    }
+
+    /**
+     * Capture flags are few, so the active set is always rebuilt on the main thread; only flags
+     * that were marked or are new are pushed to the renderer, and vanished ones are removed.
+     */
+    private void flushCaptures() {
+        Map<String, WarFlag> active = new HashMap<>();
         if (warManager != null) {
             for (WarConflict conflict : new HashSet<>(warManager.getConflicts())) {
                 if (conflict.getStatus() != WarStatus.ACTIVE) {
                     continue;
                 }
                 for (WarFlag flag : new ArrayList<>(conflict.getActiveFlags())) {
-                    ChunkPosition chunk = flag.getChunk();
-                    if (chunk == null) {
-                        continue;
+                    if (flag.getChunk() != null) {
+                        active.put(captureId(flag.getChunk()), flag);
                     }
-                    String id = captureId(chunk);
-                    active.add(id);
-                    renderer.upsertCaptureFlag(id, flag.getOwningTown(), chunk);
                 }
             }
         }
-        Set<String> stale = new HashSet<>(knownCaptures);
-        stale.removeAll(active);
-        for (String removed : stale) {
-            renderer.removeCaptureFlag(removed);
-        }
-        knownCaptures.clear();
-        knownCaptures.addAll(active);
-    }
-
-    private void handleOccupation(String controller, Set<ChunkPosition> chunks, Set<String> active) {
-        if (chunks == null) {
-            return;
+        for (Map.Entry<String, WarFlag> entry : active.entrySet()) {
+            String id = entry.getKey();
+            if (knownCaptures.add(id) || dirtyCaptures.contains(id)) {
+                String owner = entry.getValue().getOwningTown();
+                ChunkPosition chunk = entry.getValue().getChunk();
+                operations.add(() -> renderer.upsertCaptureFlag(id, owner, chunk));
+            }
         }
-        String occupationId = occupationId(controller);
-        active.add(occupationId);
-        Map<String, Set<ChunkPosition>> byWorld = byWorld(chunks);
-        String color = townColor(controller);
-        if (byWorld.isEmpty()) {
-            renderer.removeOccupied(occupationId);
-            return;
+        dirtyCaptures.clear();
+        for (String id : new ArrayList<>(knownCaptures)) {
+            if (!active.containsKey(id)) {
+                knownCaptures.remove(id);
+                operations.add(() -> renderer.removeCaptureFlag(id));
+            }
         }
-        renderer.upsertOccupiedChunks(occupationId, controller, byWorld, color);
     }
 
-    private String townColor(String townName) {
-        Town town = townManager.getTownByName(townName);
-        return town == null ? "#FFD700" : town.getMapColor();
-    }
-
-    private Set<ChunkPosition> visibleChunks(Town town) {
-        Set<ChunkPosition> visible = new HashSet<>();
+    private List<ChunkPosition> visibleChunks(Town town) {
+        List<ChunkPosition> visible = new ArrayList<>();
         if (town == null || town.getChunks() == null) {
             return visible;
         }
@@ -165,7 +455,7 @@ public class MapService {
         return visible;
     }
 
-    private Map<String, Set<ChunkPosition>> byWorld(Set<ChunkPosition> chunks) {
+    private static Map<String, Set<ChunkPosition>> byWorld(Collection<ChunkPosition> chunks) {
         Map<String, Set<ChunkPosition>> grouped = new HashMap<>();
         if (chunks == null) {
             return grouped;
@@ -180,8 +470,20 @@ public class MapService {
         return (name == null ? "unknown" : name).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_-]", "_");
     }
 
+    private String cityKey(String cityId) {
+        return "city_" + cityId;
+    }
+
+    /**
+     * Key of an occupation layer in the outline cache and the in-flight set. Renderers get the bare
+     * {@link #controllerId} and prefix it themselves.
+     */
     private String occupationId(String controller) {
-        return "occupied_" + cityId(controller == null ? "unknown" : controller);
+        return "occupied_" + controllerId(controller);
+    }
+
+    private String controllerId(String controller) {
+        return cityId(controller == null ? "unknown" : controller);
     }
 
     private String captureId(ChunkPosition position) {
@@ -190,4 +492,4 @@ public class MapService {
         }
         return String.format("capture_%s_%d_%d", position.getWorld(), position.getX(), position.getZ());
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.simpletown.service;
 
 import com.simpletown.data.PlotData;
+import com.simpletown.data.Town;
 import com.simpletown.data.TownFlag;
 import com.simpletown.data.TownManager;
 import net.md_5.bungee.api.ChatColor;
@@ -37,7 +38,7 @@ public class PlotSettingsMenuManager implements Listener {
         this.messages = messages;
     }
 
-    public void open(Player player, PlotData plot) {
+    public void open(Player player, Town town, PlotData plot) {
         Inventory inventory = createInventory(messages.get("plot.settings.title"));
         Map<Integer, SettingEntry> entries = new HashMap<>();
         int slot = 1;
@@ -47,7 +48,7 @@ public class PlotSettingsMenuManager implements Listener {
                     flag.getIcon(),
                     () -> plot.getFlags().isEnabled(flag),
                     value -> plot.getFlags().set(flag, value),
-                    townManager::save
+                    () -> townManager.save(town, plot)
             ));
             inventory.setItem(slot, createSettingItem(flag.getDisplayName(), flag.getIcon(), plot.getFlags().isEnabled(flag)));
             slot++;
@@ -47,6 +47,8 @@ public class ProgressionMenuManager implements Listener {
     private final MessageService messages;
     private final SimpleTownPlugin plugin;
     private final PoliticalScoreService politicalScoreService;
+    private final TownCache<Map<Integer, ItemStack>> ageItems = new TownCache<>();
+    private final TownCache<Map<Integer, ItemStack>> buildItems = new TownCache<>();
 
     private static final Map<AgeTier, Integer> AGE_SLOTS = Map.of(
             AgeTier.AGE1, 0,
@@ -84,6 +86,15 @@ public class ProgressionMenuManager implements Listener {
 
     public void openAgeMenu(Player player, Town town) {
         Inventory inv = Bukkit.createInventory(new MenuHolder(MenuType.AGE, town), 36, "Века");
+        ageItems.get(town, 0L, this::createAgeItems).forEach(inv::setItem);
+        player.openInventory(inv);
+    }
+
+    /**
+     * Requirement checks and lore for every age, rebuilt only when the town's revision changes.
+     */
+    private Map<Integer, ItemStack> createAgeItems(Town town) {
+        Map<Integer, ItemStack> items = new HashMap<>();
         for (AgeTier tier : AgeTier.values()) {
             ItemStack item = new ItemStack(tier.getIcon());
             ItemMeta meta = item.getItemMeta();
@@ -122,14 +133,20 @@ public class ProgressionMenuManager implements Listener {
             item.setItemMeta(meta);
             Integer slot = AGE_SLOTS.get(tier);
             if (slot != null) {
-                inv.setItem(slot, item);
+                items.put(slot, item);
             }
         }
-        player.openInventory(inv);
+        return Collections.unmodifiableMap(items);
     }
 
     public void openBuildMenu(Player player, Town town) {
         Inventory inv = Bukkit.createInventory(new MenuHolder(MenuType.BUILD, town), 45, "Городские здания");
+        buildItems.get(town, 0L, this::createBuildItems).forEach(inv::setItem);
+        player.openInventory(inv);
+    }
+
+    private Map<Integer, ItemStack> createBuildItems(Town town) {
+        Map<Integer, ItemStack> items = new HashMap<>();
         for (BuildingType type : BuildingType.values()) {
             int level = town.getBuildingLevel(type);
             ItemStack item = new ItemStack(resolveIcon(type, level));
@@ -161,9 +178,9 @@ public class ProgressionMenuManager implements Listener {
             meta.setLore(lore);
             item.setItemMeta(meta);
             int slot = BUILD_SLOTS.getOrDefault(type, 4);
-            inv.setItem(slot, item);
+            items.put(slot, item);
         }
-        player.openInventory(inv);
+        return Collections.unmodifiableMap(items);
     }
 
     @EventHandler
@@ -45,7 +45,7 @@ public class SettingsMenuManager implements Listener {
                     flag.getIcon(),
                     () -> town.getCitizenFlags().isEnabled(flag),
                     value -> town.getCitizenFlags().set(flag, value),
-                    townManager::save,
+                    () -> townManager.save(town),
                     editable
             ));
             inventory.setItem(slot, createSettingItem(flag.getDisplayName(), flag.getIcon(), town.getCitizenFlags().isEnabled(flag)));
@@ -56,7 +56,7 @@ public class SettingsMenuManager implements Listener {
                 Material.OAK_DOOR,
                 town::isOpen,
                 town::setOpen,
-                townManager::save,
+                () -> townManager.save(town),
                 editable
         ));
         inventory.setItem(slot, createSettingItem(messages.get("settings.label.open"), Material.OAK_DOOR, town.isOpen()));
@@ -75,7 +75,7 @@ public class SettingsMenuManager implements Listener {
                     flag.getIcon(),
                     () -> town.getOutsiderFlags().isEnabled(flag),
                     value -> town.getOutsiderFlags().set(flag, value),
-                    townManager::save,
+                    () -> townManager.save(town),
                     true
             ));
             inventory.setItem(slot, createSettingItem(flag.getDisplayName(), flag.getIcon(), town.getOutsiderFlags().isEnabled(flag)));
@@ -2,21 +2,30 @@ package com.simpletown.service;
 
 import com.simpletown.data.Town;
 import com.simpletown.data.TownManager;
+import com.simpletown.jobs.JobStats;
 import com.simpletown.jobs.JobType;
 import com.simpletown.jobs.JobsManager;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.Locale;
+
 public class TownPlaceholder extends PlaceholderExpansion {
+    private static final DecimalFormat FORMAT = new DecimalFormat("#0.##");
+
     private final TownManager townManager;
     private final JobsManager jobsManager;
     private final MessageService messages;
+    private final JobStats jobStats;
 
-    public TownPlaceholder(TownManager townManager, JobsManager jobsManager, MessageService messages) {
+    public TownPlaceholder(TownManager townManager, JobsManager jobsManager, MessageService messages, JobStats jobStats) {
         this.townManager = townManager;
         this.jobsManager = jobsManager;
         this.messages = messages;
+        this.jobStats = jobStats;
     }
 
     @Override
@@ -46,6 +55,11 @@ public class TownPlaceholder extends PlaceholderExpansion {
 
     @Override
     public String onRequest(OfflinePlayer player, @NotNull String params) {
+        String lower = params.toLowerCase(Locale.ROOT);
+        if (lower.startsWith("jobs_top_")) {
+            return jobTop(lower.split("_"));
+        }
+
         if (player == null || player.getName() == null || player.getUniqueId() == null) {
             return null;
         }
@@ -65,6 +79,61 @@ public class TownPlaceholder extends PlaceholderExpansion {
             return jobName == null ? "-" : jobName;
         }
 
+        if (lower.startsWith("jobs_")) {
+            return jobStat(player, lower.split("_"));
+        }
+
         return null;
     }
+
+    /**
+     * {@code jobs_top_<job>_<place>_<name|blocks|kills|earned>}, which needs no player so that
+     * leaderboards also work on holograms and scoreboards.
+     */
+    private String jobTop(String[] parts) {
+        if (parts.length != 5) {
+            return null;
+        }
+        JobType job = parseJob(parts[2]);
+        if (job == null) {
+            return null;
+        }
+        int place;
+        try {
+            place = Integer.parseInt(parts[3]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        List<JobStats.Entry> leaders = jobStats.getTop(job);
+        return field(place >= 1 && place <= leaders.size() ? leaders.get(place - 1) : null, parts[4]);
+    }
+
+    /**
+     * {@code jobs_<job>_<blocks|kills|earned>} for the player.
+     */
+    private String jobStat(OfflinePlayer player, String[] parts) {
+        if (parts.length != 3) {
+            return null;
+        }
+        JobType job = parseJob(parts[1]);
+        return job == null ? null : field(jobStats.getEntry(player.getUniqueId(), job), parts[2]);
+    }
+
+    private static JobType parseJob(String raw) {
+        try {
+            return JobType.valueOf(raw.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String field(JobStats.Entry entry, String field) {
+        return switch (field) {
+            case "name" -> entry == null ? "-" : entry.name();
+            case "blocks" -> String.valueOf(entry == null ? 0 : entry.blocks());
+            case "kills" -> String.valueOf(entry == null ? 0 : entry.kills());
+            case "earned" -> FORMAT.format(entry == null ? 0.0 : entry.earned());
+            default -> null;
+        };
+    }
 }
\ No newline at end of file
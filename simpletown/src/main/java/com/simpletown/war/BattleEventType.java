@@ -0,0 +1,29 @@
+package com.simpletown.war;
+
+public enum BattleEventType {
+    FLAG_PLACED(1),
+    FLAG_DAMAGED(2),
+    FLAG_DESTROYED(3),
+    CAPTURE(4),
+    KILL(5),
+    DEATH(6);
+
+    private final byte code;
+
+    BattleEventType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static BattleEventType fromCode(byte code) {
+        for (BattleEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
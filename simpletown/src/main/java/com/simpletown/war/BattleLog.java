@@ -0,0 +1,378 @@
+package com.simpletown.war;
+
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.schedule.GuardedTask;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Append-only binary log of war events, one file per conflict in {@code battlelogs/}.
+ * <p>
+ * A file starts with a header (magic, version, start time, attacker and defender names) followed
+ * by fixed 40-byte records: timestamp, event type, side, player UUID, chunk coordinates and a
+ * delta. Records are encoded on the main thread and written by a single background thread, which
+ * buffers them per conflict and flushes every few seconds or when the buffer fills. Reads run on
+ * the same thread after pending writes and stream the file through a small buffer, so a summary
+ * never holds more than the aggregates in memory.
+ * <p>
+ * On startup the headers are read once to index the latest log of every town, and logs of wars
+ * that started more than {@code war.battle-log-retention-days} ago are deleted (0 keeps them all).
+ * New logs are added to the index when they are created.
+ */
+public class BattleLog {
+    static final int RECORD_SIZE = 40;
+    private static final int MAGIC = 0x5354424C;
+    private static final int VERSION = 1;
+    private static final int BUFFER_RECORDS = 1024;
+    private static final long FLUSH_INTERVAL_SECONDS = 5L;
+    private static final int HEADER_PROBE = 1024;
+    private static final long DAY_MS = 24L * 60L * 60L * 1000L;
+
+    private record LatestLog(String fileName, long startedAt) {
+    }
+
+    private static final class OpenLog {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * BUFFER_RECORDS);
+
+        private OpenLog(FileChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final Plugin plugin;
+    private final File directory;
+    private final ScheduledExecutorService writer;
+    private final Map<String, OpenLog> openLogs = new HashMap<>();
+    private final Map<String, LatestLog> latestByTown = new HashMap<>();
+    private final long retentionMs;
+
+    public BattleLog(Plugin plugin) {
+        this.plugin = plugin;
+        this.directory = new File(plugin.getDataFolder(), "battlelogs");
+        this.retentionMs = Math.max(0L, plugin.getConfig().getLong("war.battle-log-retention-days", 30L)) * DAY_MS;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SimpleTown-BattleLog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        submit(this::index);
+        writer.scheduleWithFixedDelay(GuardedTask.of(plugin.getLogger(), "Ошибка журнала боя: ", this::flushAll),
+                FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public void record(WarConflict conflict, BattleEventType type, boolean attackerSide, UUID playerId, ChunkPosition chunk, int delta) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(System.currentTimeMillis());
+        record.put(type.getCode());
+        record.put((byte) (attackerSide ? 0 : 1));
+        record.putShort((short) 0);
+        record.putLong(playerId == null ? 0L : playerId.getMostSignificantBits());
+        record.putLong(playerId == null ? 0L : playerId.getLeastSignificantBits());
+        record.putInt(chunk == null ? 0 : chunk.getX());
+        record.putInt(chunk == null ? 0 : chunk.getZ());
+        record.putInt(delta);
+        record.flip();
+        String fileName = fileName(conflict);
+        String attacker = conflict.getAttacker();
+        String defender = conflict.getDefender();
+        long startedAt = conflict.getPreparationEndsAt();
+        submit(() -> append(fileName, attacker, defender, startedAt, record));
+    }
+
+    public void close(WarConflict conflict) {
+        String fileName = fileName(conflict);
+        submit(() -> closeLog(fileName));
+    }
+
+    public void summarize(WarConflict conflict, Consumer<BattleSummary> callback) {
+        String fileName = fileName(conflict);
+        submit(() -> {
+            flush(fileName);
+            File file = new File(directory, fileName);
+            deliver(file.exists() ? read(file) : null, callback);
+        });
+    }
+
+    /**
+     * Summary of the most recent war the town took part in, or {@code null} when it has no log.
+     */
+    public void summarizeLatest(String townName, Consumer<BattleSummary> callback) {
+        String key = townName.toLowerCase(Locale.ROOT);
+        submit(() -> {
+            LatestLog latest = latestByTown.get(key);
+            if (latest == null) {
+                deliver(null, callback);
+                return;
+            }
+            flush(latest.fileName());
+            File file = new File(directory, latest.fileName());
+            deliver(file.exists() ? read(file) : null, callback);
+        });
+    }
+
+    public void shutdown() {
+        submit(() -> {
+            for (String fileName : openLogs.keySet().toArray(new String[0])) {
+                closeLog(fileName);
+            }
+        });
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(Runnable task) {
+        if (writer.isShutdown()) {
+            return;
+        }
+        writer.execute(GuardedTask.of(plugin.getLogger(), "Ошибка журнала боя: ", task));
+    }
+
+    private void index() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".bin"));
+        if (files == null) {
+            return;
+        }
+        long cutoff = retentionMs > 0 ? System.currentTimeMillis() - retentionMs : Long.MIN_VALUE;
+        int deleted = 0;
+        for (File file : files) {
+            BattleSummary header = readHeader(file);
+            if (header == null) {
+                continue;
+            }
+            if (header.getStartedAt() < cutoff && !openLogs.containsKey(file.getName())) {
+                if (file.delete()) {
+                    deleted++;
+                }
+                continue;
+            }
+            remember(header.getAttacker(), header.getDefender(), file.getName(), header.getStartedAt());
+        }
+        if (deleted > 0) {
+            plugin.getLogger().info("Удалено старых журналов боя: " + deleted);
+        }
+    }
+
+    private void remember(String attacker, String defender, String fileName, long startedAt) {
+        LatestLog log = new LatestLog(fileName, startedAt);
+        for (String town : new String[]{attacker, defender}) {
+            latestByTown.merge(town.toLowerCase(Locale.ROOT), log,
+                    (current, candidate) -> candidate.startedAt() > current.startedAt() ? candidate : current);
+        }
+    }
+
+    private void deliver(BattleSummary summary, Consumer<BattleSummary> callback) {
+        if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, () -> callback.accept(summary));
+        }
+    }
+
+    private void append(String fileName, String attacker, String defender, long startedAt, ByteBuffer record) {
+        OpenLog log = openLogs.get(fileName);
+        if (log == null) {
+            log = open(fileName, attacker, defender, startedAt);
+            if (log == null) {
+                return;
+            }
+            openLogs.put(fileName, log);
+        }
+        if (log.buffer.remaining() < RECORD_SIZE) {
+            write(fileName, log);
+        }
+        log.buffer.put(record);
+    }
+
+    private OpenLog open(String fileName, String attacker, String defender, long startedAt) {
+        try {
+            directory.mkdirs();
+            File file = new File(directory, fileName);
+            boolean fresh = !file.exists() || file.length() == 0;
+            if (!fresh) {
+                dropPartialRecord(file);
+            }
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (fresh) {
+                byte[] attackerBytes = attacker.getBytes(StandardCharsets.UTF_8);
+                byte[] defenderBytes = defender.getBytes(StandardCharsets.UTF_8);
+                ByteBuffer header = ByteBuffer.allocate(20 + attackerBytes.length + defenderBytes.length);
+                header.putInt(MAGIC);
+                header.putInt(VERSION);
+                header.putLong(startedAt);
+                header.putShort((short) attackerBytes.length).put(attackerBytes);
+                header.putShort((short) defenderBytes.length).put(defenderBytes);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                remember(attacker, defender, fileName, startedAt);
+            }
+            return new OpenLog(channel);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Не удалось открыть журнал боя " + fileName + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * A crash in the middle of a write can leave a torn record at the end; cut it off so appended
+     * records stay aligned.
+     */
+    private void dropPartialRecord(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_PROBE);
+            if (readHeader(channel, buffer) == null) {
+                return;
+            }
+            long excess = (channel.size() - buffer.position()) % RECORD_SIZE;
+            if (excess != 0) {
+                channel.truncate(channel.size() - excess);
+            }
+        }
+    }
+
+    private void write(String fileName, OpenLog log) {
+        log.buffer.flip();
+        try {
+            while (log.buffer.hasRemaining()) {
+                log.channel.write(log.buffer);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Не удалось записать журнал боя " + fileName + ": " + e.getMessage());
+        }
+        log.buffer.clear();
+    }
+
+    private void flush(String fileName) {
+        OpenLog log = openLogs.get(fileName);
+        if (log != null && log.buffer.position() > 0) {
+            write(fileName, log);
+        }
+    }
+
+    private void flushAll() {
+        for (String fileName : openLogs.keySet()) {
+            flush(fileName);
+        }
+    }
+
+    private void closeLog(String fileName) {
+        flush(fileName);
+        OpenLog log = openLogs.remove(fileName);
+        if (log == null) {
+            return;
+        }
+        try {
+            log.channel.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Не удалось закрыть журнал боя " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    private BattleSummary readHeader(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return readHeader(channel, ByteBuffer.allocate(HEADER_PROBE));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private BattleSummary read(File file) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * BUFFER_RECORDS);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            BattleSummary summary = readHeader(channel, buffer);
+            if (summary == null) {
+                return null;
+            }
+            do {
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    long timestamp = buffer.getLong();
+                    BattleEventType type = BattleEventType.fromCode(buffer.get());
+                    boolean attackerSide = buffer.get() == 0;
+                    buffer.getShort();
+                    long most = buffer.getLong();
+                    long least = buffer.getLong();
+                    buffer.getInt();
+                    buffer.getInt();
+                    int delta = buffer.getInt();
+                    if (type != null) {
+                        summary.accept(timestamp, type, attackerSide, most == 0L && least == 0L ? null : new UUID(most, least), delta);
+                    }
+                }
+                buffer.compact();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read < 0) {
+                    break;
+                }
+            } while (true);
+            return summary;
+        } catch (IOException e) {
+            plugin.getLogger().warning("Не удалось прочитать журнал боя " + file.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the header and leaves the buffer in read mode positioned at the first record.
+     */
+    private BattleSummary readHeader(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        if (buffer.remaining() < 20 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        long startedAt = buffer.getLong();
+        String attacker = readName(buffer);
+        String defender = readName(buffer);
+        if (attacker == null || defender == null) {
+            return null;
+        }
+        return new BattleSummary(attacker, defender, startedAt);
+    }
+
+    private String readName(ByteBuffer buffer) {
+        if (buffer.remaining() < 2) {
+            return null;
+        }
+        int length = buffer.getShort();
+        if (length < 0 || buffer.remaining() < length) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * ASCII-only name, so Cyrillic town names do not depend on the server's file name encoding;
+     * the names themselves are kept in the header.
+     */
+    private static String fileName(WarConflict conflict) {
+        String pair = (conflict.getAttacker() + "|" + conflict.getDefender()).toLowerCase(Locale.ROOT);
+        return conflict.getPreparationEndsAt() + "-" + Integer.toHexString(pair.hashCode()) + ".bin";
+    }
+}
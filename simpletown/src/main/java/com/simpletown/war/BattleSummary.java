@@ -0,0 +1,125 @@
+package com.simpletown.war;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * Aggregates of one battle log, built record by record so memory grows with the number of
+ * participants rather than the number of events.
+ */
+public class BattleSummary {
+    public static class PlayerStats {
+        private final UUID playerId;
+        private int kills;
+        private int deaths;
+        private int flagDamage;
+        private int flagsPlaced;
+
+        private PlayerStats(UUID playerId) {
+            this.playerId = playerId;
+        }
+
+        public UUID getPlayerId() {
+            return playerId;
+        }
+
+        public int getKills() {
+            return kills;
+        }
+
+        public int getDeaths() {
+            return deaths;
+        }
+
+        public int getFlagDamage() {
+            return flagDamage;
+        }
+
+        public int getFlagsPlaced() {
+            return flagsPlaced;
+        }
+    }
+
+    private final String attacker;
+    private final String defender;
+    private final long startedAt;
+    private final Map<BattleEventType, Integer> counts = new EnumMap<>(BattleEventType.class);
+    private final Map<UUID, PlayerStats> players = new HashMap<>();
+    private int attackerPoints;
+    private int defenderPoints;
+    private long lastEventAt;
+
+    public BattleSummary(String attacker, String defender, long startedAt) {
+        this.attacker = attacker;
+        this.defender = defender;
+        this.startedAt = startedAt;
+    }
+
+    void accept(long timestamp, BattleEventType type, boolean attackerSide, UUID playerId, int delta) {
+        counts.merge(type, 1, Integer::sum);
+        lastEventAt = Math.max(lastEventAt, timestamp);
+        if (type == BattleEventType.KILL || type == BattleEventType.CAPTURE) {
+            if (attackerSide) {
+                attackerPoints += delta;
+            } else {
+                defenderPoints += delta;
+            }
+        }
+        if (playerId == null) {
+            return;
+        }
+        PlayerStats stats = players.computeIfAbsent(playerId, PlayerStats::new);
+        switch (type) {
+            case KILL -> stats.kills++;
+            case DEATH -> stats.deaths++;
+            case FLAG_DAMAGED -> stats.flagDamage += delta;
+            case FLAG_PLACED -> stats.flagsPlaced++;
+            default -> {
+            }
+        }
+    }
+
+    public String getAttacker() {
+        return attacker;
+    }
+
+    public String getDefender() {
+        return defender;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public long getLastEventAt() {
+        return lastEventAt;
+    }
+
+    public int getCount(BattleEventType type) {
+        return counts.getOrDefault(type, 0);
+    }
+
+    /**
+     * Points gained from kills and captures during the war, not the final score.
+     */
+    public int getAttackerPoints() {
+        return attackerPoints;
+    }
+
+    public int getDefenderPoints() {
+        return defenderPoints;
+    }
+
+    public List<PlayerStats> top(ToIntFunction<PlayerStats> metric, int limit) {
+        return players.values().stream()
+                .filter(stats -> metric.applyAsInt(stats) > 0)
+                .sorted(Comparator.comparingInt(metric).reversed())
+                .limit(limit)
+                .toList();
+    }
+}
@@ -0,0 +1,152 @@
+package com.simpletown.war;
+
+import com.simpletown.data.ChunkPosition;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.TextDisplay;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Floating text above war flags, backed by non-persistent {@link TextDisplay} entities.
+ * <p>
+ * Displays are cached per flag chunk. They are dropped when the chunk unloads, because
+ * non-persistent entities go with it, and spawned again on chunk load, so flags in unloaded
+ * chunks never force a chunk load. Updates are coalesced: {@link #markDirty(WarFlag)} queues the
+ * flag, and one flush per tick rewrites the text only if the shown health or whole seconds changed.
+ */
+public class FlagHologramService implements Listener {
+    private static final double HEIGHT_OFFSET = 2.25;
+
+    private final Plugin plugin;
+    private final Function<WarFlag, String> textBuilder;
+    private final Map<ChunkPosition, WarFlag> flags = new HashMap<>();
+    private final Map<ChunkPosition, TextDisplay> displays = new HashMap<>();
+    private final Map<ChunkPosition, Long> shownState = new HashMap<>();
+    private final Set<WarFlag> dirty = new LinkedHashSet<>();
+    private boolean flushScheduled;
+
+    public FlagHologramService(Plugin plugin, Function<WarFlag, String> textBuilder) {
+        this.plugin = plugin;
+        this.textBuilder = textBuilder;
+    }
+
+    public void show(WarFlag flag) {
+        remove(flag);
+        flags.put(flag.getChunk(), flag);
+        World world = Bukkit.getWorld(flag.getWorldName());
+        if (world != null && world.isChunkLoaded(flag.getChunk().getX(), flag.getChunk().getZ())) {
+            spawn(flag, world);
+        }
+    }
+
+    public void markDirty(WarFlag flag) {
+        if (!flags.containsKey(flag.getChunk())) {
+            return;
+        }
+        dirty.add(flag);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            Bukkit.getScheduler().runTask(plugin, this::flush);
+        }
+    }
+
+    public void remove(WarFlag flag) {
+        ChunkPosition chunk = flag.getChunk();
+        if (!flags.remove(chunk, flag)) {
+            return;
+        }
+        dirty.remove(flag);
+        shownState.remove(chunk);
+        TextDisplay display = displays.remove(chunk);
+        if (display != null && display.isValid()) {
+            display.remove();
+        }
+        flag.setHologramId(null);
+    }
+
+    public void clearAll() {
+        for (WarFlag flag : new ArrayList<>(flags.values())) {
+            remove(flag);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (flags.isEmpty()) {
+            return;
+        }
+        WarFlag flag = flags.get(ChunkPosition.fromChunk(event.getChunk()));
+        if (flag != null) {
+            spawn(flag, event.getWorld());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        if (displays.isEmpty()) {
+            return;
+        }
+        ChunkPosition chunk = ChunkPosition.fromChunk(event.getChunk());
+        TextDisplay display = displays.remove(chunk);
+        if (display != null) {
+            shownState.remove(chunk);
+            display.remove();
+        }
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        for (WarFlag flag : dirty) {
+            ChunkPosition chunk = flag.getChunk();
+            TextDisplay display = displays.get(chunk);
+            if (display == null || !display.isValid()) {
+                continue;
+            }
+            long state = displayState(flag);
+            Long shown = shownState.get(chunk);
+            if (shown != null && shown == state) {
+                continue;
+            }
+            display.setText(textBuilder.apply(flag));
+            shownState.put(chunk, state);
+        }
+        dirty.clear();
+    }
+
+    private void spawn(WarFlag flag, World world) {
+        TextDisplay previous = displays.remove(flag.getChunk());
+        if (previous != null && previous.isValid()) {
+            previous.remove();
+        }
+        Location location = new Location(world, flag.getX() + 0.5, flag.getY() + HEIGHT_OFFSET, flag.getZ() + 0.5);
+        TextDisplay display = world.spawn(location, TextDisplay.class, text -> {
+            text.setPersistent(false);
+            text.setBillboard(Display.Billboard.CENTER);
+            text.setSeeThrough(true);
+            text.setShadowed(true);
+            text.setText(textBuilder.apply(flag));
+        });
+        displays.put(flag.getChunk(), display);
+        shownState.put(flag.getChunk(), displayState(flag));
+        flag.setHologramId(display.getUniqueId());
+    }
+
+    private long displayState(WarFlag flag) {
+        long seconds = Math.max(0, (flag.getRemainingCaptureMs() + 999) / 1000);
+        return ((long) flag.getHealth() << 32) | (seconds & 0xffffffffL);
+    }
+}
@@ -32,19 +32,109 @@ public class WarInfoMenuManager implements Listener {
         }
     }
 
+    private static final int LEADERBOARD_SIZE = 5;
+
     private final MessageService messages;
+    private final BattleLog battleLog;
     private final Map<Inventory, WarConflict> inventories = new HashMap<>();
 
-    public WarInfoMenuManager(MessageService messages) {
+    public WarInfoMenuManager(MessageService messages, BattleLog battleLog) {
         this.messages = messages;
+        this.battleLog = battleLog;
     }
 
     public void open(Player player, WarConflict conflict, Town attacker, Town defender) {
-        Inventory inventory = Bukkit.createInventory(new WarInfoHolder(conflict), 9, ChatColor.DARK_RED + "Очки войны");
-        inventory.setItem(3, createInfoItem(attacker, conflict.getAttackerPoints()));
-        inventory.setItem(5, createInfoItem(defender, conflict.getDefenderPoints()));
-        inventories.put(inventory, conflict);
-        player.openInventory(inventory);
+        battleLog.summarize(conflict, summary -> {
+            if (!player.isOnline()) {
+                return;
+            }
+            Inventory inventory = Bukkit.createInventory(new WarInfoHolder(conflict), 9, ChatColor.DARK_RED + "Очки войны");
+            inventory.setItem(1, createInfoItem(attacker, conflict.getAttackerPoints()));
+            inventory.setItem(3, createSummaryItem(summary));
+            inventory.setItem(5, createLeadersItem(summary));
+            inventory.setItem(7, createInfoItem(defender, conflict.getDefenderPoints()));
+            inventories.put(inventory, conflict);
+            player.openInventory(inventory);
+        });
+    }
+
+    public void openLatest(Player player, Town town) {
+        battleLog.summarizeLatest(town.getName(), summary -> {
+            if (!player.isOnline()) {
+                return;
+            }
+            if (summary == null) {
+                messages.sendError(player, "war.no-war");
+                return;
+            }
+            Inventory inventory = Bukkit.createInventory(new WarInfoHolder(null), 9, ChatColor.DARK_RED + "Итоги войны");
+            inventory.setItem(3, createSummaryItem(summary));
+            inventory.setItem(5, createLeadersItem(summary));
+            inventories.put(inventory, null);
+            player.openInventory(inventory);
+        });
+    }
+
+    private ItemStack createSummaryItem(BattleSummary summary) {
+        ItemStack stack = new ItemStack(Material.WRITABLE_BOOK);
+        ItemMeta meta = stack.getItemMeta();
+        meta.setDisplayName(ChatColor.GOLD + "" + ChatColor.BOLD + messages.get("war.info.summary.title"));
+        List<String> lore = new ArrayList<>();
+        if (summary == null) {
+            lore.add(ChatColor.GRAY + messages.get("war.info.summary.empty"));
+        } else {
+            lore.add(ChatColor.YELLOW + messages.format("war.info.summary.versus", Map.of(
+                    "attacker", summary.getAttacker(), "defender", summary.getDefender())));
+            lore.add(ChatColor.GRAY + messages.format("war.info.summary.kills", Map.of(
+                    "count", String.valueOf(summary.getCount(BattleEventType.KILL)))));
+            lore.add(ChatColor.GRAY + messages.format("war.info.summary.flags", Map.of(
+                    "placed", String.valueOf(summary.getCount(BattleEventType.FLAG_PLACED)),
+                    "destroyed", String.valueOf(summary.getCount(BattleEventType.FLAG_DESTROYED)))));
+            lore.add(ChatColor.GRAY + messages.format("war.info.summary.flag-damage", Map.of(
+                    "count", String.valueOf(summary.getCount(BattleEventType.FLAG_DAMAGED)))));
+            lore.add(ChatColor.GRAY + messages.format("war.info.summary.captures", Map.of(
+                    "count", String.valueOf(summary.getCount(BattleEventType.CAPTURE)))));
+            lore.add(ChatColor.RED + messages.format("war.info.summary.points", Map.of(
+                    "attacker", summary.getAttacker(),
+                    "attacker-points", String.valueOf(summary.getAttackerPoints()),
+                    "defender", summary.getDefender(),
+                    "defender-points", String.valueOf(summary.getDefenderPoints()))));
+        }
+        meta.setLore(lore);
+        stack.setItemMeta(meta);
+        return stack;
+    }
+
+    private ItemStack createLeadersItem(BattleSummary summary) {
+        ItemStack stack = new ItemStack(Material.GOLDEN_SWORD);
+        ItemMeta meta = stack.getItemMeta();
+        meta.setDisplayName(ChatColor.GOLD + "" + ChatColor.BOLD + messages.get("war.info.leaders.title"));
+        List<String> lore = new ArrayList<>();
+        lore.add(ChatColor.YELLOW + messages.get("war.info.leaders.kills"));
+        addLeaders(lore, summary == null ? List.of() : summary.top(BattleSummary.PlayerStats::getKills, LEADERBOARD_SIZE),
+                BattleSummary.PlayerStats::getKills);
+        lore.add(ChatColor.YELLOW + messages.get("war.info.leaders.flag-damage"));
+        addLeaders(lore, summary == null ? List.of() : summary.top(BattleSummary.PlayerStats::getFlagDamage, LEADERBOARD_SIZE),
+                BattleSummary.PlayerStats::getFlagDamage);
+        meta.setLore(lore);
+        meta.addItemFlags(ItemFlag.HIDE_ATTRIBUTES);
+        stack.setItemMeta(meta);
+        return stack;
+    }
+
+    private void addLeaders(List<String> lore, List<BattleSummary.PlayerStats> leaders, java.util.function.ToIntFunction<BattleSummary.PlayerStats> metric) {
+        if (leaders.isEmpty()) {
+            lore.add(ChatColor.GRAY + messages.get("war.info.leaders.empty"));
+            return;
+        }
+        int place = 1;
+        for (BattleSummary.PlayerStats stats : leaders) {
+            String name = Bukkit.getOfflinePlayer(stats.getPlayerId()).getName();
+            lore.add(ChatColor.GRAY + messages.format("war.info.leaders.line", Map.of(
+                    "place", String.valueOf(place++),
+                    "player", name == null ? "?" : name,
+                    "value", String.valueOf(metric.applyAsInt(stats)))));
+        }
     }
 
     private ItemStack createInfoItem(Town town, int points) {
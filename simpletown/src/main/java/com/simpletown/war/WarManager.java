@@ -3,31 +3,27 @@ package com.simpletown.war;
 import com.simpletown.SimpleTownPlugin;
 import com.simpletown.data.ChunkPosition;
 import com.simpletown.data.Town;
-import com.simpletown.data.TownFlag;
 import com.simpletown.data.TownManager;
+import com.simpletown.movement.ChunkOccupancyIndex;
+import com.simpletown.schedule.DeadlineScheduler;
 import com.simpletown.service.MapService;
 import com.simpletown.service.MessageService;
 import com.simpletown.data.BuildingType;
 import net.milkbowl.vault.economy.Economy;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.entity.ArmorStand;
-import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class WarManager {
     private static final long DEFAULT_WAR_PREPARATION_MS = 10 * 60 * 1000L;
@@ -48,33 +44,43 @@ public class WarManager {
     private static final long DAY_MS = 24 * 60 * 60 * 1000L;
     private static final int REPARATION_DAYS = 7;
     private static final double REPARATION_DAILY_AMOUNT = 100.0;
-    private static final String BUILD_BLOCKED_MESSAGE = "war.build-blocked";
-    private static final String FLAG_BUILD_BLOCKED_MESSAGE = "war.flag-build-blocked";
+    private static final String WAR_START_DEADLINE = "war-start";
+    private static final String REPARATIONS_DEADLINE = "reparations";
     private static final List<String> BLOCKED_COMMANDS = List.of(
             "/t withdraw", "/t delete", "/t kick", "/t leave", "/t claim", "/t unclaim", "/t spawn", "/t set spawn", "/t set center", "/t set color", "/rtp");
 
     private final SimpleTownPlugin plugin;
     private final MessageService messages;
     private final TownManager townManager;
+    private final DeadlineScheduler deadlines;
     private final File storageFile;
     private final Map<String, WarConflict> conflicts = new HashMap<>();
+    private final Set<WarConflict> distinctConflicts = new LinkedHashSet<>();
+    private final Map<ChunkPosition, Occupation> occupationIndex = new HashMap<>();
+    private final Map<ChunkPosition, WarFlag> flagIndex = new HashMap<>();
     private final Map<String, Long> warCooldowns = new HashMap<>();
     private final List<ReparationPlan> reparationPlans = new ArrayList<>();
-    private final Map<String, ChunkPosition> deadPlayers = new HashMap<>();
+    private final FlagHologramService holograms;
     private MapService mapService;
+    private BattleLog battleLog;
+    private ChunkOccupancyIndex occupancyIndex;
     private long warPreparationMs = DEFAULT_WAR_PREPARATION_MS;
     private boolean quietHoursEnabled = true;
+    private long revision;
 
-    public WarManager(SimpleTownPlugin plugin, MessageService messages, TownManager townManager) {
+    public WarManager(SimpleTownPlugin plugin, MessageService messages, TownManager townManager, DeadlineScheduler deadlines) {
         this.plugin = plugin;
         this.messages = messages;
         this.townManager = townManager;
+        this.deadlines = deadlines;
         this.storageFile = new File(plugin.getDataFolder(), "wars.yml");
+        this.holograms = new FlagHologramService(plugin, this::buildHologramText);
         reloadPreparationTime();
         reloadQuietHours();
+        deadlines.registerHandler(WAR_START_DEADLINE, this::beginPreparedWar);
+        deadlines.registerHandler(REPARATIONS_DEADLINE, subject -> tickReparations());
         load();
         Bukkit.getScheduler().runTaskTimer(plugin, this::tickFlags, 20L, 20L);
-        Bukkit.getScheduler().runTaskTimer(plugin, this::tickReparations, 20L * 60, 20L * 60);
     }
 
     public boolean isPactPending(WarConflict conflict) {
@@ -88,6 +94,18 @@ public class WarManager {
         }
     }
 
+    public FlagHologramService getHologramService() {
+        return holograms;
+    }
+
+    public void setOccupancyIndex(ChunkOccupancyIndex occupancyIndex) {
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    public void setBattleLog(BattleLog battleLog) {
+        this.battleLog = battleLog;
+    }
+
     public void setMapService(MapService mapService) {
         this.mapService = mapService;
         refreshMap();
@@ -96,10 +114,11 @@ public class WarManager {
     public void reload() {
         reloadPreparationTime();
         reloadQuietHours();
-        clearAllHolograms();
-        conflicts.clear();
+        holograms.clearAll();
+        clearConflicts();
         warCooldowns.clear();
         load();
+        revision++;
         refreshMap();
     }
 
@@ -107,6 +126,10 @@ public class WarManager {
         return getDistinctConflicts();
     }
 
+    public boolean hasConflicts() {
+        return !conflicts.isEmpty();
+    }
+
     public Optional<WarConflict> getConflictForTown(String townName) {
         if (townName == null) {
             return Optional.empty();
@@ -182,15 +205,27 @@ public class WarManager {
         conflict.addDefenderPoints(startingPoints(defender));
         registerConflict(conflict);
         announcePreparation(conflict);
-        scheduleTransition(conflict, warPreparationMs, WarStatus.ACTIVE, () -> {
-            messages.broadcast("war.started", Map.of(
-                    "attacker", conflict.getAttacker(),
-                    "defender", conflict.getDefender()
-            ));
-        });
+        deadlines.schedule(WAR_START_DEADLINE, conflictKey(conflict), conflict.getPreparationEndsAt());
         return true;
     }
 
+    private void beginPreparedWar(String key) {
+        WarConflict conflict = conflicts.get(key);
+        if (conflict == null || conflict.getStatus() != WarStatus.PREPARATION) {
+            return;
+        }
+        setStatus(conflict, WarStatus.ACTIVE);
+        save();
+        messages.broadcast("war.started", Map.of(
+                "attacker", conflict.getAttacker(),
+                "defender", conflict.getDefender()
+        ));
+    }
+
+    private String conflictKey(WarConflict conflict) {
+        return conflict.getAttacker().toLowerCase(Locale.ROOT);
+    }
+
     private boolean canStart(Player initiator, Town attacker, Town defender) {
         if (attacker == null || defender == null) {
             return false;
@@ -214,22 +249,62 @@ public class WarManager {
     }
 
     private boolean targetOnline(Town town) {
-        return Bukkit.getOnlinePlayers().stream().anyMatch(p -> town.isMember(p.getName()));
+        return occupancyIndex.getOnlineMembers(town) > 0;
     }
 
     private void registerConflict(WarConflict conflict) {
         conflicts.put(conflict.getAttacker().toLowerCase(Locale.ROOT), conflict);
         conflicts.put(conflict.getDefender().toLowerCase(Locale.ROOT), conflict);
+        indexConflict(conflict);
+        revision++;
         save();
     }
 
-    private void scheduleTransition(WarConflict conflict, long delayMs, WarStatus targetStatus, Runnable callback) {
-        long ticks = Math.max(1L, delayMs / 50L);
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            conflict.setStatus(targetStatus);
-            save();
-            callback.run();
-        }, ticks);
+    private void indexConflict(WarConflict conflict) {
+        distinctConflicts.add(conflict);
+        for (ChunkPosition position : conflict.getAttackerOccupied()) {
+            occupationIndex.put(position, new Occupation(conflict, conflict.getAttacker()));
+        }
+        for (ChunkPosition position : conflict.getDefenderOccupied()) {
+            occupationIndex.put(position, new Occupation(conflict, conflict.getDefender()));
+        }
+        for (WarFlag flag : conflict.getActiveFlags()) {
+            flagIndex.put(flag.getChunk(), flag);
+        }
+    }
+
+    private void unindexConflict(WarConflict conflict) {
+        distinctConflicts.remove(conflict);
+        occupationIndex.values().removeIf(occupation -> occupation.conflict() == conflict);
+        for (WarFlag flag : conflict.getActiveFlags()) {
+            flagIndex.remove(flag.getChunk(), flag);
+        }
+        revision++;
+    }
+
+    private void clearConflicts() {
+        conflicts.clear();
+        distinctConflicts.clear();
+        occupationIndex.clear();
+        flagIndex.clear();
+    }
+
+    private void setOccupation(WarConflict conflict, ChunkPosition position, String controller) {
+        if (controller == null) {
+            Occupation current = occupationIndex.get(position);
+            if (current != null && current.conflict() == conflict) {
+                occupationIndex.remove(position);
+                revision++;
+            }
+            return;
+        }
+        occupationIndex.put(position, new Occupation(conflict, controller));
+        revision++;
+    }
+
+    private void setStatus(WarConflict conflict, WarStatus status) {
+        conflict.setStatus(status);
+        revision++;
     }
 
     private void announcePreparation(WarConflict conflict) {
@@ -246,15 +321,26 @@ public class WarManager {
         conflict.setPactPending(false);
         conflicts.remove(conflict.getAttacker().toLowerCase(Locale.ROOT));
         conflicts.remove(conflict.getDefender().toLowerCase(Locale.ROOT));
+        unindexConflict(conflict);
+        deadlines.cancel(WAR_START_DEADLINE, conflictKey(conflict));
+        if (battleLog != null) {
+            battleLog.close(conflict);
+        }
         long now = System.currentTimeMillis();
-        warCooldowns.put(conflict.getAttacker().toLowerCase(Locale.ROOT), now + WAR_COOLDOWN_MS);
-        warCooldowns.put(conflict.getDefender().toLowerCase(Locale.ROOT), now + WAR_COOLDOWN_MS);
+        putCooldown(conflict.getAttacker(), now + WAR_COOLDOWN_MS);
+        putCooldown(conflict.getDefender(), now + WAR_COOLDOWN_MS);
         messages.broadcast("war.finished", Map.of(
                 "attacker", conflict.getAttacker(),
                 "defender", conflict.getDefender()
         ));
         save();
-        refreshMap();
+        refreshMap(conflict);
+    }
+
+    private void putCooldown(String townName, long until) {
+        String key = townName.toLowerCase(Locale.ROOT);
+        warCooldowns.put(key, until);
+        deadlines.schedule("war-cooldown:" + key, until, () -> warCooldowns.remove(key, until));
     }
 
     private void applyOccupiedTransfers(WarConflict conflict) {
@@ -265,7 +351,7 @@ public class WarManager {
         }
         transferChunks(defender, attacker, conflict.getAttackerOccupied(), false);
         transferChunks(attacker, defender, conflict.getDefenderOccupied(), false);
-        refreshMap();
+        refreshMap(conflict);
     }
 
     private void applyTechnologyTransfer(Town from, Town to) {
@@ -286,9 +372,22 @@ public class WarManager {
             return;
         }
         reparationPlans.add(new ReparationPlan(winner.getName(), loser.getName(), REPARATION_DAILY_AMOUNT, REPARATION_DAYS, System.currentTimeMillis()));
+        scheduleReparations();
         save();
     }
 
+    private void scheduleReparations() {
+        long next = Long.MAX_VALUE;
+        for (ReparationPlan plan : reparationPlans) {
+            next = Math.min(next, plan.getLastPaidAt() + DAY_MS);
+        }
+        if (next == Long.MAX_VALUE) {
+            deadlines.cancel(REPARATIONS_DEADLINE, "");
+        } else {
+            deadlines.schedule(REPARATIONS_DEADLINE, "", next);
+        }
+    }
+
     private void tickReparations() {
         long now = System.currentTimeMillis();
         Iterator<ReparationPlan> iterator = reparationPlans.iterator();
@@ -303,6 +402,7 @@ public class WarManager {
                 iterator.remove();
             }
         }
+        scheduleReparations();
         save();
     }
 
@@ -316,12 +416,30 @@ public class WarManager {
         townManager.deposit(winner, plan.getDailyAmount());
     }
 
+    private void logBattle(WarConflict conflict, BattleEventType type, boolean attackerSide, Player player, ChunkPosition chunk, int delta) {
+        if (battleLog != null && conflict != null) {
+            battleLog.record(conflict, type, attackerSide, player == null ? null : player.getUniqueId(), chunk, delta);
+        }
+    }
+
     private void refreshMap() {
         if (mapService != null) {
             mapService.refreshAll();
         }
     }
 
+    private void refreshMap(WarConflict conflict) {
+        if (mapService != null) {
+            mapService.refreshConflict(conflict);
+        }
+    }
+
+    private void refreshCapture(ChunkPosition chunk) {
+        if (mapService != null) {
+            mapService.refreshCapture(chunk);
+        }
+    }
+
     private void transferChunks(Town from, Town to, Set<ChunkPosition> positions, boolean includeCapital) {
         for (ChunkPosition position : new HashSet<>(positions)) {
             org.bukkit.World world = Bukkit.getWorld(position.getWorld());
@@ -339,6 +457,14 @@ public class WarManager {
         townManager.save();
     }
 
+    /**
+     * Changes whenever a conflict starts or ends, changes status, or gains or loses an occupied chunk
+     * or a flag. Points and flag health or timers do not count.
+     */
+    public long getRevision() {
+        return revision;
+    }
+
     public void save() {
         FileConfiguration config = new YamlConfiguration();
         List<Map<String, Object>> list = new ArrayList<>();
@@ -394,7 +520,7 @@ public class WarManager {
     }
 
     private List<WarConflict> getDistinctConflicts() {
-        return conflicts.values().stream().distinct().collect(Collectors.toList());
+        return new ArrayList<>(distinctConflicts);
     }
 
     private void load() {
@@ -402,7 +528,7 @@ public class WarManager {
             return;
         }
         FileConfiguration config = YamlConfiguration.loadConfiguration(storageFile);
-        conflicts.clear();
+        clearConflicts();
         List<Map<?, ?>> list = config.getMapList("conflicts");
         for (Map<?, ?> entry : list) {
             String attacker = Objects.toString(entry.get("attacker"), null);
@@ -438,20 +564,26 @@ public class WarManager {
                     if (chunkKey != null && townKey != null && worldName != null) {
                         WarFlag flag = new WarFlag(ChunkPosition.deserialize(chunkKey), townKey, center, health, remaining, worldName, x, y, z);
                         conflict.getActiveFlags().add(flag);
-                        spawnHologram(flag);
+                        holograms.show(flag);
                     }
                 }
                 conflict.setAwaitingResultWinner(Objects.toString(entry.get("winner"), null));
                 registerConflict(conflict);
+                if (conflict.getStatus() == WarStatus.PREPARATION && !deadlines.isScheduled(WAR_START_DEADLINE, conflictKey(conflict))) {
+                    deadlines.schedule(WAR_START_DEADLINE, conflictKey(conflict), conflict.getPreparationEndsAt());
+                }
             } catch (Exception ignored) {
             }
         }
         warCooldowns.clear();
         ConfigurationSection warSection = config.getConfigurationSection("war-cooldowns");
         if (warSection != null) {
+            long now = System.currentTimeMillis();
             for (String key : warSection.getKeys(false)) {
-                Long value = warSection.getLong(key);
-                warCooldowns.put(key.toLowerCase(Locale.ROOT), value);
+                long value = warSection.getLong(key);
+                if (value > now) {
+                    putCooldown(key, value);
+                }
             }
         }
         reparationPlans.clear();
@@ -466,6 +598,7 @@ public class WarManager {
                 reparationPlans.add(new ReparationPlan(winner, loser, daily, remaining, lastPaid));
             }
         }
+        scheduleReparations();
         refreshMap();
     }
 
@@ -481,29 +614,10 @@ public class WarManager {
         return warPreparationMs / (60 * 1000L);
     }
 
-    private void clearAllHolograms() {
-        getDistinctConflicts().forEach(conflict -> conflict.getActiveFlags().forEach(this::clearHologram));
-    }
-
     private int asInt(Object raw) {
         return raw instanceof Number n ? n.intValue() : 0;
     }
 
-    private boolean isAllowedByTownFlags(Player player, Town owner, WarAction action) {
-        TownFlag flag;
-        switch (action) {
-            case BREAK -> flag = TownFlag.BREAK;
-            case PLACE -> flag = TownFlag.PLACE;
-            default -> flag = TownFlag.INTERACT;
-        }
-        if (owner.isMayor(player.getName())) {
-            return true;
-        }
-        return owner.isMember(player.getName())
-                ? owner.getCitizenFlags().isEnabled(flag)
-                : owner.getOutsiderFlags().isEnabled(flag);
-    }
-
     private int startingPoints(Town town) {
         int members = town.getCitizens().size();
         if (members <= 15) {
@@ -560,7 +674,7 @@ public class WarManager {
             messages.sendError(player, "war.flag-limit");
             return false;
         }
-        if (conflict.getActiveFlags().stream().anyMatch(f -> f.getChunk().equals(chunkPosition))) {
+        if (flagIndex.containsKey(chunkPosition)) {
             messages.sendError(player, "war.flag-exists");
             return false;
         }
@@ -581,10 +695,13 @@ public class WarManager {
         WarFlag flag = new WarFlag(chunkPosition, placerTown.getName(), centerFlag, health, timer,
                 block.getWorld().getName(), block.getX(), block.getY(), block.getZ());
         conflict.getActiveFlags().add(flag);
-        spawnHologram(flag);
+        flagIndex.put(chunkPosition, flag);
+        revision++;
+        holograms.show(flag);
+        logBattle(conflict, BattleEventType.FLAG_PLACED, conflict.getAttacker().equalsIgnoreCase(placerTown.getName()), player, chunkPosition, 0);
         save();
         messages.broadcast("war.flag-placed", Map.of("attacker", placerTown.getName(), "defender", targetTown.getName()));
-        refreshMap();
+        refreshCapture(chunkPosition);
         return true;
     }
 
@@ -600,46 +717,43 @@ public class WarManager {
             return true;
         }
         flag.damage();
+        WarConflict conflict = getConflictForTown(flag.getOwningTown()).orElse(null);
+        boolean attackerSide = conflict != null && conflict.getAttacker().equalsIgnoreCase(controller.getName());
+        logBattle(conflict, BattleEventType.FLAG_DAMAGED, attackerSide, player, pos, 1);
         if (flag.getHealth() <= 0) {
+            logBattle(conflict, BattleEventType.FLAG_DESTROYED, attackerSide, player, pos, 0);
             removeFlag(flag);
             block.setType(Material.AIR);
             messages.broadcast("war.flag-destroyed", Map.of("town", controller.getName()));
         } else {
-            updateHologram(flag);
+            holograms.markDirty(flag);
         }
         save();
         return true;
     }
 
-    private Optional<WarFlag> findFlagAt(ChunkPosition position) {
-        return conflicts.values().stream()
-                .flatMap(c -> c.getActiveFlags().stream())
-                .filter(f -> f.getChunk().equals(position))
-                .findFirst();
-    }
-
-    private Optional<WarConflict> findConflictForChunk(ChunkPosition position) {
-        return getDistinctConflicts().stream()
-                .filter(conflict -> conflict.getStatus() == WarStatus.ACTIVE)
-                .filter(conflict -> conflict.getAttackerOccupied().contains(position)
-                        || conflict.getDefenderOccupied().contains(position)
-                        || isChunkOwnedByParticipant(position, conflict))
-                .findFirst();
+    public Optional<WarFlag> findFlagAt(ChunkPosition position) {
+        return Optional.ofNullable(flagIndex.get(position));
     }
 
-    private boolean isChunkOwnedByParticipant(ChunkPosition position, WarConflict conflict) {
+    public Optional<WarConflict> findConflictForChunk(ChunkPosition position) {
+        Occupation occupation = occupationIndex.get(position);
+        if (occupation != null && occupation.conflict().getStatus() == WarStatus.ACTIVE) {
+            return Optional.of(occupation.conflict());
+        }
         Town owner = townManager.getTownAtPosition(position);
         if (owner == null) {
-            return false;
+            return Optional.empty();
         }
-        return owner.getName().equalsIgnoreCase(conflict.getAttacker())
-                || owner.getName().equalsIgnoreCase(conflict.getDefender());
+        return getConflictForTown(owner.getName()).filter(conflict -> conflict.getStatus() == WarStatus.ACTIVE);
     }
 
     private void removeFlag(WarFlag flag) {
-        clearHologram(flag);
-        conflicts.values().forEach(c -> c.getActiveFlags().remove(flag));
-        refreshMap();
+        holograms.remove(flag);
+        flagIndex.remove(flag.getChunk(), flag);
+        distinctConflicts.forEach(c -> c.getActiveFlags().remove(flag));
+        revision++;
+        refreshCapture(flag.getChunk());
     }
 
     private void removeFlagBlock(WarFlag flag) {
@@ -652,61 +766,14 @@ public class WarManager {
         }
     }
 
-    private void spawnHologram(WarFlag flag) {
-        Location base = flag.toLocation();
-        if (base == null) {
-            return;
-        }
-        World world = base.getWorld();
-        if (world == null) {
-            return;
-        }
-        clearHologram(flag);
-        Location hologramLocation = base.clone().add(0, 2.25, 0);
-        ArmorStand stand = world.spawn(hologramLocation, ArmorStand.class, armor -> {
-            armor.setInvisible(true);
-            armor.setMarker(true);
-            armor.setGravity(false);
-            armor.setCustomNameVisible(true);
-            armor.setSmall(true);
-            armor.setCollidable(false);
-            armor.setPersistent(false);
-            armor.setSilent(true);
-        });
-        stand.setCustomName(buildHologramText(flag));
-        flag.setHologramId(stand.getUniqueId());
-    }
-
-    private void updateHologram(WarFlag flag) {
-        Entity entity = findHologram(flag);
-        if (entity instanceof ArmorStand armorStand) {
-            armorStand.setCustomName(buildHologramText(flag));
-            return;
-        }
-        spawnHologram(flag);
-    }
-
-    private Entity findHologram(WarFlag flag) {
-        if (flag.getHologramId() == null) {
-            return null;
-        }
-        return Bukkit.getEntity(flag.getHologramId());
-    }
-
-    private void clearHologram(WarFlag flag) {
-        Entity entity = findHologram(flag);
-        if (entity != null) {
-            entity.remove();
-        }
-        flag.setHologramId(null);
-    }
-
     private void clearConflictFlags(WarConflict conflict) {
         for (WarFlag active : new ArrayList<>(conflict.getActiveFlags())) {
             removeFlagBlock(active);
-            clearHologram(active);
+            holograms.remove(active);
+            flagIndex.remove(active.getChunk(), active);
         }
         conflict.getActiveFlags().clear();
+        revision++;
     }
 
     private String buildHologramText(WarFlag flag) {
@@ -717,6 +784,7 @@ public class WarManager {
 
     private void tickFlags() {
         long now = System.currentTimeMillis();
+        boolean progressed = false;
         for (WarConflict conflict : getDistinctConflicts()) {
             if (conflict.getStatus() != WarStatus.ACTIVE) {
                 continue;
@@ -724,12 +792,12 @@ public class WarManager {
             for (WarFlag flag : new ArrayList<>(conflict.getActiveFlags())) {
                 long delta = now - flag.getLastTick();
                 flag.setLastTick(now);
-                updateHologram(flag);
                 if (!canCaptureProgress(conflict, flag)) {
                     continue;
                 }
                 flag.setRemainingCaptureMs(Math.max(0, flag.getRemainingCaptureMs() - delta));
-                updateHologram(flag);
+                holograms.markDirty(flag);
+                progressed = true;
                 if (flag.getRemainingCaptureMs() <= 0) {
                     handleCapture(conflict, flag);
                     removeFlagBlock(flag);
@@ -737,7 +805,9 @@ public class WarManager {
                 }
             }
         }
-        save();
+        if (progressed) {
+            save();
+        }
     }
 
     private boolean canCaptureProgress(WarConflict conflict, WarFlag flag) {
@@ -757,30 +827,7 @@ public class WarManager {
     }
 
     private int countPlayers(ChunkPosition position, Town town) {
-        int attackers = 0;
-        Set<String> counted = new HashSet<>();
-        for (Player online : Bukkit.getOnlinePlayers()) {
-            if (!town.isMember(online.getName())) {
-                continue;
-            }
-            Chunk chunk = online.getLocation().getChunk();
-            if (position.isSameChunk(chunk)) {
-                attackers++;
-                counted.add(online.getName().toLowerCase(Locale.ROOT));
-            }
-        }
-        for (Map.Entry<String, ChunkPosition> entry : deadPlayers.entrySet()) {
-            if (counted.contains(entry.getKey())) {
-                continue;
-            }
-            if (!town.isMember(entry.getKey())) {
-                continue;
-            }
-            if (entry.getValue().isSameChunk(position)) {
-                attackers++;
-            }
-        }
-        return attackers;
+        return occupancyIndex.count(position, town);
     }
 
     private void handleCapture(WarConflict conflict, WarFlag flag) {
@@ -790,35 +837,33 @@ public class WarManager {
         if (reclaimingOwner) {
             conflict.getAttackerOccupied().remove(flag.getChunk());
             conflict.getDefenderOccupied().remove(flag.getChunk());
+            setOccupation(conflict, flag.getChunk(), null);
         } else if (attackerSide) {
             conflict.getAttackerOccupied().add(flag.getChunk());
             conflict.getDefenderOccupied().remove(flag.getChunk());
+            setOccupation(conflict, flag.getChunk(), conflict.getAttacker());
             conflict.addAttackerPoints(CAPTURE_POINTS);
             conflict.addDefenderPoints(-CAPTURE_POINTS);
         } else {
             conflict.getDefenderOccupied().add(flag.getChunk());
             conflict.getAttackerOccupied().remove(flag.getChunk());
+            setOccupation(conflict, flag.getChunk(), conflict.getDefender());
             conflict.addDefenderPoints(CAPTURE_POINTS);
             conflict.addAttackerPoints(-CAPTURE_POINTS);
         }
         ChunkPosition pos = flag.getChunk();
+        logBattle(conflict, BattleEventType.CAPTURE, attackerSide, null, pos, reclaimingOwner ? 0 : CAPTURE_POINTS);
         messages.broadcast("war.chunk-captured", Map.of(
                 "x", String.valueOf(pos.getX()),
                 "z", String.valueOf(pos.getZ())
         ));
-        refreshMap();
+        refreshMap(conflict);
         save();
         checkVictory(conflict);
     }
 
     public void handlePlayerDeath(Player victim, Player killer) {
         Town victimTown = townManager.getTownByMember(victim.getName());
-        Optional<WarConflict> victimConflict = victimTown == null ? Optional.empty() : getConflictForTown(victimTown.getName());
-        if (victimConflict.isPresent() && victimConflict.get().getStatus() == WarStatus.ACTIVE) {
-            deadPlayers.put(victim.getName().toLowerCase(Locale.ROOT), ChunkPosition.fromChunk(victim.getLocation().getChunk()));
-        } else {
-            deadPlayers.remove(victim.getName().toLowerCase(Locale.ROOT));
-        }
         if (killer == null) {
             return;
         }
@@ -844,31 +889,27 @@ public class WarManager {
             return;
         }
         timestamps.put(victim.getName().toLowerCase(Locale.ROOT), now);
-        if (conflict.getAttacker().equalsIgnoreCase(killerTown.getName())) {
+        boolean killerAttacker = conflict.getAttacker().equalsIgnoreCase(killerTown.getName());
+        if (killerAttacker) {
             conflict.addAttackerPoints(KILL_POINTS);
             conflict.addDefenderPoints(-KILL_POINTS);
         } else {
             conflict.addDefenderPoints(KILL_POINTS);
             conflict.addAttackerPoints(-KILL_POINTS);
         }
+        ChunkPosition deathChunk = victim.getLocation() == null ? null : ChunkPosition.fromLocation(victim.getLocation());
+        logBattle(conflict, BattleEventType.KILL, killerAttacker, killer, deathChunk, KILL_POINTS);
+        logBattle(conflict, BattleEventType.DEATH, !killerAttacker, victim, deathChunk, -KILL_POINTS);
         checkVictory(conflict);
         save();
     }
 
-    public void handlePlayerRespawn(Player player) {
-        deadPlayers.remove(player.getName().toLowerCase(Locale.ROOT));
-    }
-
-    public void handlePlayerQuit(Player player) {
-        deadPlayers.remove(player.getName().toLowerCase(Locale.ROOT));
-    }
-
     private void checkVictory(WarConflict conflict) {
         if (checkOccupationVictory(conflict)) {
             return;
         }
         if (conflict.getAttackerPoints() >= WIN_POINTS || conflict.getDefenderPoints() <= 0) {
-            conflict.setStatus(WarStatus.AWAITING_RESULT);
+            setStatus(conflict, WarStatus.AWAITING_RESULT);
             conflict.setAwaitingResultWinner(conflict.getAttacker());
             messages.broadcast("war.victory", Map.of("winner", conflict.getAttacker(), "loser", conflict.getDefender()));
             notifyMayorForResult(conflict.getAttacker());
@@ -877,7 +918,7 @@ public class WarManager {
             return;
         }
         if (conflict.getDefenderPoints() >= WIN_POINTS || conflict.getAttackerPoints() <= 0) {
-            conflict.setStatus(WarStatus.AWAITING_RESULT);
+            setStatus(conflict, WarStatus.AWAITING_RESULT);
             conflict.setAwaitingResultWinner(conflict.getDefender());
             messages.broadcast("war.victory", Map.of("winner", conflict.getDefender(), "loser", conflict.getAttacker()));
             notifyMayorForResult(conflict.getDefender());
@@ -899,13 +940,13 @@ public class WarManager {
     }
 
     private boolean concludeOccupationVictory(WarConflict conflict, String winner, String loser) {
-        conflict.setStatus(WarStatus.AWAITING_RESULT);
+        setStatus(conflict, WarStatus.AWAITING_RESULT);
         conflict.setAwaitingResultWinner(winner);
         clearConflictFlags(conflict);
         messages.broadcast("war.victory", Map.of("winner", winner, "loser", loser));
         notifyMayorForResult(winner);
         notifyAwaitingLoser(loser);
-        refreshMap();
+        refreshMap(conflict);
         save();
         return true;
     }
@@ -975,34 +1016,30 @@ public class WarManager {
                 queueReparations(winner, loser);
             }
         }
-        conflict.setStatus(WarStatus.ENDED);
+        setStatus(conflict, WarStatus.ENDED);
         applyOccupiedTransfers(conflict);
         endConflict(conflict);
         return true;
     }
 
     public boolean isChunkOccupied(ChunkPosition position) {
-        return getDistinctConflicts().stream()
-                .filter(conflict -> conflict.getStatus() != WarStatus.ENDED)
-                .anyMatch(conflict -> conflict.getAttackerOccupied().contains(position) || conflict.getDefenderOccupied().contains(position));
+        return findOccupation(position) != null;
     }
 
     public String getChunkController(ChunkPosition position) {
-        for (WarConflict conflict : getDistinctConflicts()) {
-            if (conflict.getStatus() == WarStatus.ENDED) {
-                continue;
-            }
-            if (conflict.getAttackerOccupied().contains(position)) {
-                return conflict.getAttacker();
-            }
-            if (conflict.getDefenderOccupied().contains(position)) {
-                return conflict.getDefender();
-            }
+        Occupation occupation = findOccupation(position);
+        if (occupation != null) {
+            return occupation.controller();
         }
         Town owner = townManager.getTownAtPosition(position);
         return owner == null ? "" : owner.getName();
     }
 
+    private Occupation findOccupation(ChunkPosition position) {
+        Occupation occupation = occupationIndex.get(position);
+        return occupation == null || occupation.conflict().getStatus() == WarStatus.ENDED ? null : occupation;
+    }
+
     private Town getControllerTown(ChunkPosition position) {
         String controller = getChunkController(position);
         if (controller == null || controller.isBlank()) {
@@ -1045,11 +1082,11 @@ public class WarManager {
         }
         String winner = conflict.getAttacker().equalsIgnoreCase(town.getName()) ? conflict.getDefender() : conflict.getAttacker();
         conflict.setAwaitingResultWinner(winner);
-        conflict.setStatus(WarStatus.AWAITING_RESULT);
+        setStatus(conflict, WarStatus.AWAITING_RESULT);
         messages.broadcast("war.surrender", Map.of("winner", winner, "loser", town.getName()));
         notifyMayorForResult(winner);
         notifyAwaitingLoser(town.getName());
-        refreshMap();
+        refreshMap(conflict);
         save();
         return true;
     }
@@ -1070,9 +1107,9 @@ public class WarManager {
         conflict.setPactPending(false);
         applyOccupiedTransfers(conflict);
         messages.broadcast("war.pact", Map.of("attacker", conflict.getAttacker(), "defender", conflict.getDefender()));
-        conflict.setStatus(WarStatus.ENDED);
+        setStatus(conflict, WarStatus.ENDED);
         endConflict(conflict);
-        refreshMap();
+        refreshMap(conflict);
         return true;
     }
 
@@ -1093,126 +1130,6 @@ public class WarManager {
         return BLOCKED_COMMANDS.stream().anyMatch(lower::startsWith);
     }
 
-    public boolean canPlace(Player player, Block block) {
-        return checkAccess(player, block, WarAction.PLACE);
-    }
-
-    public boolean canBreak(Player player, Block block) {
-        return checkAccess(player, block, WarAction.BREAK);
-    }
-
-    public boolean canInteract(Player player, Block block) {
-        return checkAccess(player, block, WarAction.INTERACT);
-    }
-
-
-    private boolean checkAccess(Player player, Block block, WarAction action) {
-        ChunkPosition position = ChunkPosition.fromChunk(block.getChunk());
-        Optional<WarFlag> flagOpt = findFlagAt(position);
-        Town playerTown = townManager.getTownByMember(player.getName());
-        Town chunkOwner = townManager.getTownAtPosition(position);
-
-        Optional<WarConflict> conflictOpt = getConflictForTown(playerTown == null ? null : playerTown.getName());
-        if (conflictOpt.isEmpty()) {
-            conflictOpt = chunkOwner == null ? Optional.empty() : getConflictForTown(chunkOwner.getName());
-        }
-        if (conflictOpt.isEmpty()) {
-            conflictOpt = findConflictForChunk(position);
-        }
-
-        if (conflictOpt.isEmpty()) {
-            return true;
-        }
-
-        WarConflict conflict = conflictOpt.get();
-        if (conflict.getStatus() != WarStatus.ACTIVE) {
-            return true;
-        }
-
-        if (flagOpt.isPresent()) {
-            WarFlag flag = flagOpt.get();
-            if (action == WarAction.PLACE) {
-                messages.sendError(player, FLAG_BUILD_BLOCKED_MESSAGE);
-                return false;
-            }
-            if (action == WarAction.BREAK && (flag.isFlagBlock(block.getLocation()) || flag.isSupportBlock(block.getLocation()))) {
-                messages.sendError(player, FLAG_BUILD_BLOCKED_MESSAGE);
-                return false;
-            }
-            return true;
-        }
-
-        String ownerName = chunkOwner == null ? null : chunkOwner.getName();
-        String controllerName = ownerName;
-        if (conflict.getAttackerOccupied().contains(position)) {
-            controllerName = conflict.getAttacker();
-        } else if (conflict.getDefenderOccupied().contains(position)) {
-            controllerName = conflict.getDefender();
-        }
-
-        if (chunkOwner != null && chunkOwner.isMember(player.getName())) {
-            if (!isAllowedByTownFlags(player, chunkOwner, action)) {
-                messages.sendError(player, BUILD_BLOCKED_MESSAGE);
-                return false;
-            }
-        }
-
-        boolean playerAttacker = playerTown != null && playerTown.getName().equalsIgnoreCase(conflict.getAttacker());
-        boolean playerDefender = playerTown != null && playerTown.getName().equalsIgnoreCase(conflict.getDefender());
-        boolean participant = playerAttacker || playerDefender;
-
-        if (chunkOwner != null && chunkOwner.isMayor(player.getName())) {
-            return true;
-        }
-
-        if (!participant) {
-            if (flagOpt.isPresent() && action == WarAction.PLACE) {
-                messages.sendError(player, FLAG_BUILD_BLOCKED_MESSAGE);
-                return false;
-            }
-            return true;
-        }
-
-        // Occupied by enemy controller
-        if (controllerName != null && ownerName != null && !controllerName.equalsIgnoreCase(ownerName)) {
-            if (playerTown != null && playerTown.getName().equalsIgnoreCase(controllerName)) {
-                return true;
-            }
-            if (playerTown != null && playerTown.getName().equalsIgnoreCase(ownerName)) {
-                if (action == WarAction.PLACE) {
-                    messages.sendError(player, BUILD_BLOCKED_MESSAGE);
-                    return false;
-                }
-                return true;
-            }
-            if (action == WarAction.PLACE) {
-                messages.sendError(player, BUILD_BLOCKED_MESSAGE);
-                return false;
-            }
-            return true;
-        }
-
-        // Not occupied or controlled by the original owner
-        if (playerTown != null && playerTown.getName().equalsIgnoreCase(ownerName)) {
-            if (action == WarAction.BREAK) {
-                messages.sendError(player, BUILD_BLOCKED_MESSAGE);
-                return false;
-            }
-            return true;
-        }
-
-        if (ownerName != null && participant) {
-            if (action == WarAction.PLACE) {
-                messages.sendError(player, BUILD_BLOCKED_MESSAGE);
-                return false;
-            }
-            return true;
-        }
-
-        return true;
-    }
-
-    private enum WarAction {
-        PLACE, BREAK, INTERACT
+    private record Occupation(WarConflict conflict, String controller) {
     }
 }
\ No newline at end of file
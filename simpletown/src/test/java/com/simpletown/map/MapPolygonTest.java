@@ -0,0 +1,140 @@
+package com.simpletown.map;
+
+import com.simpletown.data.ChunkPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link MapPolygon#bridged()} on outlines traced from random claims: the single ring must not
+ * cross itself and must cover exactly the outer outline minus its holes under the even-odd rule.
+ */
+class MapPolygonTest {
+    private static final String WORLD = "world";
+    private static final int ROUNDS = 2000;
+
+    @Test
+    void polygonWithoutHolesIsItsOwnRing() {
+        MapPolygon square = rectangle(0, 0, 32, 32, true);
+        assertSame(square, square.bridged());
+    }
+
+    @Test
+    void bridgedRingIsBuiltOnce() {
+        MapPolygon outer = rectangle(0, 0, 80, 80, true);
+        MapPolygon polygon = new MapPolygon(WORLD, outer.x(), outer.z(), List.of(rectangle(32, 32, 48, 48, false)));
+        assertSame(polygon.bridged(), polygon.bridged());
+    }
+
+    @Test
+    void cutAvoidsAHoleMergedLater() {
+        // The shortest cut for the right hole, (20,20) to the corner (0,0), runs through the left one.
+        MapPolygon outer = rectangle(0, 0, 100, 100, true);
+        MapPolygon polygon = new MapPolygon(WORLD, outer.x(), outer.z(), List.of(
+                rectangle(4, 8, 16, 12, false), rectangle(20, 20, 30, 30, false)));
+        assertBridged(polygon, 7, 7);
+    }
+
+    @Test
+    void randomOutlines() {
+        Random random = new Random(42L);
+        int withHoles = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            int side = 3 + random.nextInt(20);
+            double fill = 0.4 + random.nextDouble() * 0.5;
+            Set<ChunkPosition> chunks = new HashSet<>();
+            for (int x = 0; x < side; x++) {
+                for (int z = 0; z < side; z++) {
+                    if (random.nextDouble() < fill) {
+                        chunks.add(new ChunkPosition(WORLD, x, z));
+                    }
+                }
+            }
+            ChunkOutline outline = new ChunkOutline(WORLD);
+            outline.sync(chunks);
+            for (MapPolygon polygon : outline.getPolygons()) {
+                if (!polygon.holes().isEmpty()) {
+                    withHoles++;
+                }
+                assertBridged(polygon, side, side);
+            }
+        }
+        assertTrue(withHoles > ROUNDS / 2, "random claims produced too few outlines with holes");
+    }
+
+    private static void assertBridged(MapPolygon polygon, int width, int height) {
+        MapPolygon ring = polygon.bridged();
+        assertTrue(ring.holes().isEmpty());
+        assertEquals(polygon.vertexCount() + polygon.holes().size(), ring.size());
+        double[] x = ring.x();
+        double[] z = ring.z();
+        int edges = ring.size() - 1;
+        assertEquals(x[0], x[edges]);
+        assertEquals(z[0], z[edges]);
+        for (int i = 0; i < edges; i++) {
+            for (int j = i + 1; j < edges; j++) {
+                assertFalse(crosses(x[i], z[i], x[i + 1], z[i + 1], x[j], z[j], x[j + 1], z[j + 1]),
+                        "edges " + i + " and " + j + " of the bridged ring cross");
+            }
+        }
+        for (int cx = 0; cx < width; cx++) {
+            for (int cz = 0; cz < height; cz++) {
+                double px = cx * 16 + 8.5;
+                double pz = cz * 16 + 8.25;
+                boolean expected = inside(polygon, px, pz);
+                for (MapPolygon hole : polygon.holes()) {
+                    expected &= !inside(hole, px, pz);
+                }
+                assertEquals(expected, inside(ring, px, pz), "coverage differs in chunk " + cx + "," + cz);
+            }
+        }
+    }
+
+    /**
+     * Proper crossing only: the cut is walked both ways, so its two copies overlap by design.
+     */
+    private static boolean crosses(double ax, double az, double bx, double bz, double cx, double cz, double dx, double dz) {
+        return Math.signum(cross(ax, az, bx, bz, cx, cz)) * Math.signum(cross(ax, az, bx, bz, dx, dz)) < 0
+                && Math.signum(cross(cx, cz, dx, dz, ax, az)) * Math.signum(cross(cx, cz, dx, dz, bx, bz)) < 0;
+    }
+
+    private static double cross(double ax, double az, double bx, double bz, double px, double pz) {
+        return (bx - ax) * (pz - az) - (bz - az) * (px - ax);
+    }
+
+    /**
+     * Even-odd test against a closed ring.
+     */
+    private static boolean inside(MapPolygon ring, double px, double pz) {
+        boolean inside = false;
+        for (int i = 0; i + 1 < ring.size(); i++) {
+            double x0 = ring.x()[i];
+            double z0 = ring.z()[i];
+            double x1 = ring.x()[i + 1];
+            double z1 = ring.z()[i + 1];
+            if ((z0 < pz) != (z1 < pz) && x0 + (pz - z0) * (x1 - x0) / (z1 - z0) > px) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Closed rectangle in block coordinates, clockwise on the map like an outer border or
+     * counter-clockwise like a hole.
+     */
+    private static MapPolygon rectangle(double minX, double minZ, double maxX, double maxZ, boolean clockwise) {
+        if (clockwise) {
+            return new MapPolygon(WORLD, new double[]{minX, maxX, maxX, minX, minX}, new double[]{minZ, minZ, maxZ, maxZ, minZ});
+        }
+        return new MapPolygon(WORLD, new double[]{minX, minX, maxX, maxX, minX}, new double[]{minZ, maxZ, maxZ, minZ, minZ});
+    }
+}
@@ -0,0 +1,199 @@
+package com.simpletown.movement;
+
+import com.simpletown.api.event.TerritoryChangeCause;
+import com.simpletown.simulation.PhaseTimings;
+import com.simpletown.simulation.Sandbox;
+import com.simpletown.simulation.SimulationServer;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Event and sampled territory tracking over the same recorded walk: {@code mvn test -Psimulation}.
+ * <p>
+ * {@code simulation.players} players wander across a grid of towns for {@code simulation.ticks}
+ * ticks at sprinting speed, turning now and then and bouncing off the edge of the grid. The walk
+ * is generated once from a fixed seed and replayed against a tracker in each mode: in event mode
+ * every moved player fires a move event on every tick, in sampled mode the positions are updated
+ * and the tracker's own sampling task runs on the tick. The server ticks in both modes. Both are
+ * measured with the tracker's {@link MovementMetrics}, so only tracker time is compared, not the
+ * server's cost of firing move events. Crossings are checked against the walk itself: event mode
+ * has to see every one on the tick it happens, sampled mode may see fewer (a player can leave a
+ * chunk and come back between samples) and later, but within about one sampling interval. Nothing
+ * changes while the players walk, so the town and war revisions must not move either.
+ */
+@Tag("simulation")
+class TrackingModeBenchmarkTest {
+    private static final double SPEED = 0.28;
+    private static final double TURN_CHANCE = 0.02;
+    private static final int TOWNS = 16;
+
+    private final int playerCount = Integer.getInteger("simulation.players", 500);
+    private final int ticks = Integer.getInteger("simulation.ticks", 1200);
+    private final int sampleInterval = Integer.getInteger("simulation.sample-interval", 10);
+
+    private record Result(TrackingMode mode, PhaseTimings timings, MovementMetrics metrics, long crossings, long lagTicks, long maxLag) {
+    }
+
+    @Test
+    void eventAndSampledModesOnTheSameWalk() {
+        SimulationServer server = SimulationServer.start();
+        double[][] walk = generateWalk();
+        long expectedCrossings = countCrossings(walk);
+        Result event;
+        Result sampled;
+        try (Sandbox sandbox = new Sandbox(server, TOWNS, 0, 0, List.<Set<String>>of())) {
+            event = replay(server, sandbox, TrackingMode.EVENT, walk);
+        }
+        server = SimulationServer.start();
+        try (Sandbox sandbox = new Sandbox(server, TOWNS, 0, 0, List.<Set<String>>of())) {
+            sampled = replay(server, sandbox, TrackingMode.SAMPLED, walk);
+        }
+
+        System.out.println(String.format(Locale.ROOT, "Territory tracking: %d players, %d ticks, %d chunk crossings in the walk, sample interval %d",
+                playerCount, ticks, expectedCrossings, sampleInterval));
+        for (Result result : List.of(event, sampled)) {
+            System.out.println(result.timings().format(String.format(Locale.ROOT,
+                    "%s: %d checks, %d crossings seen, average lag %.2f ticks, max lag %d ticks, %.3f us per check",
+                    result.mode().name().toLowerCase(Locale.ROOT), result.metrics().getChecks(), result.crossings(),
+                    result.crossings() == 0 ? 0.0 : (double) result.lagTicks() / result.crossings(), result.maxLag(),
+                    result.metrics().getMicrosPerCheck())));
+        }
+
+        assertEquals(expectedCrossings, event.crossings());
+        assertEquals(0L, event.maxLag());
+        assertTrue(sampled.crossings() <= expectedCrossings);
+        assertTrue(sampled.maxLag() <= sampleInterval * 2L, "sampled mode fell more than two intervals behind");
+    }
+
+    private Result replay(SimulationServer server, Sandbox sandbox, TrackingMode mode, double[][] walk) {
+        sandbox.getPlugin().getConfig().set("movement.tracking-mode", mode.name().toLowerCase(Locale.ROOT));
+        sandbox.getPlugin().getConfig().set("movement.sample-interval-ticks", sampleInterval);
+        List<Player> players = new ArrayList<>();
+        for (int p = 0; p < playerCount; p++) {
+            players.add(server.addPlayer("walker_" + p, walk[0][p * 2], walk[0][p * 2 + 1]));
+        }
+        Map<Player, Integer> indexes = new HashMap<>();
+        for (int p = 0; p < players.size(); p++) {
+            indexes.put(players.get(p), p);
+        }
+
+        int[] currentTick = {0};
+        int[] lastChange = new int[playerCount];
+        long[] seen = new long[3];
+        PlayerTerritoryTracker tracker = new PlayerTerritoryTracker(sandbox.getPlugin(), sandbox.getTownManager(), sandbox.getWarManager());
+        tracker.addListener((player, from, to, cause) -> {
+            if (cause == TerritoryChangeCause.JOIN) {
+                return;
+            }
+            long lag = currentTick[0] - lastChange[indexes.get(player)];
+            seen[0]++;
+            seen[1] += lag;
+            seen[2] = Math.max(seen[2], lag);
+        });
+        tracker.start();
+        tracker.trackOnlinePlayers();
+        tracker.getMetrics().reset();
+        PlayerTerritoryTracker.MoveListener moveListener = mode == TrackingMode.EVENT ? moveListener(server) : null;
+
+        long townRevision = sandbox.getTownManager().getRevision();
+        long warRevision = sandbox.getWarManager().getRevision();
+        PhaseTimings timings = new PhaseTimings(walk.length - 1, "tracker");
+        for (int tick = 1; tick < walk.length; tick++) {
+            currentTick[0] = tick;
+            long before = tracker.getMetrics().getTotalMicros();
+            for (int p = 0; p < playerCount; p++) {
+                double x = walk[tick][p * 2];
+                double z = walk[tick][p * 2 + 1];
+                if (chunk(x) != chunk(walk[tick - 1][p * 2]) || chunk(z) != chunk(walk[tick - 1][p * 2 + 1])) {
+                    lastChange[p] = tick;
+                }
+                Player player = players.get(p);
+                if (moveListener != null) {
+                    Location from = player.getLocation();
+                    SimulationServer.moveTo(player, x, z);
+                    moveListener.onMove(new PlayerMoveEvent(player, from, player.getLocation()));
+                } else {
+                    SimulationServer.moveTo(player, x, z);
+                }
+            }
+            server.getScheduler().tick();
+            timings.record(0, tick - 1, (tracker.getMetrics().getTotalMicros() - before) * 1000L);
+        }
+        tracker.stop();
+        // Nothing changes during the walk, so a crossing must be able to reuse the territory it leaves.
+        assertEquals(townRevision, sandbox.getTownManager().getRevision(), "town revision moved during an idle walk");
+        assertEquals(warRevision, sandbox.getWarManager().getRevision(), "war revision moved during an idle walk");
+        return new Result(mode, timings, tracker.getMetrics(), seen[0], seen[1], seen[2]);
+    }
+
+    private double[][] generateWalk() {
+        Random random = new Random(42L);
+        int grid = (int) Math.ceil(Math.sqrt(TOWNS));
+        double size = grid * (Sandbox.TOWN_SIDE + 2) * 16.0;
+        double[][] walk = new double[ticks + 1][playerCount * 2];
+        double[] headings = new double[playerCount];
+        for (int p = 0; p < playerCount; p++) {
+            walk[0][p * 2] = random.nextDouble() * size;
+            walk[0][p * 2 + 1] = random.nextDouble() * size;
+            headings[p] = random.nextDouble() * Math.PI * 2;
+        }
+        for (int tick = 1; tick <= ticks; tick++) {
+            for (int p = 0; p < playerCount; p++) {
+                if (random.nextDouble() < TURN_CHANCE) {
+                    headings[p] = random.nextDouble() * Math.PI * 2;
+                }
+                double x = walk[tick - 1][p * 2] + Math.cos(headings[p]) * SPEED;
+                double z = walk[tick - 1][p * 2 + 1] + Math.sin(headings[p]) * SPEED;
+                if (x < 0 || x >= size || z < 0 || z >= size) {
+                    headings[p] += Math.PI;
+                    x = walk[tick - 1][p * 2];
+                    z = walk[tick - 1][p * 2 + 1];
+                }
+                walk[tick][p * 2] = x;
+                walk[tick][p * 2 + 1] = z;
+            }
+        }
+        return walk;
+    }
+
+    private long countCrossings(double[][] walk) {
+        long crossings = 0;
+        for (int tick = 1; tick < walk.length; tick++) {
+            for (int p = 0; p < playerCount; p++) {
+                if (chunk(walk[tick][p * 2]) != chunk(walk[tick - 1][p * 2])
+                        || chunk(walk[tick][p * 2 + 1]) != chunk(walk[tick - 1][p * 2 + 1])) {
+                    crossings++;
+                }
+            }
+        }
+        return crossings;
+    }
+
+    private static int chunk(double coordinate) {
+        return (int) Math.floor(coordinate) >> 4;
+    }
+
+    private static PlayerTerritoryTracker.MoveListener moveListener(SimulationServer server) {
+        for (Listener listener : server.getListeners()) {
+            if (listener instanceof PlayerTerritoryTracker.MoveListener moveListener) {
+                return moveListener;
+            }
+        }
+        throw new IllegalStateException("Territory tracker did not register its move listener");
+    }
+}
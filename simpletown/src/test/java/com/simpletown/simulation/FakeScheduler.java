@@ -0,0 +1,154 @@
+package com.simpletown.simulation;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Scheduler driven by the test instead of a server clock. Tasks registered through any
+ * {@code runTask*} variant are kept with their delay and period and run by {@link #tick()}, so a
+ * simulation advances the plugin's own timers one server tick at a time. Asynchronous tasks run on
+ * the tick like synchronous ones.
+ */
+public final class FakeScheduler {
+    private final class Task {
+        private final int id;
+        private final Plugin owner;
+        private final long period;
+        private Runnable action;
+        private long nextRun;
+        private boolean cancelled;
+        private BukkitTask handle;
+
+        private Task(int id, Plugin owner, long delay, long period) {
+            this.id = id;
+            this.owner = owner;
+            this.period = period;
+            this.nextRun = currentTick + Math.max(1L, delay);
+        }
+    }
+
+    private final List<Task> tasks = new ArrayList<>();
+    private final BukkitScheduler scheduler = (BukkitScheduler) Proxy.newProxyInstance(
+            BukkitScheduler.class.getClassLoader(), new Class<?>[]{BukkitScheduler.class}, (proxy, method, args) -> invoke(method, args));
+    private long currentTick;
+    private int nextId = 1;
+
+    public BukkitScheduler asBukkitScheduler() {
+        return scheduler;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Advances the clock by one tick and runs every task that is due, in registration order.
+     */
+    public void tick() {
+        currentTick++;
+        for (Task task : new ArrayList<>(tasks)) {
+            if (task.cancelled || task.nextRun > currentTick) {
+                continue;
+            }
+            task.action.run();
+            if (task.period > 0) {
+                task.nextRun = currentTick + task.period;
+            } else {
+                task.cancelled = true;
+            }
+        }
+        tasks.removeIf(task -> task.cancelled);
+    }
+
+    private Object invoke(Method method, Object[] args) {
+        String name = method.getName();
+        switch (name) {
+            case "cancelTask" -> {
+                tasks.stream().filter(task -> task.id == (int) args[0]).forEach(task -> task.cancelled = true);
+                return null;
+            }
+            case "cancelTasks" -> {
+                tasks.stream().filter(task -> task.owner == args[0]).forEach(task -> task.cancelled = true);
+                return null;
+            }
+            case "isQueued", "isCurrentlyRunning" -> {
+                return tasks.stream().anyMatch(task -> task.id == (int) args[0] && !task.cancelled);
+            }
+            case "equals" -> {
+                return scheduler == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(this);
+            }
+            case "toString" -> {
+                return "FakeScheduler{tick=" + currentTick + "}";
+            }
+            default -> {
+            }
+        }
+        if (!name.startsWith("runTask") && !name.startsWith("schedule")) {
+            return defaultValue(method.getReturnType());
+        }
+        long delay = args.length > 2 ? ((Number) args[2]).longValue() : 0L;
+        long period = args.length > 3 ? ((Number) args[3]).longValue() : 0L;
+        Task task = new Task(nextId++, (Plugin) args[0], delay, period);
+        task.handle = handle(task);
+        if (args[1] instanceof Runnable runnable) {
+            task.action = runnable;
+        } else {
+            @SuppressWarnings("unchecked")
+            Consumer<? super BukkitTask> consumer = (Consumer<? super BukkitTask>) args[1];
+            task.action = () -> consumer.accept(task.handle);
+        }
+        tasks.add(task);
+        Class<?> type = method.getReturnType();
+        if (type == int.class) {
+            return task.id;
+        }
+        return type == void.class ? null : task.handle;
+    }
+
+    private BukkitTask handle(Task task) {
+        return (BukkitTask) Proxy.newProxyInstance(BukkitTask.class.getClassLoader(), new Class<?>[]{BukkitTask.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getTaskId", "hashCode" -> {
+                    return task.id;
+                }
+                case "getOwner" -> {
+                    return task.owner;
+                }
+                case "isSync" -> {
+                    return true;
+                }
+                case "isCancelled" -> {
+                    return task.cancelled;
+                }
+                case "cancel" -> {
+                    task.cancelled = true;
+                    return null;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "toString" -> {
+                    return "FakeTask{" + task.id + "}";
+                }
+                default -> {
+                    return defaultValue(method.getReturnType());
+                }
+            }
+        });
+    }
+
+    static Object defaultValue(Class<?> type) {
+        return type.isPrimitive() && type != void.class ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+}
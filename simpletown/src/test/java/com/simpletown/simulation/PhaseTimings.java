@@ -0,0 +1,43 @@
+package com.simpletown.simulation;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Per-step timings of a simulation, one sample per phase and step, reported as percentiles in
+ * microseconds.
+ */
+public final class PhaseTimings {
+    private final String[] phases;
+    private final long[][] samples;
+
+    public PhaseTimings(int steps, String... phases) {
+        this.phases = phases;
+        this.samples = new long[phases.length][steps];
+    }
+
+    public void record(int phase, int step, long nanos) {
+        samples[phase][step] = nanos;
+    }
+
+    public long percentileMicros(int phase, double percentile) {
+        long[] sorted = samples[phase].clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1000L;
+    }
+
+    public long totalMicros(int phase) {
+        return Arrays.stream(samples[phase]).sum() / 1000L;
+    }
+
+    public String format(String title) {
+        StringBuilder report = new StringBuilder(title).append('\n');
+        for (int i = 0; i < phases.length; i++) {
+            report.append(String.format(Locale.ROOT, "  %-12s p50 %7d us  p95 %7d us  p99 %7d us  max %7d us  total %9d us%n",
+                    phases[i], percentileMicros(i, 0.5), percentileMicros(i, 0.95), percentileMicros(i, 0.99),
+                    percentileMicros(i, 1.0), totalMicros(i)));
+        }
+        return report.toString();
+    }
+}
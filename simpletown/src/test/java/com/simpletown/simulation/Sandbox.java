@@ -0,0 +1,239 @@
+package com.simpletown.simulation;
+
+import com.simpletown.SimpleTownPlugin;
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.data.Town;
+import com.simpletown.data.TownManager;
+import com.simpletown.data.TownStorage;
+import com.simpletown.map.MapPolygon;
+import com.simpletown.map.MapRenderer;
+import com.simpletown.movement.ChunkOccupancyIndex;
+import com.simpletown.schedule.DeadlineScheduler;
+import com.simpletown.service.MapService;
+import com.simpletown.service.MessageService;
+import com.simpletown.war.WarConflict;
+import com.simpletown.war.WarManager;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The plugin's town and war managers running on a temporary data folder, seeded the way a live
+ * server would be: {@code towns.yml} and {@code wars.yml} are written first and then loaded
+ * through the regular constructors.
+ * <p>
+ * Towns are {@link #TOWN_SIDE}-chunk squares laid out on a grid with a two-chunk gap. Conflict
+ * {@code c} is fought between towns {@code 2c} (attacker) and {@code 2c + 1} (defender), is
+ * already active and has {@code flags} attacker flags planted in the defender's chunks. Broadcasts
+ * are muted and map output is discarded.
+ */
+public final class Sandbox implements AutoCloseable {
+    public static final int TOWN_SIDE = 6;
+    private static final int TOWN_SPACING = TOWN_SIDE + 2;
+    private static final int FLAG_HEALTH = 60;
+    private static final long FLAG_CAPTURE_MS = 120_000L;
+    private static final int STARTING_POINTS = 600;
+
+    private final File folder;
+    private final SimpleTownPlugin plugin;
+    private final TownManager townManager;
+    private final WarManager warManager;
+    private final ChunkOccupancyIndex occupancyIndex;
+    private final MapService mapService;
+    private final List<Town> towns = new ArrayList<>();
+    private final List<WarConflict> conflicts = new ArrayList<>();
+
+    /**
+     * @param citizens names of the players living in each town, by town index
+     */
+    public Sandbox(SimulationServer server, int townCount, int conflictCount, int flags, List<? extends Set<String>> citizens) {
+        try {
+            folder = Files.createTempDirectory("simpletown-simulation").toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        plugin = server.createPlugin(folder);
+        townManager = new TownManager(plugin);
+        writeTowns(townCount, citizens);
+        townManager.reload();
+        for (int i = 0; i < townCount; i++) {
+            towns.add(townManager.getTownByName(townName(i)));
+        }
+        writeConflicts(conflictCount, flags);
+        MessageService messages = new MessageService(plugin) {
+            @Override
+            public void broadcast(String path) {
+            }
+
+            @Override
+            public void broadcast(String path, Map<String, String> placeholders) {
+            }
+        };
+        warManager = new WarManager(plugin, messages, townManager, new DeadlineScheduler(plugin));
+        occupancyIndex = new ChunkOccupancyIndex(townManager);
+        townManager.addMembershipListener(occupancyIndex);
+        warManager.setOccupancyIndex(occupancyIndex);
+        mapService = new MapService(plugin, townManager, warManager, new DiscardingMapRenderer());
+        warManager.setMapService(mapService);
+        for (int c = 0; c < conflictCount; c++) {
+            conflicts.add(warManager.getConflictForTown(townName(c * 2)).orElseThrow());
+        }
+    }
+
+    public static String townName(int index) {
+        return "Sim" + index;
+    }
+
+    public SimpleTownPlugin getPlugin() {
+        return plugin;
+    }
+
+    public TownManager getTownManager() {
+        return townManager;
+    }
+
+    public WarManager getWarManager() {
+        return warManager;
+    }
+
+    public ChunkOccupancyIndex getOccupancyIndex() {
+        return occupancyIndex;
+    }
+
+    public MapService getMapService() {
+        return mapService;
+    }
+
+    public List<Town> getTowns() {
+        return towns;
+    }
+
+    public List<WarConflict> getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * The town's chunks sorted by x, then z, so that picks from a seeded random are repeatable.
+     */
+    public static List<ChunkPosition> sortedChunks(Town town) {
+        List<ChunkPosition> chunks = new ArrayList<>(town.getChunks());
+        chunks.sort((a, b) -> a.getX() != b.getX() ? Integer.compare(a.getX(), b.getX()) : Integer.compare(a.getZ(), b.getZ()));
+        return chunks;
+    }
+
+    @Override
+    public void close() {
+        mapService.clearAll();
+        SimulationServer.deleteRecursively(folder);
+    }
+
+    private void writeTowns(int townCount, List<? extends Set<String>> citizens) {
+        int grid = (int) Math.ceil(Math.sqrt(townCount));
+        List<Town> created = new ArrayList<>();
+        for (int i = 0; i < townCount; i++) {
+            int originX = (i % grid) * TOWN_SPACING;
+            int originZ = (i / grid) * TOWN_SPACING;
+            Set<ChunkPosition> chunks = new HashSet<>();
+            for (int dx = 0; dx < TOWN_SIDE; dx++) {
+                for (int dz = 0; dz < TOWN_SIDE; dz++) {
+                    chunks.add(new ChunkPosition(SimulationServer.WORLD, originX + dx, originZ + dz));
+                }
+            }
+            Set<String> members = i < citizens.size() ? new HashSet<>(citizens.get(i)) : new HashSet<>();
+            created.add(new Town(townName(i), "sim_mayor_" + i, members, chunks,
+                    new ChunkPosition(SimulationServer.WORLD, originX, originZ), true,
+                    townManager.getDefaultCitizenFlags(), townManager.getDefaultOutsiderFlags(), townManager.generateRandomColor()));
+        }
+        new TownStorage(folder, townManager.getDefaultCitizenFlags(), townManager.getDefaultOutsiderFlags(),
+                townManager.getDefaultOpen(), townManager.getDefaultColor()).saveTowns(created);
+    }
+
+    private void writeConflicts(int conflictCount, int flags) {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (int c = 0; c < conflictCount; c++) {
+            Town attacker = towns.get(c * 2);
+            Town defender = towns.get(c * 2 + 1);
+            List<Map<String, Object>> flagList = new ArrayList<>();
+            for (ChunkPosition chunk : sortedChunks(defender)) {
+                if (flagList.size() >= flags) {
+                    break;
+                }
+                if (chunk.equals(defender.getCapital())) {
+                    continue;
+                }
+                Map<String, Object> flag = new HashMap<>();
+                flag.put("chunk", chunk.serialize());
+                flag.put("town", attacker.getName());
+                flag.put("center", false);
+                flag.put("health", FLAG_HEALTH);
+                flag.put("remaining", FLAG_CAPTURE_MS);
+                flag.put("world", SimulationServer.WORLD);
+                flag.put("x", chunk.getX() * 16 + 8);
+                flag.put("y", 64);
+                flag.put("z", chunk.getZ() * 16 + 8);
+                flagList.add(flag);
+            }
+            Map<String, Object> conflict = new HashMap<>();
+            conflict.put("attacker", attacker.getName());
+            conflict.put("defender", defender.getName());
+            conflict.put("type", "WAR");
+            conflict.put("status", "ACTIVE");
+            conflict.put("prep", System.currentTimeMillis());
+            conflict.put("end", 0L);
+            conflict.put("attacker-points", STARTING_POINTS);
+            conflict.put("defender-points", STARTING_POINTS);
+            conflict.put("flags", flagList);
+            list.add(conflict);
+        }
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("conflicts", list);
+        try {
+            config.save(new File(folder, "wars.yml"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class DiscardingMapRenderer implements MapRenderer {
+        @Override
+        public void upsertCity(String cityId, String name, String description, List<MapPolygon> polygons, String colorHex, ChunkPosition capitalChunk) {
+        }
+
+        @Override
+        public void removeCity(String cityId) {
+        }
+
+        @Override
+        public void upsertOccupied(String controllerId, String controllerName, List<MapPolygon> polygons, String colorHex) {
+        }
+
+        @Override
+        public void removeOccupied(String controllerId) {
+        }
+
+        @Override
+        public void upsertCaptureFlag(String flagId, String townName, ChunkPosition chunk) {
+        }
+
+        @Override
+        public void removeCaptureFlag(String flagId) {
+        }
+
+        @Override
+        public void clearWorld(String worldName) {
+        }
+
+        @Override
+        public void clearAll() {
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.simpletown.simulation;
+
+import com.simpletown.SimpleTownPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.PluginManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bukkit server for the simulation tests, installed once per JVM.
+ * <p>
+ * Everything the plugin reaches through {@link Bukkit} is a mock with default answers, except the
+ * scheduler, which is a {@link FakeScheduler} advanced by the test, the online player list and the
+ * listeners registered through the plugin manager, which are kept so a test can feed them events.
+ * There is one world, and players are proxies that only know their name, UUID and position.
+ */
+public final class SimulationServer {
+    public static final String WORLD = "simulation";
+    private static final UUID WORLD_ID = UUID.nameUUIDFromBytes(WORLD.getBytes(StandardCharsets.UTF_8));
+    private static SimulationServer instance;
+
+    private final Logger logger = Logger.getLogger("SimpleTownSimulation");
+    private final Server server = mock(Server.class);
+    private final World world = mock(World.class);
+    private final List<Player> onlinePlayers = new ArrayList<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private FakeScheduler scheduler = new FakeScheduler();
+
+    private SimulationServer() {
+        PluginManager pluginManager = mock(PluginManager.class);
+        doAnswer(invocation -> listeners.add(invocation.getArgument(0))).when(pluginManager).registerEvents(any(), any());
+        when(server.getName()).thenReturn("SimulationServer");
+        when(server.getVersion()).thenReturn("simulation");
+        when(server.getBukkitVersion()).thenReturn("simulation");
+        when(server.getLogger()).thenReturn(logger);
+        when(server.getPluginManager()).thenReturn(pluginManager);
+        when(server.getScheduler()).thenAnswer(invocation -> scheduler.asBukkitScheduler());
+        when(server.getOnlinePlayers()).thenAnswer(invocation -> onlinePlayers);
+        when(world.getName()).thenReturn(WORLD);
+        when(world.getUID()).thenReturn(WORLD_ID);
+        when(world.getMinHeight()).thenReturn(-64);
+        when(world.getMaxHeight()).thenReturn(320);
+        Bukkit.setServer(server);
+    }
+
+    /**
+     * The shared server with a fresh scheduler, no players online and no listeners.
+     */
+    public static synchronized SimulationServer start() {
+        if (instance == null) {
+            instance = new SimulationServer();
+        }
+        instance.scheduler = new FakeScheduler();
+        instance.onlinePlayers.clear();
+        instance.listeners.clear();
+        return instance;
+    }
+
+    public FakeScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public Logger getLogger() {
+        return logger;
+    }
+
+    public List<Listener> getListeners() {
+        return listeners;
+    }
+
+    /**
+     * A plugin instance that was never enabled: configuration comes from the bundled config.yml,
+     * resources from the test classpath and data files from {@code dataFolder}, into which
+     * {@code saveResource} copies the bundled file like the real plugin does.
+     */
+    public SimpleTownPlugin createPlugin(File dataFolder) {
+        SimpleTownPlugin plugin = mock(SimpleTownPlugin.class);
+        YamlConfiguration config = loadResource("config.yml");
+        when(plugin.getConfig()).thenReturn(config);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(logger);
+        when(plugin.getName()).thenReturn("SimpleTown");
+        when(plugin.getServer()).thenReturn(server);
+        when(plugin.isEnabled()).thenReturn(true);
+        when(plugin.getResource(anyString())).thenAnswer(invocation ->
+                SimulationServer.class.getClassLoader().getResourceAsStream(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> {
+            saveResource(invocation.getArgument(0), new File(dataFolder, invocation.<String>getArgument(0)), invocation.getArgument(1));
+            return null;
+        }).when(plugin).saveResource(anyString(), anyBoolean());
+        return plugin;
+    }
+
+    /**
+     * An online player standing at the given block position of the simulation world.
+     */
+    public Player addPlayer(String name, double x, double z) {
+        UUID id = UUID.nameUUIDFromBytes(("simulation:" + name).getBytes(StandardCharsets.UTF_8));
+        double[] position = {x, z};
+        Player player = (Player) Proxy.newProxyInstance(SimulationServer.class.getClassLoader(), new Class<?>[]{Player.class, Positioned.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getName", "getDisplayName" -> {
+                            return name;
+                        }
+                        case "getUniqueId" -> {
+                            return id;
+                        }
+                        case "isOnline" -> {
+                            return true;
+                        }
+                        case "getWorld" -> {
+                            return world;
+                        }
+                        case "getLocation" -> {
+                            Location location = args == null || args[0] == null ? new Location(world, 0, 0, 0) : (Location) args[0];
+                            location.setWorld(world);
+                            location.setX(position[0]);
+                            location.setY(64);
+                            location.setZ(position[1]);
+                            return location;
+                        }
+                        case "position" -> {
+                            return position;
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return id.hashCode();
+                        }
+                        case "toString" -> {
+                            return "SimulatedPlayer{" + name + "}";
+                        }
+                        default -> {
+                            return FakeScheduler.defaultValue(method.getReturnType());
+                        }
+                    }
+                });
+        onlinePlayers.add(player);
+        return player;
+    }
+
+    public static void moveTo(Player player, double x, double z) {
+        double[] position = ((Positioned) player).position();
+        position[0] = x;
+        position[1] = z;
+    }
+
+    public static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static void saveResource(String name, File target, boolean replace) throws IOException {
+        if (target.exists() && !replace) {
+            return;
+        }
+        try (InputStream stream = SimulationServer.class.getClassLoader().getResourceAsStream(name)) {
+            if (stream == null) {
+                throw new IllegalArgumentException("No bundled resource " + name);
+            }
+            Files.createDirectories(target.toPath().getParent());
+            Files.copy(stream, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static YamlConfiguration loadResource(String name) {
+        YamlConfiguration config = new YamlConfiguration();
+        try (InputStream stream = SimulationServer.class.getClassLoader().getResourceAsStream(name)) {
+            if (stream != null) {
+                config.load(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InvalidConfigurationException e) {
+            throw new IllegalStateException("Bundled " + name + " is invalid", e);
+        }
+        return config;
+    }
+
+    /**
+     * Lets {@link #moveTo} reach the mutable position behind a player proxy.
+     */
+    public interface Positioned {
+        double[] position();
+    }
+}
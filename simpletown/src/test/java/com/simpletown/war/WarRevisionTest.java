@@ -0,0 +1,47 @@
+package com.simpletown.war;
+
+import com.simpletown.simulation.FakeScheduler;
+import com.simpletown.simulation.Sandbox;
+import com.simpletown.simulation.SimulationServer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The war revision keys the protection, tracker, map and info menu caches, so a server where no war
+ * state changes must keep it still while the flag timer and the map flush keep running.
+ */
+class WarRevisionTest {
+    private static final int TICKS = 1200;
+    private static final int TICKS_PER_FLUSH = 20;
+
+    @Test
+    void idleServerWithoutWars() {
+        assertIdle(0, 0);
+    }
+
+    @Test
+    void idleWarsWithNobodyOnline() {
+        assertIdle(2, 3);
+    }
+
+    private static void assertIdle(int conflicts, int flags) {
+        SimulationServer server = SimulationServer.start();
+        try (Sandbox sandbox = new Sandbox(server, 4, conflicts, flags, List.<Set<String>>of())) {
+            WarManager warManager = sandbox.getWarManager();
+            sandbox.getMapService().flush();
+            long revision = warManager.getRevision();
+            FakeScheduler scheduler = server.getScheduler();
+            for (int tick = 1; tick <= TICKS; tick++) {
+                scheduler.tick();
+                if (tick % TICKS_PER_FLUSH == 0) {
+                    sandbox.getMapService().flush();
+                }
+            }
+            assertEquals(revision, warManager.getRevision(), "war revision moved on an idle server");
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.simpletown.war;
+
+import com.simpletown.data.ChunkPosition;
+import com.simpletown.data.TownFlag;
+import com.simpletown.movement.PlayerTerritoryTracker;
+import com.simpletown.protection.ProtectionService;
+import com.simpletown.simulation.FakeScheduler;
+import com.simpletown.simulation.PhaseTimings;
+import com.simpletown.simulation.Sandbox;
+import com.simpletown.simulation.SimulationServer;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test for the war hot paths: {@code mvn test -Psimulation}.
+ * <p>
+ * Builds {@code simulation.towns} towns, {@code simulation.conflicts} active wars with
+ * {@code simulation.flags} flags each and {@code simulation.players} players split between the
+ * warring towns, all standing on their war's battlefield. Each step is one simulated second:
+ * players walk between battlefield chunks through the territory tracker, every player makes a
+ * protection check, a few players kill each other, the server runs twenty ticks so the flag timer
+ * fires with one second of capture progress, and the map is flushed. Percentiles of every phase
+ * are printed at the end.
+ */
+@Tag("simulation")
+class WarSimulationTest {
+    private static final double MOVE_CHANCE = 0.25;
+    private static final int PLAYERS_PER_KILL = 20;
+    private static final int TICKS_PER_STEP = 20;
+    private static final String[] PHASES = {"movement", "protection", "deaths", "flags", "map", "total"};
+
+    private final int towns = Integer.getInteger("simulation.towns", 40);
+    private final int conflicts = Integer.getInteger("simulation.conflicts", 10);
+    private final int flags = Integer.getInteger("simulation.flags", 8);
+    private final int playerCount = Integer.getInteger("simulation.players", 400);
+    private final int steps = Integer.getInteger("simulation.steps", 200);
+    private final Random random = new Random(42L);
+
+    @Test
+    void warHotPaths() {
+        assertTrue(conflicts > 0 && conflicts * 2 <= towns, "simulation.conflicts must be between 1 and half the towns");
+        assertTrue(flags < Sandbox.TOWN_SIDE * Sandbox.TOWN_SIDE, "simulation.flags must leave the capital chunk free");
+        SimulationServer server = SimulationServer.start();
+        int participants = conflicts * 2;
+        List<Set<String>> citizens = new ArrayList<>();
+        for (int i = 0; i < participants; i++) {
+            citizens.add(new HashSet<>());
+        }
+        for (int p = 0; p < playerCount; p++) {
+            citizens.get(p % participants).add(playerName(p));
+        }
+
+        long setupStart = System.nanoTime();
+        try (Sandbox sandbox = new Sandbox(server, towns, conflicts, flags, citizens)) {
+            WarManager warManager = sandbox.getWarManager();
+            ProtectionService protection = new ProtectionService(sandbox.getTownManager(), warManager, server.getLogger());
+            List<Player> players = new ArrayList<>();
+            Map<Player, List<ChunkPosition>> battlefields = new HashMap<>();
+            for (int p = 0; p < playerCount; p++) {
+                List<ChunkPosition> area = Sandbox.sortedChunks(sandbox.getTowns().get((p % participants) / 2 * 2 + 1));
+                ChunkPosition start = area.get(random.nextInt(area.size()));
+                Player player = server.addPlayer(playerName(p), start.getX() * 16 + 8, start.getZ() * 16 + 8);
+                players.add(player);
+                battlefields.put(player, area);
+            }
+            sandbox.getPlugin().getConfig().set("movement.tracking-mode", "event");
+            PlayerTerritoryTracker tracker = new PlayerTerritoryTracker(sandbox.getPlugin(), sandbox.getTownManager(), warManager);
+            tracker.addListener(sandbox.getOccupancyIndex());
+            tracker.start();
+            tracker.trackOnlinePlayers();
+            PlayerTerritoryTracker.MoveListener moveListener = moveListener(server);
+            int initialFlags = activeFlags(sandbox);
+            long setupMillis = (System.nanoTime() - setupStart) / 1_000_000L;
+
+            FakeScheduler scheduler = server.getScheduler();
+            PhaseTimings timings = new PhaseTimings(steps, PHASES);
+            for (int step = 0; step < steps; step++) {
+                long stepStart = System.nanoTime();
+
+                long start = System.nanoTime();
+                for (Player player : players) {
+                    if (random.nextDouble() >= MOVE_CHANCE) {
+                        continue;
+                    }
+                    List<ChunkPosition> area = battlefields.get(player);
+                    ChunkPosition to = area.get(random.nextInt(area.size()));
+                    Location from = player.getLocation();
+                    SimulationServer.moveTo(player, to.getX() * 16 + 8, to.getZ() * 16 + 8);
+                    moveListener.onMove(new PlayerMoveEvent(player, from, player.getLocation()));
+                }
+                timings.record(0, step, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (Player player : players) {
+                    protection.check(player, ChunkPosition.fromLocation(player.getLocation()), TownFlag.BREAK);
+                }
+                timings.record(1, step, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                int kills = Math.max(1, players.size() / PLAYERS_PER_KILL);
+                for (int i = 0; i < kills && !players.isEmpty(); i++) {
+                    warManager.handlePlayerDeath(players.get(random.nextInt(players.size())), players.get(random.nextInt(players.size())));
+                }
+                timings.record(2, step, System.nanoTime() - start);
+
+                long secondAgo = System.currentTimeMillis() - 1000L;
+                sandbox.getConflicts().forEach(conflict -> conflict.getActiveFlags().forEach(flag -> flag.setLastTick(secondAgo)));
+                start = System.nanoTime();
+                for (int tick = 0; tick < TICKS_PER_STEP; tick++) {
+                    scheduler.tick();
+                }
+                timings.record(3, step, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                sandbox.getMapService().flush();
+                timings.record(4, step, System.nanoTime() - start);
+
+                timings.record(5, step, System.nanoTime() - stepStart);
+            }
+            tracker.stop();
+
+            int remainingFlags = activeFlags(sandbox);
+            System.out.println(timings.format(String.format(
+                    "War simulation: %d towns, %d wars, %d flags per war, %d players, %d steps (setup %d ms, flags %d -> %d)",
+                    towns, conflicts, flags, playerCount, steps, setupMillis, initialFlags, remainingFlags)));
+            assertEquals(conflicts * flags, initialFlags);
+            assertTrue(remainingFlags <= initialFlags);
+        }
+    }
+
+    private static PlayerTerritoryTracker.MoveListener moveListener(SimulationServer server) {
+        for (Listener listener : server.getListeners()) {
+            if (listener instanceof PlayerTerritoryTracker.MoveListener moveListener) {
+                return moveListener;
+            }
+        }
+        throw new IllegalStateException("Territory tracker did not register its move listener");
+    }
+
+    private static int activeFlags(Sandbox sandbox) {
+        return sandbox.getConflicts().stream().mapToInt(conflict -> conflict.getActiveFlags().size()).sum();
+    }
+
+    private static String playerName(int index) {
+        return "sim_" + index;
+    }
+}